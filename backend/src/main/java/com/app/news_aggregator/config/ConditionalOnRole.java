@@ -0,0 +1,45 @@
+package com.app.news_aggregator.config;
+
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bean hanya dibuat jika instance ini menjalankan salah satu peran yang disebut.
+ *
+ * Peran instance diatur lewat app.roles (contoh: APP_ROLES=scrape-worker).
+ * Default semua peran aktif, jadi satu node tetap berperilaku seperti sebelumnya.
+ * Dengan peran terpisah, node API bisa di-scale tanpa ikut menggandakan crawl terjadwal
+ * dan beban scraping, dan setiap tier worker bisa diukur sesuai bebannya sendiri.
+ *
+ * <pre>
+ * {@literal @}ConditionalOnRole(ConditionalOnRole.SCRAPE_WORKER)
+ * public class ScrapeConsumer { ... }
+ * </pre>
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Conditional(OnRoleCondition.class)
+public @interface ConditionalOnRole {
+
+    /** REST controller */
+    String API = "api";
+    /** Consumer crawl.rss.queue */
+    String CRAWL_WORKER = "crawl-worker";
+    /** Consumer scrape.article.queue + poller pipeline scraping */
+    String SCRAPE_WORKER = "scrape-worker";
+    /** Consumer email.digest.queue */
+    String DIGEST_WORKER = "digest-worker";
+    /** Job terjadwal (crawl RSS, cleanup); hanya leader yang menjalankan */
+    String SCHEDULER = "scheduler";
+
+    /**
+     * Bean aktif jika minimal satu peran ini dijalankan instance.
+     */
+    String[] value();
+}
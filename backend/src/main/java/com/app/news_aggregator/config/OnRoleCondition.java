@@ -0,0 +1,50 @@
+package com.app.news_aggregator.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Condition untuk {@link ConditionalOnRole}: cocokkan peran bean dengan app.roles.
+ */
+class OnRoleCondition extends SpringBootCondition {
+
+    static final Set<String> ALL_ROLES = Set.of(
+        ConditionalOnRole.API,
+        ConditionalOnRole.CRAWL_WORKER,
+        ConditionalOnRole.SCRAPE_WORKER,
+        ConditionalOnRole.DIGEST_WORKER,
+        ConditionalOnRole.SCHEDULER
+    );
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(ConditionalOnRole.class.getName());
+        String[] required = attributes != null ? (String[]) attributes.get("value") : new String[0];
+
+        Set<String> active = activeRoles(Binder.get(context.getEnvironment()));
+        for (String role : required) {
+            if (active.contains(role)) {
+                return ConditionOutcome.match("peran '" + role + "' aktif");
+            }
+        }
+        return ConditionOutcome.noMatch("tidak ada peran " + String.join("/", required)
+                + " di app.roles " + active);
+    }
+
+    static Set<String> activeRoles(Binder binder) {
+        return binder.bind("app.roles", Bindable.setOf(String.class))
+                .map(roles -> roles.stream()
+                        .map(role -> role.trim().toLowerCase(Locale.ROOT))
+                        .collect(Collectors.toSet()))
+                .orElse(ALL_ROLES);
+    }
+}
@@ -1,13 +1,19 @@
 package com.app.news_aggregator.config;
 
+import com.app.news_aggregator.queue.ListenerMetrics;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * RabbitMQConfig — topologi messaging lengkap.
@@ -21,6 +27,10 @@ import org.springframework.context.annotation.Configuration;
  *
  *  dead.letter.exchange
  *    └── #               → dead.letter.queue      (pesan yang gagal)
+ *
+ *  (default exchange)
+ *    └── scrape.article.retry.<N>s  → TTL N detik, lalu dead-letter ke newsagg.exchange/scrape.article
+ *                                     (delayed retry scraping, tanpa consumer)
  */
 @Configuration
 public class RabbitMQConfig {
@@ -37,6 +47,9 @@ public class RabbitMQConfig {
     public static final String QUEUE_SCRAPE_ARTICLE  = "scrape.article.queue";
     public static final String ROUTING_KEY_SCRAPE    = "scrape.article";
 
+    // Delayed retry scrape: satu queue per tingkat backoff (nama memuat delay-nya)
+    public static final String QUEUE_SCRAPE_RETRY_PREFIX = "scrape.article.retry.";
+
     // Queue & routing key — Email Digest (NEW)
     public static final String QUEUE_EMAIL_DIGEST    = "email.digest.queue";
     public static final String ROUTING_KEY_DIGEST    = "email.digest";
@@ -90,6 +103,33 @@ public class RabbitMQConfig {
                 .build();
     }
 
+    /**
+     * Queue delayed retry untuk scraping yang gagal sementara (timeout, 5xx, 429).
+     *
+     * Tidak ada consumer: pesan menunggu sampai x-message-ttl habis, lalu di-dead-letter kembali
+     * ke scrape.article.queue. TTL per queue (bukan per pesan) agar semua pesan di satu queue
+     * kedaluwarsa berurutan — TTL per pesan hanya dicek di kepala queue.
+     * Nama queue memuat delay, jadi mengubah app.scraper.retry.delays-seconds membuat queue baru
+     * alih-alih bentrok dengan argumen queue lama.
+     */
+    @Bean
+    public Declarables scrapeRetryQueues(
+            @Value("${app.scraper.retry.delays-seconds:60,300,1800,7200}") int[] delaysSeconds) {
+        List<Declarable> queues = new ArrayList<>();
+        for (int delay : delaysSeconds) {
+            queues.add(QueueBuilder.durable(scrapeRetryQueue(delay))
+                    .withArgument("x-message-ttl", delay * 1000L)
+                    .withArgument("x-dead-letter-exchange", EXCHANGE)
+                    .withArgument("x-dead-letter-routing-key", ROUTING_KEY_SCRAPE)
+                    .build());
+        }
+        return new Declarables(queues);
+    }
+
+    public static String scrapeRetryQueue(int delaySeconds) {
+        return QUEUE_SCRAPE_RETRY_PREFIX + delaySeconds + "s";
+    }
+
     @Bean
     public Queue deadLetterQueue() {
         return QueueBuilder.durable(QUEUE_DEAD_LETTER).build();
@@ -129,6 +169,10 @@ public class RabbitMQConfig {
         return template;
     }
 
+    /**
+     * Factory default: hanya dipakai listener tanpa containerFactory sendiri (dead.letter.queue).
+     * Setiap queue kerja punya factory sendiri karena profil I/O-nya sangat berbeda.
+     */
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
             ConnectionFactory connectionFactory) {
@@ -139,5 +183,108 @@ public class RabbitMQConfig {
         factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
         return factory;
     }
-}
 
+    /**
+     * Container factory khusus untuk crawl.rss.queue.
+     *
+     * Fetch feed adalah pekerjaan I/O murni (menunggu response publisher).
+     * Dengan factory default, satu consumer = satu platform thread, sehingga satu
+     * publisher yang lambat menahan satu thread selama timeout.
+     *
+     * Di sini setiap consumer berjalan di virtual thread, jadi jumlah consumer bisa
+     * dinaikkan ke ratusan tanpa biaya thread OS. Prefetch tetap 1 per consumer
+     * agar pesan terbagi rata dan tidak menumpuk di consumer yang sedang lambat.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory crawlListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            ListenerMetrics listenerMetrics,
+            @Value("${app.crawler.consumers.min:10}") int minConsumers,
+            @Value("${app.crawler.consumers.max:200}") int maxConsumers,
+            @Value("${app.crawler.consumers.max-limit:400}") int maxConsumersLimit,
+            @Value("${app.crawler.consumers.prefetch:1}") int prefetch,
+            @Value("${app.crawler.consumers.virtual-threads:true}") boolean virtualThreads) {
+        SimpleRabbitListenerContainerFactory factory = listenerFactory(connectionFactory, listenerMetrics,
+                QUEUE_CRAWL_RSS, "crawl-worker-", minConsumers, maxConsumers, maxConsumersLimit, prefetch, virtualThreads);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        return factory;
+    }
+
+    /**
+     * Container factory khusus untuk scrape.article.queue (consumer batching).
+     *
+     * Listener menerima sampai batch-size pesan sekaligus (atau lebih sedikit jika
+     * receive-timeout habis), lalu mengklaim semua artikelnya dengan satu query
+     * dan menyerahkannya ke pipeline scraping.
+     *
+     * Ack MANUAL: listener ack/nack per pesan (delivery tag). Prefetch = batch-size agar
+     * satu batch penuh bisa terkumpul tanpa menunggu round trip per pesan.
+     * Consumer lebih sedikit dari crawl: consumer hanya memicu, fetch berjalan di pipeline
+     * (dan menunggu slot in-flight saat pipeline penuh).
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory scrapeListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            ListenerMetrics listenerMetrics,
+            @Value("${app.scraper.consumer.concurrency:2}") int concurrency,
+            @Value("${app.scraper.consumer.max-concurrency:4}") int maxConcurrency,
+            @Value("${app.scraper.consumer.max-concurrency-limit:8}") int maxConcurrencyLimit,
+            @Value("${app.scraper.consumer.batch-size:20}") int batchSize,
+            @Value("${app.scraper.consumer.receive-timeout-ms:2000}") long receiveTimeoutMs,
+            @Value("${app.scraper.consumer.virtual-threads:true}") boolean virtualThreads) {
+        SimpleRabbitListenerContainerFactory factory = listenerFactory(connectionFactory, listenerMetrics,
+                QUEUE_SCRAPE_ARTICLE, "scrape-worker-", concurrency, maxConcurrency, maxConcurrencyLimit,
+                batchSize, virtualThreads);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * Container factory khusus untuk email.digest.queue.
+     *
+     * Kirim email dibatasi SMTP server, bukan CPU: consumer sedikit, prefetch 1
+     * agar pengiriman tidak terlalu agresif, tapi bisa di-scale saat antrian digest pagi menumpuk.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory digestListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            ListenerMetrics listenerMetrics,
+            @Value("${app.digest.consumer.concurrency:1}") int concurrency,
+            @Value("${app.digest.consumer.max-concurrency:4}") int maxConcurrency,
+            @Value("${app.digest.consumer.max-concurrency-limit:8}") int maxConcurrencyLimit,
+            @Value("${app.digest.consumer.prefetch:1}") int prefetch,
+            @Value("${app.digest.consumer.virtual-threads:true}") boolean virtualThreads) {
+        SimpleRabbitListenerContainerFactory factory = listenerFactory(connectionFactory, listenerMetrics,
+                QUEUE_EMAIL_DIGEST, "digest-worker-", concurrency, maxConcurrency, maxConcurrencyLimit,
+                prefetch, virtualThreads);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        return factory;
+    }
+
+    /**
+     * Pengaturan bersama factory per queue: concurrency min/max, prefetch, executor
+     * (virtual thread atau platform thread), dan interceptor ListenerMetrics untuk autoscaling.
+     * maxConsumersLimit adalah batas keras yang boleh dicapai ListenerAutoscaler di atas maxConsumers.
+     */
+    private SimpleRabbitListenerContainerFactory listenerFactory(
+            ConnectionFactory connectionFactory, ListenerMetrics listenerMetrics, String queue,
+            String threadPrefix, int minConsumers, int maxConsumers, int maxConsumersLimit,
+            int prefetch, boolean virtualThreads) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadPrefix);
+        executor.setVirtualThreads(virtualThreads);
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setTaskExecutor(executor);
+        factory.setConcurrentConsumers(minConsumers);
+        factory.setMaxConcurrentConsumers(Math.max(minConsumers, maxConsumers));
+        factory.setPrefetchCount(prefetch);
+        factory.setAdviceChain(listenerMetrics.register(queue, minConsumers, maxConsumers, maxConsumersLimit));
+        return factory;
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -13,10 +14,14 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
@@ -112,10 +117,18 @@ public class RedisConfig {
      * - sources       : 30 menit (sumber RSS jarang berubah)
      * - categories    : 60 menit (kategori sangat jarang berubah)
      * - search        : 2 menit (hasil search lebih dinamis)
+     *
+     * Jika app.cache.l1.enabled=true (default), cache Redis menjadi L2 di belakang
+     * cache Caffeine per instance (lihat TwoLevelCacheManager).
      */
     @Bean
     @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(
+            RedisConnectionFactory connectionFactory,
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${app.cache.l1.enabled:true}") boolean l1Enabled,
+            @Value("${app.cache.l1.max-size:500}") long l1MaxSize,
+            @Value("${app.cache.l1.ttl-seconds:30}") long l1TtlSeconds) {
 
         // Konfigurasi default untuk cache yang tidak punya setting khusus
         RedisCacheConfiguration defaultConfig = buildCacheConfig(Duration.ofMinutes(5));
@@ -128,10 +141,35 @@ public class RedisConfig {
         cacheConfigs.put(CACHE_CATEGORIES,     buildCacheConfig(Duration.ofMinutes(60)));
         cacheConfigs.put(CACHE_SEARCH,         buildCacheConfig(Duration.ofMinutes(2)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigs)
                 .build();
+        if (!l1Enabled) {
+            return redisCacheManager;
+        }
+        // RedisCacheManager di sini bukan bean: cache awal (TTL per cache) diinisialisasi manual
+        redisCacheManager.afterPropertiesSet();
+        return new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate,
+                l1MaxSize, Duration.ofSeconds(l1TtlSeconds));
+    }
+
+    /**
+     * Subscriber channel invalidasi L1: evict/clear di satu instance membuang entry L1
+     * yang sama di semua instance lain.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, CacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof TwoLevelCacheManager twoLevel) {
+            container.addMessageListener(
+                    (message, pattern) -> twoLevel.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        }
+        return container;
     }
 
     /**
@@ -0,0 +1,246 @@
+package com.app.news_aggregator.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TwoLevelCacheManager menaruh cache Caffeine per instance (L1) di depan cache Redis (L2).
+ *
+ * Dengan Redis saja, setiap hit tetap butuh round trip jaringan plus deserialisasi JSON
+ * (default typing) seluruh RestPage — padahal halaman utama dan kategori teratas diminta terus.
+ * Dengan L1, hit berikutnya di instance yang sama langsung mengembalikan object di memory.
+ *
+ * - Baca : L1 → L2 → method (@Cacheable); hasil dari L2/method disimpan ke L1
+ * - Tulis: L2 lalu L1
+ * - Evict/clear: L2 dan L1 lokal, lalu publish ke channel Redis agar L1 di instance lain
+ *   ikut dibuang (invalidateArticleCache tetap membersihkan L1 di semua node)
+ *
+ * Pub/sub Redis tidak menjamin pengiriman, jadi TTL L1 dibuat pendek (app.cache.l1.ttl-seconds):
+ * jika pesan invalidasi hilang, data basi di L1 paling lama bertahan selama TTL tersebut.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+    // Pemisah field pesan invalidasi: nodeId|cacheName|key (key kosong = clear)
+    private static final char SEPARATOR = '|';
+
+    private final CacheManager l2;
+    private final StringRedisTemplate redisTemplate;
+    private final long l1MaxSize;
+    private final Duration l1Ttl;
+
+    // ID instance ini, agar pesan invalidasi sendiri tidak diproses dua kali
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager l2, StringRedisTemplate redisTemplate, long l1MaxSize, Duration l1Ttl) {
+        this.l2 = l2;
+        this.redisTemplate = redisTemplate;
+        this.l1MaxSize = l1MaxSize;
+        this.l1Ttl = l1Ttl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) return cache;
+        Cache redisCache = l2.getCache(name);
+        if (redisCache == null) return null;
+        return caches.computeIfAbsent(name, n -> new TwoLevelCache(n, redisCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return l2.getCacheNames();
+    }
+
+    /**
+     * Pesan dari INVALIDATION_CHANNEL: buang entry (atau seluruh isi) L1 lokal.
+     * L2 tidak disentuh — sudah dihapus oleh instance pengirim.
+     */
+    public void onInvalidation(String message) {
+        int first = message.indexOf(SEPARATOR);
+        int second = message.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0) return;
+        if (message.substring(0, first).equals(nodeId)) return;
+
+        String cacheName = message.substring(first + 1, second);
+        String key = message.substring(second + 1);
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache == null) return;
+        if (key.isEmpty()) {
+            cache.local.invalidateAll();
+        } else {
+            cache.local.invalidate(key);
+        }
+        cache.remoteInvalidations.incrementAndGet();
+    }
+
+    private void publish(String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    nodeId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key.toString() : ""));
+        } catch (Exception e) {
+            // L1 di node lain tetap kedaluwarsa sendiri setelah TTL L1
+            log.warn("[CACHE] Gagal publish invalidasi {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Hit ratio per tier, per cache dan total.
+     * l1HitRatio = hit L1 / semua request; l2HitRatio = hit L2 / request yang tidak kena L1.
+     */
+    public Map<String, Object> stats() {
+        long l1Hits = 0, l2Hits = 0, misses = 0;
+        Map<String, Object> perCache = new LinkedHashMap<>();
+        for (TwoLevelCache cache : caches.values()) {
+            perCache.put(cache.getName(), cache.stats());
+            l1Hits += cache.l1Hits.get();
+            l2Hits += cache.l2Hits.get();
+            misses += cache.misses.get();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("l1MaxSize", l1MaxSize);
+        stats.put("l1TtlSeconds", l1Ttl.toSeconds());
+        stats.putAll(ratios(l1Hits, l2Hits, misses));
+        stats.put("caches", perCache);
+        return stats;
+    }
+
+    private static Map<String, Object> ratios(long l1Hits, long l2Hits, long misses) {
+        long requests = l1Hits + l2Hits + misses;
+        long l1Misses = l2Hits + misses;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests);
+        stats.put("l1Hits", l1Hits);
+        stats.put("l2Hits", l2Hits);
+        stats.put("misses", misses);
+        stats.put("l1HitRatio", requests > 0 ? (double) l1Hits / requests : 0.0);
+        stats.put("l2HitRatio", l1Misses > 0 ? (double) l2Hits / l1Misses : 0.0);
+        return stats;
+    }
+
+    /**
+     * Satu cache dua tingkat. Value di L1 adalah object hasil deserialisasi L2 / return method,
+     * dipakai bersama oleh semua request di instance ini (DTO cache tidak boleh dimodifikasi).
+     */
+    private final class TwoLevelCache implements Cache {
+
+        private final String name;
+        private final Cache remote;
+        private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+
+        private final AtomicLong l1Hits = new AtomicLong();
+        private final AtomicLong l2Hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong remoteInvalidations = new AtomicLong();
+
+        TwoLevelCache(String name, Cache remote) {
+            this.name = name;
+            this.remote = remote;
+            this.local = Caffeine.newBuilder()
+                    .maximumSize(l1MaxSize)
+                    .expireAfterWrite(l1Ttl)
+                    .build();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return remote.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            Object value = local.getIfPresent(key);
+            if (value != null) {
+                l1Hits.incrementAndGet();
+                return new SimpleValueWrapper(value);
+            }
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                l2Hits.incrementAndGet();
+                local.put(key, wrapper.get());
+            } else {
+                misses.incrementAndGet();
+            }
+            return wrapper;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            ValueWrapper wrapper = get(key);
+            Object value = wrapper != null ? wrapper.get() : null;
+            if (value != null && type != null && !type.isInstance(value)) {
+                throw new IllegalStateException("Cached value bukan tipe " + type.getName() + ": " + value);
+            }
+            return (T) value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper wrapper = get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                return (T) wrapper.get();
+            }
+            T value = remote.get(key, valueLoader);
+            if (value != null) {
+                local.put(key, value);
+            }
+            return value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            remote.put(key, value);
+            if (value != null) {
+                local.put(key, value);
+            } else {
+                local.invalidate(key);
+            }
+        }
+
+        @Override
+        public void evict(Object key) {
+            remote.evict(key);
+            local.invalidate(key);
+            publish(name, key);
+        }
+
+        @Override
+        public void clear() {
+            remote.clear();
+            local.invalidateAll();
+            publish(name, null);
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stats = ratios(l1Hits.get(), l2Hits.get(), misses.get());
+            stats.put("l1Size", local.estimatedSize());
+            stats.put("remoteInvalidations", remoteInvalidations.get());
+            return stats;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.app.news_aggregator.controller;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.dto.ApiResponse;
 import com.app.news_aggregator.dto.ArticleDto;
 import com.app.news_aggregator.service.ArticleService;
@@ -21,9 +22,11 @@ import org.springframework.web.bind.annotation.*;
  * GET /api/v1/articles?category=teknologi - Filter by kategori
  * GET /api/v1/articles?search=keyword    - Search by keyword
  * GET /api/v1/articles?sourceId=1        - Filter by sumber
+ * GET /api/v1/articles?cursor=           - Mode cursor (keyset pagination) untuk infinite scroll
  */
 @Slf4j
 @RestController
+@ConditionalOnRole(ConditionalOnRole.API)
 @RequestMapping("/api/v1/articles")
 @RequiredArgsConstructor
 @Tag(name = "Articles", description = "Endpoint untuk mengambil dan mencari artikel berita")
@@ -31,6 +34,43 @@ public class ArticleController {
 
     private final ArticleService articleService;
 
+    /**
+     * GET /api/v1/articles?cursor=...
+     *
+     * Mode cursor: aktif jika parameter cursor ada (boleh kosong untuk halaman pertama)
+     * dan tidak ada search. Pencarian tetap memakai mode offset.
+     */
+    @GetMapping(params = {"cursor", "!search"})
+    @Operation(
+        summary = "Ambil daftar artikel (cursor pagination)",
+        description = """
+            Mode infinite scroll: setiap halaman sama cepatnya berapa pun kedalamannya, tanpa count per request.
+            - Halaman pertama: `?cursor=` (kosong)
+            - Halaman berikutnya: `?cursor=<nextCursor dari response sebelumnya>`
+            - Filter `category` atau `sourceId` sama seperti mode biasa (`category` didahulukan)
+
+            `approximateTotal` di-cache sebentar, sehingga bisa tertinggal dari jumlah sebenarnya.
+            """
+    )
+    public ResponseEntity<ApiResponse<ArticleDto.CursorPage>> getArticlesByCursor(
+            @Parameter(description = "Cursor dari nextCursor response sebelumnya; kosong untuk halaman pertama")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Jumlah artikel per halaman", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+
+            @Parameter(description = "Filter berdasarkan kategori, misal: teknologi, bisnis, olahraga")
+            @RequestParam(required = false) String category,
+
+            @Parameter(description = "Filter berdasarkan ID sumber RSS")
+            @RequestParam(required = false) Long sourceId) {
+
+        return ResponseEntity.ok(
+            ApiResponse.success("Berhasil mengambil daftar artikel",
+                    articleService.getArticlesByCursor(cursor, category, sourceId, size))
+        );
+    }
+
     /**
      * GET /api/v1/articles
      *
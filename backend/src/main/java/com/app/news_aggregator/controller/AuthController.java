@@ -1,5 +1,6 @@
 package com.app.news_aggregator.controller;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.dto.ApiResponse;
 import com.app.news_aggregator.dto.AuthDto;
 import com.app.news_aggregator.service.UserService;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 @Tag(name = "Auth", description = "Registrasi & login pengguna")
 @RestController
+@ConditionalOnRole(ConditionalOnRole.API)
 @RequestMapping("/api/v1/auth")
 @RequiredArgsConstructor
 public class AuthController {
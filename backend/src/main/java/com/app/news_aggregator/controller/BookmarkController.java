@@ -1,5 +1,6 @@
 package com.app.news_aggregator.controller;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.dto.ApiResponse;
 import com.app.news_aggregator.dto.ArticleDto;
 import com.app.news_aggregator.model.User;
@@ -18,6 +19,7 @@ import java.util.List;
 
 @Tag(name = "Bookmarks", description = "Kelola artikel yang disimpan user (butuh JWT)")
 @RestController
+@ConditionalOnRole(ConditionalOnRole.API)
 @RequestMapping("/api/v1/bookmarks")
 @RequiredArgsConstructor
 public class BookmarkController {
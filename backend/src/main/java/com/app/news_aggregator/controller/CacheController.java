@@ -1,6 +1,8 @@
 package com.app.news_aggregator.controller;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.config.RedisConfig;
+import com.app.news_aggregator.config.TwoLevelCacheManager;
 import com.app.news_aggregator.dto.ApiResponse;
 import com.app.news_aggregator.service.ArticleService;
 import com.app.news_aggregator.service.SourceService;
@@ -29,6 +31,7 @@ import java.util.*;
  */
 @Slf4j
 @RestController
+@ConditionalOnRole(ConditionalOnRole.API)
 @RequestMapping("/api/v1/cache")
 @RequiredArgsConstructor
 @Tag(name = "Cache", description = "Monitor dan kelola Redis cache — lihat statistik dan evict cache secara manual")
@@ -63,6 +66,8 @@ public class CacheController {
             - `search` — hasil pencarian artikel
 
             Jika `keyCount = 0` padahal sudah ada request → kemungkinan ada masalah konfigurasi Redis.
+
+            `tiers` berisi hit ratio per tingkat: L1 (Caffeine di instance ini) dan L2 (Redis).
             """
     )
     public ResponseEntity<ApiResponse<Map<String, Object>>> getCacheStats() {
@@ -97,6 +102,11 @@ public class CacheController {
             stats.put(cacheName, cacheInfo);
         }
 
+        // Hit ratio L1 (Caffeine, instance ini) dan L2 (Redis)
+        if (cacheManager instanceof TwoLevelCacheManager twoLevel) {
+            stats.put("tiers", twoLevel.stats());
+        }
+
         return ResponseEntity.ok(ApiResponse.success("Statistik cache", stats));
     }
 
@@ -1,22 +1,32 @@
 package com.app.news_aggregator.controller;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.service.*;
+import com.app.news_aggregator.crawler.ScrapeResultCache;
+import com.app.news_aggregator.crawler.SeenUrlFilter;
+import com.app.news_aggregator.crawler.SeenUrlFilterWarmUp;
+import com.app.news_aggregator.crawler.SiteExtractionRules;
 import com.app.news_aggregator.dto.ApiResponse;
 import com.app.news_aggregator.exception.ResourceNotFoundException;
+import com.app.news_aggregator.model.CrawlCycle;
 import com.app.news_aggregator.model.CrawlLog;
 import com.app.news_aggregator.model.Source;
+import com.app.news_aggregator.queue.ListenerMetrics;
 import com.app.news_aggregator.repository.CrawlLogRepository;
 import com.app.news_aggregator.repository.SourceRepository;
+import com.app.news_aggregator.search.ArticleSearchIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,9 +41,16 @@ import java.util.Map;
  * POST /api/v1/crawler/crawl/{sourceId}   - Crawl satu sumber tertentu
  * GET  /api/v1/crawler/logs/{sourceId}    - Riwayat crawl satu sumber
  * GET  /api/v1/crawler/stats              - Statistik crawl hari ini
+ * GET  /api/v1/crawler/seen-filter        - Statistik Bloom filter URL yang sudah tersimpan
+ * GET  /api/v1/crawler/cycles             - Daftar crawl cycle terbaru
+ * GET  /api/v1/crawler/cycles/{cycleId}   - Metrik lengkap satu crawl cycle
+ * GET  /api/v1/crawler/scrape-pipeline    - Throughput dan kedalaman antrian pipeline scraping
+ * GET  /api/v1/crawler/listeners          - Utilisasi consumer dan lag per queue RabbitMQ
+ * GET  /api/v1/crawler/search-index       - Status index pencarian in-memory
  */
 @Slf4j
 @RestController
+@ConditionalOnRole(ConditionalOnRole.API)
 @RequestMapping("/api/v1/crawler")
 @RequiredArgsConstructor
 @Tag(name = "Crawler", description = "Trigger crawl RSS manual dan monitoring riwayat crawl")
@@ -42,6 +59,23 @@ public class CrawlerController {
     private final CrawlerService crawlerService;
     private final SourceRepository sourceRepository;
     private final CrawlLogRepository crawlLogRepository;
+    private final SeenUrlFilter seenUrlFilter;
+    private final CrawlCycleService crawlCycleService;
+    private final SiteExtractionRules siteExtractionRules;
+    private final ScrapeResultCache scrapeResultCache;
+    private final ListenerMetrics listenerMetrics;
+
+    // Optional: tidak ada jika app.search.index.enabled=false
+    @Autowired(required = false)
+    private ArticleSearchIndex articleSearchIndex;
+
+    // Optional: hanya ada jika instance ini juga scrape-worker
+    @Autowired(required = false)
+    private ArticleScraperService articleScraperService;
+
+    // Optional: hanya ada jika instance ini juga crawl-worker (filter hanya di-warm-up dan dipakai di sana)
+    @Autowired(required = false)
+    private SeenUrlFilterWarmUp seenUrlFilterWarmUp;
 
     /**
      * POST /api/v1/crawler/crawl-all
@@ -57,15 +91,20 @@ public class CrawlerController {
             Response dikembalikan **segera** tanpa menunggu proses crawl selesai.
             Proses crawl berjalan di background menggunakan thread pool.
 
-            Gunakan `GET /api/v1/crawler/stats` untuk memantau hasilnya.
+            Response berisi `cycleId`; gunakan `GET /api/v1/crawler/cycles/{cycleId}` untuk memantau
+            progres dan hasilnya.
             """
     )
-    public ResponseEntity<ApiResponse<String>> crawlAll() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> crawlAll() {
         log.info("Trigger manual: crawl semua sumber aktif");
         // Jalankan asinkron — tidak blocking
-        crawlerService.crawlAllActiveSources();
+        CrawlCycle cycle = crawlerService.crawlAllActiveSources();
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("cycleId", cycle.getId());
+        data.put("sourcesTotal", cycle.getSourcesTotal());
         return ResponseEntity.ok(
-            ApiResponse.success("Crawl semua sumber aktif berhasil diinisiasi. Proses berjalan di background.")
+            ApiResponse.success("Crawl semua sumber aktif berhasil diinisiasi. Proses berjalan di background.", data)
         );
     }
 
@@ -112,10 +151,11 @@ public class CrawlerController {
             resultData.put("errorMessage", result.getErrorMessage());
         }
 
-        boolean success = result.getStatus() == CrawlLog.CrawlStatus.SUCCESS;
-        String message = success
-            ? "Crawl berhasil: " + result.getArticlesSaved() + " artikel baru disimpan"
-            : "Crawl gagal: " + result.getErrorMessage();
+        String message = switch (result.getStatus()) {
+            case SUCCESS   -> "Crawl berhasil: " + result.getArticlesSaved() + " artikel baru disimpan";
+            case UNCHANGED -> "Crawl berhasil: feed tidak berubah sejak crawl terakhir";
+            case FAILED    -> "Crawl gagal: " + result.getErrorMessage();
+        };
 
         return ResponseEntity.ok(ApiResponse.success(message, resultData));
     }
@@ -160,7 +200,7 @@ public class CrawlerController {
     @GetMapping("/stats")
     @Operation(
         summary = "Statistik crawl hari ini",
-        description = "Mengambil statistik crawl untuk hari ini: total artikel yang berhasil disimpan dan jumlah sumber aktif"
+        description = "Mengambil statistik crawl untuk hari ini: total artikel yang berhasil disimpan, jumlah sumber aktif, serta berapa crawl yang dilewati karena feed tidak berubah (HTTP 304)"
     )
     public ResponseEntity<ApiResponse<Map<String, Object>>> getCrawlStats() {
         Map<String, Object> stats = new HashMap<>();
@@ -170,9 +210,162 @@ public class CrawlerController {
 
         stats.put("articlesSavedToday", articlesSavedToday != null ? articlesSavedToday : 0);
         stats.put("totalActiveSources", totalActiveSources);
+        // Crawl yang dilewati karena feed tidak berubah (HTTP 304) — tidak download & tidak parse
+        stats.put("crawlsToday", crawlLogRepository.countCrawlsToday());
+        stats.put("crawlsUnchangedToday", crawlLogRepository.countUnchangedToday());
 
         return ResponseEntity.ok(
             ApiResponse.success("Statistik crawl hari ini", stats)
         );
     }
+
+    /**
+     * GET /api/v1/crawler/seen-filter
+     * Statistik Bloom filter yang menyaring cek duplikat artikel sebelum ke DB.
+     */
+    @GetMapping("/seen-filter")
+    @Operation(
+        summary = "Statistik filter URL yang sudah tersimpan",
+        description = """
+            Mengambil kondisi Bloom filter in-memory yang dipakai saat crawl untuk melewati
+            cek duplikat ke database bagi artikel yang pasti baru:
+            - Ukuran memory dan jumlah fungsi hash
+            - Tingkat false positive yang diperkirakan (dari jumlah bit terisi) dan yang teramati
+            - Persentase entry feed yang tidak perlu dicek ke database
+
+            Filter bersifat per instance dan hanya dipakai di crawl-worker. Jika instance yang
+            menerima request bukan crawl-worker, response hanya berisi `crawlWorker: false`.
+            """
+    )
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSeenFilterStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("crawlWorker", seenUrlFilterWarmUp != null);
+        if (seenUrlFilterWarmUp != null) {
+            stats.putAll(seenUrlFilter.stats());
+        }
+        return ResponseEntity.ok(
+            ApiResponse.success("Statistik seen URL filter", stats)
+        );
+    }
+
+    /**
+     * GET /api/v1/crawler/cycles
+     * Daftar crawl cycle terbaru beserta progres dan makespan.
+     */
+    @GetMapping("/cycles")
+    @Operation(
+        summary = "Daftar crawl cycle terbaru",
+        description = "Mengambil crawl cycle terbaru (tick scheduler dan trigger manual): jumlah sumber selesai/gagal, artikel baru, makespan, dan artikel per detik"
+    )
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getRecentCycles(
+            @Parameter(description = "Jumlah cycle", example = "20")
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(
+            ApiResponse.success("Berhasil mengambil crawl cycle", crawlCycleService.getRecentCycles(size))
+        );
+    }
+
+    /**
+     * GET /api/v1/crawler/cycles/{cycleId}
+     * Metrik lengkap satu crawl cycle.
+     */
+    @GetMapping("/cycles/{cycleId}")
+    @Operation(
+        summary = "Metrik satu crawl cycle",
+        description = """
+            Mengambil metrik lengkap satu crawl cycle:
+            - Progres: sumber selesai, gagal, dan yang masih menunggu
+            - Makespan (ms) dan artikel baru per detik
+            - Latency crawl per sumber: p50 / p95 / p99 / max (ms)
+            - Straggler: sumber paling lambat di cycle ini
+            """
+    )
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCycleMetrics(
+            @Parameter(description = "ID crawl cycle", example = "1", required = true)
+            @PathVariable Long cycleId) {
+        return ResponseEntity.ok(
+            ApiResponse.success("Metrik crawl cycle", crawlCycleService.getCycleMetrics(cycleId))
+        );
+    }
+
+    /**
+     * GET /api/v1/crawler/scrape-pipeline
+     * Metrik pipeline scraping konten artikel.
+     */
+    @GetMapping("/scrape-pipeline")
+    @Operation(
+        summary = "Metrik pipeline scraping",
+        description = """
+            Mengambil metrik pipeline scraping (claim → fetch → extract → write):
+            - Jumlah artikel diklaim, gagal fetch, diekstrak, dan ditulis sejak aplikasi start
+            - Kedalaman antrian per tahap (sedang fetch, menunggu slot, antrian extract, antrian write)
+            - Durasi dan throughput (artikel/detik) run terakhir
+            - Ekstraksi: halaman yang selesai lewat profil situs / heuristik yang dipelajari per host
+            - Cache hasil scraping per URL kanonik (ukuran, hit ratio)
+
+            Semua angka bersifat per instance. Jika instance yang menerima request bukan
+            scrape-worker, response hanya berisi `scrapeWorker: false`.
+            """
+    )
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getScrapePipelineStats() {
+        if (articleScraperService == null) {
+            // Ekstraksi dan cache hasil hanya dipakai pipeline: di instance ini isinya selalu kosong
+            return ResponseEntity.ok(
+                ApiResponse.success("Metrik pipeline scraping", Map.<String, Object>of("scrapeWorker", false))
+            );
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("scrapeWorker", true);
+        stats.putAll(articleScraperService.pipelineStats());
+        stats.put("extraction", siteExtractionRules.stats());
+        stats.put("resultCache", scrapeResultCache.stats());
+        return ResponseEntity.ok(
+            ApiResponse.success("Metrik pipeline scraping", stats)
+        );
+    }
+
+    /**
+     * GET /api/v1/crawler/listeners
+     * Metrik listener RabbitMQ di instance ini.
+     */
+    @GetMapping("/listeners")
+    @Operation(
+        summary = "Metrik listener RabbitMQ",
+        description = """
+            Per queue (crawl, scrape, digest) di instance yang menerima request:
+            - Batas consumer (minimal, batas maksimal konfigurasi, batas yang sedang dipakai autoscaler)
+            - Consumer aktif, consumer yang sedang di dalam listener, jumlah pesan diproses
+            - Utilisasi consumer dan lag queue dari sampling autoscaler terakhir
+            Kosong jika instance ini tidak menjalankan peran worker.
+            """
+    )
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getListenerStats() {
+        return ResponseEntity.ok(
+            ApiResponse.success("Metrik listener RabbitMQ", listenerMetrics.stats())
+        );
+    }
+
+    /**
+     * GET /api/v1/crawler/search-index
+     * Status index pencarian in-memory (BM25) di instance ini.
+     */
+    @GetMapping("/search-index")
+    @Operation(
+        summary = "Status index pencarian in-memory",
+        description = """
+            Index pencarian artikel terbaru di instance yang menerima request:
+            - Jumlah dokumen, dokumen terhapus (menunggu compaction), term, ukuran posting
+            - Watermark sinkronisasi (updated_at terakhir yang sudah di-index) dan durasi sinkronisasi
+            - Jumlah query dan rata-rata latency query
+            `ready=false` berarti search masih memakai full-text search Postgres.
+            """
+    )
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSearchIndexStats() {
+        Map<String, Object> stats = articleSearchIndex != null
+                ? articleSearchIndex.stats()
+                : Map.of("enabled", false);
+        return ResponseEntity.ok(
+            ApiResponse.success("Status index pencarian", stats)
+        );
+    }
 }
@@ -1,5 +1,6 @@
 package com.app.news_aggregator.controller;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.dto.ApiResponse;
 import com.app.news_aggregator.model.User;
 import com.app.news_aggregator.queue.DigestProducer;
@@ -29,6 +30,7 @@ import java.util.Map;
  */
 @Slf4j
 @RestController
+@ConditionalOnRole(ConditionalOnRole.API)
 @RequestMapping("/api/v1/digest")
 @RequiredArgsConstructor
 @Tag(name = "Digest", description = "Manajemen email digest harian — trigger pengiriman dan monitoring statistik")
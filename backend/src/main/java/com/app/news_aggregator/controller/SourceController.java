@@ -1,5 +1,6 @@
 package com.app.news_aggregator.controller;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.dto.ApiResponse;
 import com.app.news_aggregator.dto.SourceDto;
 import com.app.news_aggregator.service.SourceService;
@@ -32,6 +33,7 @@ import java.util.List;
  */
 @Slf4j
 @RestController
+@ConditionalOnRole(ConditionalOnRole.API)
 @RequestMapping("/api/v1/sources")
 @RequiredArgsConstructor
 @Tag(name = "Sources", description = "Manajemen sumber RSS feed (CRUD)")
@@ -1,5 +1,6 @@
 package com.app.news_aggregator.controller;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.dto.ApiResponse;
 import com.app.news_aggregator.dto.UserDto;
 import com.app.news_aggregator.model.User;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 
 @Tag(name = "User", description = "Profil & preferensi pengguna (butuh JWT)")
 @RestController
+@ConditionalOnRole(ConditionalOnRole.API)
 @RequestMapping("/api/v1/users")
 @RequiredArgsConstructor
 public class UserController {
@@ -1,13 +1,24 @@
 package com.app.news_aggregator.crawler;
 
+import com.app.news_aggregator.model.Article;
 import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
+import org.jsoup.UnsupportedMimeTypeException;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.parser.StreamParser;
 import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.util.Iterator;
 
 /**
  * ArticleScraper bertanggung jawab untuk:
@@ -16,7 +27,8 @@ import java.util.Optional;
  * 3. Ekstrak thumbnail jika belum ada dari RSS feed
  *
  * Tantangan scraping: setiap website punya struktur HTML berbeda.
- * Kita pakai pendekatan heuristik: coba selector yang umum dipakai,
+ * Situs yang dikenal memakai profil per domain (lihat SiteExtractionRules);
+ * situs lain memakai pendekatan heuristik: coba selector yang umum dipakai,
  * fallback ke elemen dengan teks terpanjang.
  */
 @Slf4j
@@ -30,86 +42,192 @@ public class ArticleScraper {
     private static final String USER_AGENT =
         "Mozilla/5.0 (compatible; NewsAggBot/1.0; +https://newsagg.com/bot)";
 
+    // Batas rate & concurrency per domain (menggantikan Thread.sleep di pemanggil)
+    private final HostRateLimiter hostRateLimiter;
+
+    // Profil per domain + cache Evaluator selector
+    private final SiteExtractionRules extractionRules;
+
+    // Selector yang dipakai di setiap halaman, di-parse sekali
+    private static final String PARAGRAPH_SELECTOR = "p";
+    private static final String OG_IMAGE_SELECTOR = "meta[property='og:image']";
+    private static final String TWITTER_IMAGE_SELECTOR = "meta[name='twitter:image']";
+    private static final String ARTICLE_IMAGE_SELECTOR = "article img";
+    private static final String META_IMAGE_SELECTOR = "meta[property='og:image'], meta[name='twitter:image']";
+
+    // Batas ukuran body HTML yang dibaca per halaman (sisa halaman diabaikan)
+    private final int maxBodyBytes;
+
+    public ArticleScraper(HostRateLimiter hostRateLimiter,
+                          SiteExtractionRules extractionRules,
+                          @Value("${app.scraper.max-body-bytes:1048576}") int maxBodyBytes) {
+        this.hostRateLimiter = hostRateLimiter;
+        this.extractionRules = extractionRules;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
     /**
-     * Scrape konten lengkap dari URL artikel.
+     * Tahap I/O: download dan parse HTML halaman artikel secara streaming.
+     *
+     * Body dibaca maksimal maxBodyBytes (Jsoup memotong sisanya), dan parsing berjalan
+     * bersamaan dengan download. Jika container konten host ini sudah diketahui (profil situs
+     * atau heuristik yang dipelajari), download dihentikan begitu container itu selesai dibaca
+     * dan og:image/twitter:image sudah ditemukan di head — sisa halaman (komentar, artikel
+     * terkait, script iklan) tidak perlu di-download sama sekali.
      *
-     * @param url URL artikel yang akan di-scrape
-     * @return ScrapeResult berisi konten dan thumbnail (jika ditemukan)
+     * Lease domain dipegang selama request + membaca body; pemilihan konten dilakukan di extract().
      */
-    public ScrapeResult scrape(String url) {
+    public FetchedPage fetch(String url) throws IOException, InterruptedException {
         log.debug("Mulai scraping: {}", url);
 
-        try {
-            // ---- Step 1: Fetch HTML ----
-            Document doc = Jsoup.connect(url)
+        try (HostRateLimiter.Lease lease = hostRateLimiter.acquire(url)) {
+            // Menunggu giliran domain ini jika perlu
+            Connection.Response response = Jsoup.connect(url)
                     .userAgent(USER_AGENT)
                     .timeout(TIMEOUT_MS)
+                    .maxBodySize(maxBodyBytes)
                     .followRedirects(true)
-                    .get();
+                    .execute();
 
-            // ---- Step 2: Ekstrak konten ----
-            String content = extractContent(doc);
+            String finalUrl = response.url().toString();
+            Evaluator contentEvaluator = extractionRules.knownContentEvaluator(hostOf(finalUrl));
+            try (StreamParser parser = response.streamParser()) {
+                boolean stoppedEarly = contentEvaluator != null && readUntilContent(parser, contentEvaluator);
+                if (!stoppedEarly) {
+                    parser.complete();
+                }
+                log.debug("Fetch {}: {}", finalUrl, stoppedEarly ? "berhenti setelah konten ditemukan" : "seluruh halaman dibaca");
+                return new FetchedPage(finalUrl, parser.document());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
 
-            // ---- Step 3: Ekstrak thumbnail ----
-            String thumbnail = extractThumbnail(doc, url);
+    /**
+     * Baca element demi element sampai container konten selesai dan meta image sudah ditemukan.
+     *
+     * @return true jika berhenti lebih awal, false jika kondisi tidak terpenuhi sampai akhir dokumen
+     */
+    private boolean readUntilContent(StreamParser parser, Evaluator contentEvaluator) {
+        Evaluator metaImage = extractionRules.evaluator(META_IMAGE_SELECTOR);
+        boolean imageFound = false;
+        boolean contentFound = false;
 
-            log.debug("Scraping berhasil: {} karakter konten diekstrak dari {}",
-                    content != null ? content.length() : 0, url);
+        Iterator<Element> elements = parser.iterator();
+        while (elements.hasNext()) {
+            Element element = elements.next();
+            if (!imageFound && element.is(metaImage) && !element.attr("content").isBlank()) {
+                imageFound = true;
+            } else if (!imageFound && element.nameIs("head")) {
+                // Tidak ada meta image di head → thumbnail dicari di body, halaman harus dibaca penuh
+                return false;
+            } else if (!contentFound && element.is(contentEvaluator)
+                    && element.text().length() > MIN_CONTENT_LENGTH
+                    // Element yang selesai lebih dulu belum tentu match pertama (element bersarang)
+                    && element.ownerDocument().selectFirst(contentEvaluator) == element) {
+                contentFound = true;
+            }
 
-            return new ScrapeResult(content, thumbnail, true);
+            if (imageFound && contentFound) {
+                parser.stop();
+                return true;
+            }
+        }
+        return false;
+    }
 
-        } catch (Exception e) {
-            log.warn("Gagal scraping URL '{}': {}", url, e.getMessage());
-            return new ScrapeResult(null, null, false);
+    /**
+     * Klasifikasi kegagalan fetch, agar worker hanya mengulang halaman yang masih mungkin berhasil.
+     *
+     * - BLOCKED   : 401/403/407/451 — situs menolak crawler, retry tidak akan membantu
+     * - PERMANENT : 404/410 dan 4xx lain, bukan HTML, URL tidak valid, sertifikat TLS bermasalah
+     * - TRANSIENT : timeout, koneksi gagal/putus, DNS, 408/425/429, 5xx
+     */
+    public static Article.ScrapeFailure classifyFailure(Throwable error) {
+        if (error instanceof HttpStatusException httpError) {
+            int status = httpError.getStatusCode();
+            if (status == 401 || status == 403 || status == 407 || status == 451) {
+                return Article.ScrapeFailure.BLOCKED;
+            }
+            if (status == 408 || status == 425 || status == 429 || status >= 500) {
+                return Article.ScrapeFailure.TRANSIENT;
+            }
+            return Article.ScrapeFailure.PERMANENT;
         }
+        if (error instanceof UnsupportedMimeTypeException
+                || error instanceof MalformedURLException
+                || error instanceof IllegalArgumentException
+                || error instanceof SSLException) {
+            return Article.ScrapeFailure.PERMANENT;
+        }
+        // SocketTimeoutException, ConnectException, UnknownHostException, EOF, dll
+        return Article.ScrapeFailure.TRANSIENT;
+    }
+
+    /**
+     * Tahap CPU: ekstrak konten dan thumbnail dari dokumen hasil fetch.
+     */
+    public ScrapeResult extract(FetchedPage page) {
+        Document doc = page.document();
+        String host = hostOf(page.url());
+        SiteExtractionRules.SiteProfile profile = extractionRules.profileFor(host);
+
+        // Thumbnail diambil dulu: ekstraksi konten profil membuang elemen dari dokumen
+        String thumbnail = extractThumbnail(doc, page.url(), profile);
+        String content = extractContent(doc, host, profile);
+
+        log.debug("Scraping berhasil: {} karakter konten diekstrak dari {}",
+                content != null ? content.length() : 0, page.url());
+
+        return new ScrapeResult(content, thumbnail);
     }
 
     /**
      * Ekstrak konten utama artikel dari HTML.
      *
      * Strategi (dari yang paling spesifik ke paling umum):
-     * 1. Cek meta tag Open Graph (og:description) — biasanya ringkasan terbaik
-     * 2. Cek tag <article> — standar HTML5 untuk konten artikel
-     * 3. Cek selector umum yang dipakai CMS populer (WordPress, dll)
-     * 4. Fallback: ambil paragraf terpanjang dari halaman
+     * 1. Profil situs (container konten per domain, elemen pengganggu dibuang)
+     * 2. Heuristik umum: tag <article> lalu selector CMS populer (WordPress, dll),
+     *    dimulai dari heuristik yang terakhir berhasil untuk host yang sama
+     * 3. Fallback: kumpulkan paragraf yang cukup panjang dari halaman
      */
-    private String extractContent(Document doc) {
-        // Strategi 1: Coba selector HTML5 <article> tag
-        Element articleTag = doc.selectFirst("article");
-        if (articleTag != null) {
-            String text = articleTag.text();
+    private String extractContent(Document doc, String host, SiteExtractionRules.SiteProfile profile) {
+        // Strategi 1: Profil situs
+        Element profileContent = extractionRules.selectProfileContent(doc, profile);
+        if (profileContent != null) {
+            String text = paragraphText(profileContent);
+            if (text.length() <= MIN_CONTENT_LENGTH) {
+                text = profileContent.text();
+            }
             if (text.length() > MIN_CONTENT_LENGTH) {
                 return cleanContent(text);
             }
+            log.debug("Profil situs {} tidak menghasilkan konten, fallback ke heuristik", host);
         }
 
-        // Strategi 2: Coba selector umum untuk content area
-        String[] contentSelectors = {
-            "[class*='article-body']",
-            "[class*='article-content']",
-            "[class*='post-content']",
-            "[class*='entry-content']",
-            "[class*='story-body']",
-            "[class*='content-body']",
-            "[class*='read-more']",
-            "main",
-            "#content",
-            ".content"
-        };
-
-        for (String selector : contentSelectors) {
-            Element element = doc.selectFirst(selector);
-            if (element != null) {
-                String text = element.text();
-                if (text.length() > MIN_CONTENT_LENGTH) {
-                    log.debug("Konten ditemukan dengan selector: {}", selector);
-                    return cleanContent(text);
-                }
-            }
+        // Strategi 2: Heuristik umum
+        String text = extractionRules.selectGenericContent(doc, host, MIN_CONTENT_LENGTH);
+        if (text != null) {
+            return cleanContent(text);
         }
 
         // Strategi 3: Kumpulkan semua paragraf dan ambil yang cukup panjang
-        Elements paragraphs = doc.select("p");
+        String content = paragraphText(doc);
+        if (content.length() > MIN_CONTENT_LENGTH) {
+            return cleanContent(content);
+        }
+
+        // Jika semua strategi gagal, return null
+        log.debug("Tidak bisa ekstrak konten dari halaman");
+        return null;
+    }
+
+    /**
+     * Gabungkan paragraf yang cukup panjang di dalam root, dipisah baris kosong.
+     */
+    private String paragraphText(Element root) {
+        Elements paragraphs = root.select(extractionRules.evaluator(PARAGRAPH_SELECTOR));
         StringBuilder content = new StringBuilder();
         for (Element p : paragraphs) {
             String text = p.text().trim();
@@ -117,14 +235,7 @@ public class ArticleScraper {
                 content.append(text).append("\n\n");
             }
         }
-
-        if (content.length() > MIN_CONTENT_LENGTH) {
-            return cleanContent(content.toString().trim());
-        }
-
-        // Jika semua strategi gagal, return null
-        log.debug("Tidak bisa ekstrak konten dari halaman");
-        return null;
+        return content.toString().trim();
     }
 
     /**
@@ -133,11 +244,12 @@ public class ArticleScraper {
      * Strategi:
      * 1. og:image (Open Graph) — paling reliable, dipakai untuk social sharing
      * 2. twitter:image — Twitter Card image
-     * 3. Gambar pertama yang cukup besar di dalam artikel
+     * 3. Gambar utama dari profil situs (jika ada)
+     * 4. Gambar pertama yang cukup besar di dalam artikel
      */
-    private String extractThumbnail(Document doc, String pageUrl) {
+    private String extractThumbnail(Document doc, String pageUrl, SiteExtractionRules.SiteProfile profile) {
         // Strategi 1: Open Graph image
-        Element ogImage = doc.selectFirst("meta[property='og:image']");
+        Element ogImage = doc.selectFirst(extractionRules.evaluator(OG_IMAGE_SELECTOR));
         if (ogImage != null) {
             String content = ogImage.attr("content");
             if (!content.isBlank()) {
@@ -146,7 +258,7 @@ public class ArticleScraper {
         }
 
         // Strategi 2: Twitter Card image
-        Element twitterImage = doc.selectFirst("meta[name='twitter:image']");
+        Element twitterImage = doc.selectFirst(extractionRules.evaluator(TWITTER_IMAGE_SELECTOR));
         if (twitterImage != null) {
             String content = twitterImage.attr("content");
             if (!content.isBlank()) {
@@ -154,8 +266,17 @@ public class ArticleScraper {
             }
         }
 
-        // Strategi 3: Gambar pertama di dalam article tag
-        Element articleImg = doc.selectFirst("article img");
+        // Strategi 3: Gambar utama dari profil situs
+        Element profileImg = extractionRules.selectProfileThumbnail(doc, profile);
+        if (profileImg != null) {
+            String src = profileImg.attr("src");
+            if (!src.isBlank()) {
+                return resolveUrl(src, pageUrl);
+            }
+        }
+
+        // Strategi 4: Gambar pertama di dalam article tag
+        Element articleImg = doc.selectFirst(extractionRules.evaluator(ARTICLE_IMAGE_SELECTOR));
         if (articleImg != null) {
             String src = articleImg.attr("src");
             if (!src.isBlank()) {
@@ -182,6 +303,14 @@ public class ArticleScraper {
         }
     }
 
+    private static String hostOf(String url) {
+        try {
+            return java.net.URI.create(url).getHost();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * Bersihkan teks konten: hapus whitespace berlebih.
      */
@@ -197,7 +326,12 @@ public class ArticleScraper {
      */
     public record ScrapeResult(
         String content,       // Konten teks lengkap artikel
-        String thumbnailUrl,  // URL thumbnail (jika ditemukan)
-        boolean success       // Apakah scraping berhasil?
+        String thumbnailUrl   // URL thumbnail (jika ditemukan)
     ) {}
+
+    /**
+     * Dokumen hasil fetch (bisa hanya sebagian halaman jika download dihentikan lebih awal).
+     * url adalah URL akhir setelah redirect (dipakai untuk resolve URL relatif).
+     */
+    public record FetchedPage(String url, Document document) {}
 }
\ No newline at end of file
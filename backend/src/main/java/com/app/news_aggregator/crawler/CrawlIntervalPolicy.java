@@ -0,0 +1,135 @@
+package com.app.news_aggregator.crawler;
+
+import com.app.news_aggregator.model.Article;
+import com.app.news_aggregator.model.CrawlLog;
+import com.app.news_aggregator.model.Source;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * CrawlIntervalPolicy menghitung interval crawl berikutnya untuk satu sumber.
+ *
+ * Sebelumnya semua sumber di-crawl setiap 15 menit: feed breaking news yang update
+ * tiap beberapa menit dan feed yang update sekali sehari diperlakukan sama.
+ *
+ * Aturan:
+ * - Ada artikel baru  → interval = perkiraan jarak antar publish (dari timestamp entry
+ *                        feed dan riwayat crawl_logs), diambil yang paling cepat
+ * - Tidak ada artikel baru / gagal → exponential backoff (interval x 2)
+ * - Hasil selalu dibatasi antara min-interval dan max-interval
+ */
+@Slf4j
+@Component
+public class CrawlIntervalPolicy {
+
+    private final int minIntervalMinutes;
+    private final int maxIntervalMinutes;
+
+    public CrawlIntervalPolicy(
+            @Value("${app.crawler.min-interval-minutes:5}") int minIntervalMinutes,
+            @Value("${app.crawler.max-interval-minutes:240}") int maxIntervalMinutes) {
+        this.minIntervalMinutes = minIntervalMinutes;
+        this.maxIntervalMinutes = maxIntervalMinutes;
+    }
+
+    /**
+     * Hitung interval berikutnya (dalam menit).
+     *
+     * @param source         Sumber yang baru selesai di-crawl (crawlIntervalMinutes = interval lama)
+     * @param parsedArticles Semua entry feed hasil crawl ini (kosong jika 304 / gagal)
+     * @param savedCount     Jumlah artikel baru yang tersimpan di crawl ini
+     * @param recentLogs     Log crawl terbaru sumber ini (belum termasuk crawl ini), terbaru di depan
+     */
+    public int nextIntervalMinutes(Source source, List<Article> parsedArticles,
+                                   int savedCount, List<CrawlLog> recentLogs) {
+        int current = source.getCrawlIntervalMinutes() != null
+                ? source.getCrawlIntervalMinutes() : minIntervalMinutes;
+
+        // Tidak ada konten baru → backoff eksponensial
+        if (savedCount <= 0) {
+            return clamp((long) current * 2);
+        }
+
+        // Ada konten baru → pakai estimasi jarak publish yang paling cepat
+        Long feedGap = medianPublishGapMinutes(parsedArticles);
+        Long historyGap = historicalGapMinutes(savedCount, recentLogs);
+        long target = current;
+        if (feedGap != null && historyGap != null) {
+            target = Math.min(feedGap, historyGap);
+        } else if (feedGap != null) {
+            target = feedGap;
+        } else if (historyGap != null) {
+            target = historyGap;
+        }
+
+        int next = clamp(target);
+        log.debug("Interval sumber '{}': {} → {} menit (feedGap={}, historyGap={})",
+                source.getName(), current, next, feedGap, historyGap);
+        return next;
+    }
+
+    /**
+     * Median jarak waktu antar entry di feed (menit).
+     * Feed berisi N artikel terakhir, jadi jarak antar publishedAt mencerminkan laju publish.
+     * Median dipakai agar tidak terpengaruh satu jeda panjang (misalnya malam hari).
+     */
+    private Long medianPublishGapMinutes(List<Article> articles) {
+        List<LocalDateTime> times = new ArrayList<>();
+        for (Article article : articles) {
+            if (article.getPublishedAt() != null) {
+                times.add(article.getPublishedAt());
+            }
+        }
+        if (times.size() < 2) {
+            return null;
+        }
+        times.sort(Comparator.reverseOrder());
+
+        List<Long> gaps = new ArrayList<>();
+        for (int i = 1; i < times.size(); i++) {
+            long gap = Duration.between(times.get(i), times.get(i - 1)).toMinutes();
+            if (gap > 0) {
+                gaps.add(gap);
+            }
+        }
+        if (gaps.isEmpty()) {
+            return null;
+        }
+        Collections.sort(gaps);
+        return gaps.get(gaps.size() / 2);
+    }
+
+    /**
+     * Rata-rata jarak antar artikel baru berdasarkan riwayat crawl_logs (menit).
+     * Rentang waktu = dari log tertua yang dilihat sampai sekarang.
+     */
+    private Long historicalGapMinutes(int savedNow, List<CrawlLog> recentLogs) {
+        if (recentLogs == null || recentLogs.isEmpty()) {
+            return null;
+        }
+        long totalSaved = savedNow;
+        LocalDateTime oldest = null;
+        for (CrawlLog crawlLog : recentLogs) {
+            totalSaved += Objects.requireNonNullElse(crawlLog.getArticlesSaved(), 0);
+            oldest = crawlLog.getCrawledAt();
+        }
+        long spanMinutes = Duration.between(oldest, LocalDateTime.now()).toMinutes();
+        if (spanMinutes <= 0 || totalSaved <= 0) {
+            return null;
+        }
+        return spanMinutes / totalSaved;
+    }
+
+    private int clamp(long minutes) {
+        return (int) Math.max(minIntervalMinutes, Math.min(maxIntervalMinutes, minutes));
+    }
+}
@@ -0,0 +1,80 @@
+package com.app.news_aggregator.crawler;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InputStream dengan batas waktu total untuk membaca seluruh body.
+ *
+ * HttpRequest.timeout hanya membatasi waktu sampai header response diterima; body yang dibaca
+ * lewat BodyHandlers.ofInputStream() tidak punya batas waktu sama sekali. Publisher yang
+ * mengirim body byte demi byte bisa menahan worker crawl (dan lease HostRateLimiter) selamanya.
+ *
+ * Saat deadline lewat, timer menutup stream asli (membangunkan read() yang sedang blocking),
+ * dan read() berikutnya melempar IOException.
+ */
+class DeadlineInputStream extends FilterInputStream {
+
+    private final Duration timeout;
+    private final ScheduledFuture<?> timer;
+    private volatile boolean expired;
+
+    DeadlineInputStream(InputStream in, Duration timeout, ScheduledExecutorService scheduler) {
+        super(in);
+        this.timeout = timeout;
+        this.timer = scheduler.schedule(this::expire, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkDeadline();
+        try {
+            int value = super.read();
+            checkDeadline();
+            return value;
+        } catch (IOException e) {
+            checkDeadline();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkDeadline();
+        try {
+            int count = super.read(b, off, len);
+            checkDeadline();
+            return count;
+        } catch (IOException e) {
+            // Stream asli yang ditutup timer melempar "closed"; laporkan sebagai timeout
+            checkDeadline();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        timer.cancel(false);
+        super.close();
+    }
+
+    private void expire() {
+        expired = true;
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // stream ditutup hanya untuk membangunkan read() yang blocking
+        }
+    }
+
+    private void checkDeadline() throws IOException {
+        if (expired) {
+            throw new IOException("Batas waktu membaca body feed habis (" + timeout.toMillis() + "ms)");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.app.news_aggregator.crawler;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * FeedFetcher adalah abstraksi untuk mengambil isi RSS/Atom feed via HTTP.
+ *
+ * RssFeedParser hanya tahu interface ini, sehingga implementasi HTTP-nya bisa
+ * diganti (misalnya untuk testing atau client HTTP lain) tanpa mengubah parser.
+ * Implementasi default: HttpClientFeedFetcher.
+ */
+public interface FeedFetcher {
+
+    /**
+     * Fetch feed dengan conditional GET.
+     *
+     * @param url          URL feed
+     * @param etag         ETag dari crawl sebelumnya (boleh null)
+     * @param lastModified Last-Modified dari crawl sebelumnya (boleh null)
+     * @return FeedResponse; body wajib ditutup oleh pemanggil (try-with-resources)
+     */
+    FeedResponse fetch(String url, String etag, String lastModified) throws IOException;
+
+    /**
+     * Response mentah dari server feed.
+     * body berupa stream yang belum dibaca — langsung diteruskan ke parser XML
+     * tanpa di-buffer seluruhnya ke memori.
+     */
+    record FeedResponse(
+        int status,
+        InputStream body,       // null jika status 304
+        String contentType,
+        String etag,
+        String lastModified
+    ) implements AutoCloseable {
+
+        public boolean notModified() {
+            return status == 304;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (body != null) {
+                body.close();
+            }
+        }
+    }
+}
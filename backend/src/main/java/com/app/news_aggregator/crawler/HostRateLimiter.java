@@ -0,0 +1,192 @@
+package com.app.news_aggregator.crawler;
+
+import com.app.news_aggregator.queue.ListenerMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HostRateLimiter menjaga "sopan santun" crawler per domain.
+ *
+ * Sebelumnya politeness dilakukan dengan Thread.sleep tetap di setiap worker:
+ * thread menganggur meski request berikutnya ke domain lain, dan tidak ada batas
+ * berapa worker yang menyerang domain yang sama secara bersamaan.
+ *
+ * Sekarang setiap domain punya dua batas:
+ * 1. Concurrency : maksimal N request paralel ke domain yang sama (Semaphore)
+ * 2. Rate        : request ke domain yang sama diberi jarak minimal 1/rate detik
+ *
+ * Dipakai bersama oleh RssFeedParser (fetch feed) dan ArticleScraper (fetch halaman),
+ * jadi beberapa sumber di cnnindonesia.com tetap dihitung sebagai satu domain.
+ * Throughput total naik seiring jumlah domain berbeda, sementara beban per situs tetap terbatas.
+ */
+@Slf4j
+@Component
+public class HostRateLimiter {
+
+    // Second-level domain umum untuk ccTLD (contoh: detik.co.id, ui.ac.id)
+    private static final Set<String> SECOND_LEVEL_LABELS =
+            Set.of("co", "ac", "go", "or", "web", "my", "sch", "net", "com", "org", "mil", "biz");
+
+    private final double defaultRatePerSecond;
+    private final int defaultMaxConcurrent;
+    private final Map<String, Double> rateOverrides;
+    private final Map<String, Integer> concurrencyOverrides;
+
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    public HostRateLimiter(
+            @Value("${app.politeness.requests-per-second:1.0}") double defaultRatePerSecond,
+            @Value("${app.politeness.max-concurrent-per-host:2}") int defaultMaxConcurrent,
+            @Value("#{${app.politeness.rate-overrides:{:}}}") Map<String, Double> rateOverrides,
+            @Value("#{${app.politeness.concurrency-overrides:{:}}}") Map<String, Integer> concurrencyOverrides) {
+        this.defaultRatePerSecond = defaultRatePerSecond;
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+        this.rateOverrides = rateOverrides;
+        this.concurrencyOverrides = concurrencyOverrides;
+    }
+
+    /**
+     * Ambil izin untuk request ke URL tertentu.
+     * Blocking sampai slot concurrency tersedia DAN jarak minimal dari request
+     * sebelumnya ke domain yang sama terpenuhi.
+     *
+     * Wajib dipakai dengan try-with-resources agar slot dilepas setelah response selesai dibaca:
+     * <pre>
+     * try (HostRateLimiter.Lease lease = hostRateLimiter.acquire(url)) { ... }
+     * </pre>
+     *
+     * Waktu menunggu dilaporkan ke ListenerMetrics agar tidak dihitung sebagai waktu sibuk listener.
+     */
+    public Lease acquire(String url) throws InterruptedException {
+        String key = hostKey(url);
+        HostState state = hosts.computeIfAbsent(key, this::newHostState);
+
+        long start = System.nanoTime();
+        try {
+            state.concurrency.acquire();
+            try {
+                long waitNanos = state.reserveSlot();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+            } catch (InterruptedException e) {
+                state.concurrency.release();
+                throw e;
+            }
+        } finally {
+            ListenerMetrics.recordWait(System.nanoTime() - start);
+        }
+        return new Lease(state);
+    }
+
+    /**
+     * Snapshot kondisi per domain untuk monitoring: berapa request yang sedang berjalan.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new TreeMap<>();
+        hosts.forEach((host, state) -> stats.put(host, Map.of(
+                "inFlight", state.maxConcurrent - state.concurrency.availablePermits(),
+                "maxConcurrent", state.maxConcurrent,
+                "requestsPerSecond", 1_000_000_000.0 / state.intervalNanos
+        )));
+        return stats;
+    }
+
+    /**
+     * Normalisasi URL ke "domain terdaftar" agar subdomain dihitung sebagai satu situs.
+     * Contoh: "https://tekno.kompas.com/..." → "kompas.com",
+     *         "https://www.cnnindonesia.com/..." → "cnnindonesia.com"
+     */
+    public static String hostKey(String url) {
+        String host;
+        try {
+            host = URI.create(url.trim()).getHost();
+        } catch (Exception e) {
+            host = null;
+        }
+        if (host == null || host.isBlank()) {
+            return "unknown";
+        }
+
+        String[] labels = host.toLowerCase(Locale.ROOT).split("\\.");
+        if (labels.length <= 2) {
+            return String.join(".", labels);
+        }
+        int keep = 2;
+        String tld = labels[labels.length - 1];
+        String secondLevel = labels[labels.length - 2];
+        if (tld.length() == 2 && SECOND_LEVEL_LABELS.contains(secondLevel)) {
+            keep = 3;
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = labels.length - keep; i < labels.length; i++) {
+            if (key.length() > 0) key.append('.');
+            key.append(labels[i]);
+        }
+        return key.toString();
+    }
+
+    private HostState newHostState(String host) {
+        double rate = rateOverrides.getOrDefault(host, defaultRatePerSecond);
+        int maxConcurrent = concurrencyOverrides.getOrDefault(host, defaultMaxConcurrent);
+        log.debug("Politeness untuk domain {}: {} req/detik, maksimal {} paralel", host, rate, maxConcurrent);
+        return new HostState((long) (1_000_000_000L / rate), maxConcurrent);
+    }
+
+    /**
+     * State per domain: semaphore untuk concurrency dan "jadwal slot" untuk rate.
+     */
+    private static final class HostState {
+        private final long intervalNanos;
+        private final int maxConcurrent;
+        private final Semaphore concurrency;
+        private long nextSlotNanos = System.nanoTime();
+
+        HostState(long intervalNanos, int maxConcurrent) {
+            this.intervalNanos = intervalNanos;
+            this.maxConcurrent = maxConcurrent;
+            this.concurrency = new Semaphore(maxConcurrent, true);
+        }
+
+        /**
+         * Pesan slot waktu berikutnya untuk domain ini.
+         * @return berapa nanodetik pemanggil harus menunggu sebelum boleh request
+         */
+        synchronized long reserveSlot() {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextSlotNanos);
+            nextSlotNanos = slot + intervalNanos;
+            return slot - now;
+        }
+    }
+
+    /**
+     * Izin request yang sedang dipegang. close() melepas slot concurrency.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final HostState state;
+        private boolean released;
+
+        private Lease(HostState state) {
+            this.state = state;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                state.concurrency.release();
+            }
+        }
+    }
+}
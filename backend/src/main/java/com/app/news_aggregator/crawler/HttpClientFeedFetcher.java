@@ -0,0 +1,123 @@
+package com.app.news_aggregator.crawler;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Implementasi FeedFetcher berbasis java.net.http.HttpClient.
+ *
+ * Kenapa tidak pakai XmlReader(URL) dari Rome?
+ * - XmlReader(URL) membuka HttpURLConnection baru setiap kali, tanpa connection pooling
+ * - Satu HttpClient dipakai bersama oleh semua worker: koneksi keep-alive / HTTP/2
+ *   ke host yang sama (misalnya cnnindonesia.com) dipakai ulang antar crawl
+ * - Task internal HttpClient berjalan di virtual thread, sehingga ratusan fetch
+ *   bisa berjalan bersamaan tanpa membuat ratusan platform thread
+ */
+@Slf4j
+@Component
+public class HttpClientFeedFetcher implements FeedFetcher {
+
+    // User-Agent sama dengan ArticleScraper agar mudah diidentifikasi oleh publisher
+    private static final String USER_AGENT =
+        "Mozilla/5.0 (compatible; NewsAggBot/1.0; +https://newsagg.com/bot)";
+
+    private static final String ACCEPT =
+        "application/rss+xml, application/atom+xml, application/xml;q=0.9, text/xml;q=0.9, */*;q=0.8";
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final Duration readTimeout;
+
+    // Timer deadline body (DeadlineInputStream); tugasnya hanya menutup stream, satu thread cukup
+    private final ScheduledExecutorService deadlineTimer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("feed-read-deadline").factory());
+
+    public HttpClientFeedFetcher(
+            @Value("${app.crawler.connect-timeout-ms:10000}") long connectTimeoutMs,
+            @Value("${app.crawler.request-timeout-ms:20000}") long requestTimeoutMs,
+            @Value("${app.crawler.read-timeout-ms:30000}") long readTimeoutMs) {
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public FeedResponse fetch(String url, String etag, String lastModified) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", ACCEPT)
+                .header("Accept-Encoding", "gzip")
+                .GET();
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Fetch feed diinterupsi: " + url, e);
+        }
+
+        int status = response.statusCode();
+        String newEtag = response.headers().firstValue("ETag").orElse(null);
+        String newLastModified = response.headers().firstValue("Last-Modified").orElse(null);
+
+        if (status == 304) {
+            response.body().close();
+            return new FeedResponse(status, null, null, newEtag, newLastModified);
+        }
+        if (status >= 400) {
+            response.body().close();
+            throw new IOException("HTTP " + status + " dari " + url);
+        }
+
+        // request timeout hanya sampai header diterima; body dibatasi deadline total tersendiri
+        InputStream body = new DeadlineInputStream(response.body(), readTimeout, deadlineTimer);
+
+        // HttpClient tidak otomatis decompress — bungkus stream jika server kirim gzip
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(enc -> enc.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        if (gzip) {
+            try {
+                body = new GZIPInputStream(body);
+            } catch (IOException e) {
+                body.close();
+                throw e;
+            }
+        }
+
+        log.debug("Feed {} di-fetch: HTTP {} ({})", url, status, response.version());
+        return new FeedResponse(status, body,
+                response.headers().firstValue("Content-Type").orElse(null),
+                newEtag, newLastModified);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        deadlineTimer.shutdownNow();
+    }
+}
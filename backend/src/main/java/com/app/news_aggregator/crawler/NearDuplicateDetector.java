@@ -0,0 +1,153 @@
+package com.app.news_aggregator.crawler;
+
+import com.app.news_aggregator.model.Article;
+import com.app.news_aggregator.repository.ArticleRepository;
+import com.app.news_aggregator.repository.ArticleRepositoryCustom.SimHashCandidate;
+import com.app.news_aggregator.util.SimHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * NearDuplicateDetector mengelompokkan artikel yang isinya sama tapi URL-nya berbeda
+ * (berita sindikasi yang dimuat CNN Indonesia, Kompas, Detik, dst).
+ *
+ * Dedup URL/GUID di CrawlerService tidak menangkap kasus ini, sehingga cerita yang sama
+ * disimpan, di-scrape, di-cache, dan dikirim di digest berkali-kali.
+ *
+ * Saat ingest, setiap artikel baru diberi SimHash dari judul + deskripsi. Kandidat dicari
+ * lewat band LSH (index GIN di simhash_bands, satu query per feed), lalu Hamming distance
+ * dicek di memory. Artikel yang cukup mirip diberi duplicate_of_id = artikel kanonik cluster:
+ * tetap tersimpan (URL-nya tetap dikenali dedup), tapi tidak di-scrape dan tidak muncul di list.
+ *
+ * Fingerprint sengaja hanya dari judul + deskripsi (bukan konten hasil scraping): saat ingest
+ * konten belum ada, dan fingerprint harus dihitung dari teks yang sama agar bisa dibandingkan.
+ */
+@Slf4j
+@Component
+public class NearDuplicateDetector {
+
+    private final ArticleRepository articleRepository;
+    private final boolean enabled;
+    private final int maxDistance;
+    private final int windowHours;
+    private final int minTokens;
+
+    public NearDuplicateDetector(
+            ArticleRepository articleRepository,
+            @Value("${app.crawler.near-duplicate.enabled:true}") boolean enabled,
+            @Value("${app.crawler.near-duplicate.max-distance:6}") int maxDistance,
+            @Value("${app.crawler.near-duplicate.window-hours:72}") int windowHours,
+            @Value("${app.crawler.near-duplicate.min-tokens:6}") int minTokens) {
+        this.articleRepository = articleRepository;
+        this.enabled = enabled;
+        // Dengan 8 band x 8 bit, hanya distance <= 7 yang dijamin punya band yang sama
+        this.maxDistance = Math.min(maxDistance, SimHash.BANDS - 1);
+        this.windowHours = windowHours;
+        this.minTokens = minTokens;
+    }
+
+    /**
+     * Hitung simhash setiap artikel dan isi duplicateOfId untuk yang mirip artikel di DB.
+     *
+     * Artikel yang mirip artikel lain di batch yang sama belum bisa diisi (kanonik belum punya ID):
+     * dikembalikan sebagai map near-duplicate → kanonik, untuk diselesaikan dengan
+     * resolveBatchDuplicates setelah kanonik ter-insert.
+     */
+    public Map<Article, Article> assignClusters(List<Article> articles) {
+        Map<Article, Article> batchDuplicates = new IdentityHashMap<>();
+        if (!enabled || articles.isEmpty()) {
+            return batchDuplicates;
+        }
+
+        LocalDateTime since = LocalDateTime.now().minusHours(windowHours);
+        long firstDay = since.toLocalDate().toEpochDay();
+        long today = LocalDate.now().toEpochDay();
+
+        // Key band untuk setiap hari dalam rentang (key LSH di DB di-bucket per hari insert)
+        Set<Integer> bandKeys = new HashSet<>();
+        for (Article article : articles) {
+            Long fingerprint = SimHash.fingerprint(fingerprintText(article), minTokens);
+            article.setSimhash(fingerprint);
+            if (fingerprint == null) continue;
+            for (long day = firstDay; day <= today; day++) {
+                for (int key : SimHash.bandKeys(fingerprint, day)) bandKeys.add(key);
+            }
+        }
+
+        List<SimHashCandidate> candidates = articleRepository.findNearDuplicateCandidates(bandKeys, since);
+
+        List<Article> batchCanonicals = new ArrayList<>();
+        int clustered = 0;
+        for (Article article : articles) {
+            if (article.getSimhash() == null) continue;
+            long fingerprint = article.getSimhash();
+
+            SimHashCandidate stored = closestStored(candidates, fingerprint);
+            if (stored != null) {
+                article.setDuplicateOfId(stored.duplicateOfId() != null ? stored.duplicateOfId() : stored.id());
+                clustered++;
+                continue;
+            }
+
+            Article inBatch = closestInBatch(batchCanonicals, fingerprint);
+            if (inBatch != null) {
+                batchDuplicates.put(article, inBatch);
+                clustered++;
+            } else {
+                batchCanonicals.add(article);
+            }
+        }
+
+        if (clustered > 0) {
+            log.debug("{} dari {} artikel baru adalah near-duplicate ({} kandidat dari band LSH)",
+                    clustered, articles.size(), candidates.size());
+        }
+        return batchDuplicates;
+    }
+
+    /**
+     * Isi duplicateOfId near-duplicate dalam batch dari ID kanonik yang sudah ter-insert.
+     * Jika kanonik tidak ter-insert (bentrok URL), near-duplicate menjadi kanonik sendiri.
+     */
+    public void resolveBatchDuplicates(Map<Article, Article> batchDuplicates) {
+        batchDuplicates.forEach((duplicate, canonical) -> duplicate.setDuplicateOfId(canonical.getId()));
+    }
+
+    private SimHashCandidate closestStored(List<SimHashCandidate> candidates, long fingerprint) {
+        SimHashCandidate best = null;
+        int bestDistance = maxDistance + 1;
+        for (SimHashCandidate candidate : candidates) {
+            int distance = SimHash.distance(candidate.simhash(), fingerprint);
+            if (distance < bestDistance) {
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private Article closestInBatch(List<Article> canonicals, long fingerprint) {
+        for (Article canonical : canonicals) {
+            if (SimHash.distance(canonical.getSimhash(), fingerprint) <= maxDistance) {
+                return canonical;
+            }
+        }
+        return null;
+    }
+
+    private static String fingerprintText(Article article) {
+        String title = article.getTitle() != null ? article.getTitle() : "";
+        String description = article.getDescription() != null ? article.getDescription() : "";
+        return title + " " + description;
+    }
+}
@@ -1,6 +1,6 @@
 package com.app.news_aggregator.crawler;
 
-
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.service.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,56 +23,45 @@ import java.time.format.DateTimeFormatter;
  * - fixedDelay : jika crawl butuh 5 menit, job baru dimulai 15 menit setelah selesai (total 20 menit)
  *
  * Untuk crawler kita pakai fixedDelay agar tidak overlap jika crawl lama.
+ *
+ * Hanya aktif di instance dengan peran scheduler, dan job hanya dijalankan oleh leader
+ * (SchedulerLeader), sehingga menambah instance tidak menggandakan crawl terjadwal.
+ * Polling scraping bukan job leader: berjalan di setiap scrape-worker (lihat ScrapePollScheduler).
  */
 @Slf4j
 @Component
+@ConditionalOnRole(ConditionalOnRole.SCHEDULER)
 @RequiredArgsConstructor
 public class RssCrawlerScheduler {
 
     private final CrawlerService crawlerService;
-    private final ArticleScraperService articleScraperService;
+    private final SchedulerLeader schedulerLeader;
 
     /**
-     * Crawl semua sumber RSS aktif.
+     * Crawl sumber RSS aktif yang sudah jatuh tempo.
      *
-     * Jadwal: setiap 15 menit SETELAH job sebelumnya selesai.
+     * Scheduler hanya "tick" setiap 1 menit; kapan sebuah sumber benar-benar di-crawl
+     * ditentukan oleh nextCrawlAt per sumber (interval adaptif, lihat CrawlIntervalPolicy).
+     * Feed breaking news bisa di-crawl tiap beberapa menit, feed yang jarang update di-backoff.
      * initialDelay: tunggu 30 detik setelah aplikasi start sebelum crawl pertama.
      *               Memberi waktu Spring untuk fully initialized.
      *
-     * 15 menit = 15 * 60 * 1000 = 900_000 millisecond
+     * 1 menit = 60 * 1000 = 60_000 millisecond
      */
-    @Scheduled(fixedDelay = 900_000, initialDelay = 30_000)
+    @Scheduled(fixedDelay = 60_000, initialDelay = 30_000)
     public void scheduledRssCrawl() {
-        log.info("=== [SCHEDULER] Memulai crawl RSS pada {} ===",
+        if (!schedulerLeader.isLeader()) {
+            return;
+        }
+        log.debug("[SCHEDULER] Cek sumber RSS yang jatuh tempo pada {}",
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
 
         try {
-            crawlerService.crawlAllActiveSources();
+            crawlerService.crawlDueSources();
         } catch (Exception e) {
             // Tangkap exception agar Scheduler tidak berhenti karena error satu kali jalan
             log.error("[SCHEDULER] Error saat crawl: {}", e.getMessage(), e);
         }
-
-        log.info("=== [SCHEDULER] Crawl RSS selesai diinisiasi ===");
-    }
-
-    /**
-     * Scrape konten lengkap artikel yang belum di-scrape.
-     *
-     * Jadwal: setiap 5 menit, dimulai 60 detik setelah aplikasi start.
-     * Lebih sering dari crawl karena scraping batch kecil (10 artikel per run).
-     *
-     * 5 menit = 5 * 60 * 1000 = 300_000 millisecond
-     */
-    @Scheduled(fixedDelay = 300_000, initialDelay = 60_000)
-    public void scheduledArticleScraping() {
-        log.debug("[SCHEDULER] Memulai scraping artikel belum ter-scrape");
-
-        try {
-            articleScraperService.scrapeUnscrapedArticles();
-        } catch (Exception e) {
-            log.error("[SCHEDULER] Error saat scraping artikel: {}", e.getMessage(), e);
-        }
     }
 
     /**
@@ -84,6 +73,9 @@ public class RssCrawlerScheduler {
      */
     @Scheduled(cron = "0 0 2 * * *")
     public void scheduledCleanup() {
+        if (!schedulerLeader.isLeader()) {
+            return;
+        }
         log.info("[SCHEDULER] Memulai cleanup artikel lama");
         // Akan diimplementasi: hapus artikel > 30 hari
         // articleService.deleteOldArticles(30);
@@ -2,21 +2,28 @@ package com.app.news_aggregator.crawler;
 
 import com.app.news_aggregator.model.Article;
 import com.app.news_aggregator.model.Source;
+import com.app.news_aggregator.util.HtmlText;
+import com.app.news_aggregator.util.UrlCanonicalizer;
 import com.rometools.rome.feed.synd.SyndEntry;
 import com.rometools.rome.feed.synd.SyndFeed;
 import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlFixerReader;
 import com.rometools.rome.io.XmlReader;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.net.URL;
-import java.net.URI;
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * RssFeedParser bertanggung jawab untuk:
@@ -29,83 +36,232 @@ import java.util.List;
  * - Atom 0.3, 1.0
  *
  * @Component berarti class ini dikelola oleh Spring sebagai bean.
+ * Fetch HTTP didelegasikan ke FeedFetcher agar implementasinya bisa diganti.
+ *
+ * Mode streaming (default): RSS 2.0 dan Atom 1.0 dibaca dengan StaxFeedReader,
+ * entry dikonversi ke Article satu per satu tanpa membangun SyndFeed, dan pembacaan
+ * berhenti setelah N artikel berturut-turut yang sudah pernah tersimpan (feed berita
+ * diurutkan dari terbaru, sisanya hampir pasti juga sudah ada). Format lain tetap via Rome.
  */
 @Slf4j
 @Component
 public class RssFeedParser {
 
-    // Timeout koneksi ke RSS feed dalam millisecond
-    private static final int CONNECTION_TIMEOUT_MS = 10_000;
+    // Cukup besar untuk menampung prolog + root element, agar stream bisa di-reset untuk fallback Rome
+    private static final int ROOT_PEEK_LIMIT = 64 * 1024;
+
+    // Pengambil feed via HTTP (default: HttpClientFeedFetcher, connection-pooled)
+    private final FeedFetcher feedFetcher;
+
+    // Politeness per domain, dipakai bersama dengan ArticleScraper
+    private final HostRateLimiter hostRateLimiter;
+
+    private final StaxFeedReader staxFeedReader;
+    private final SeenUrlFilter seenUrlFilter;
+    private final boolean streamingEnabled;
+    private final int earlyStopAfterSeen;
+
+    public RssFeedParser(FeedFetcher feedFetcher,
+                         HostRateLimiter hostRateLimiter,
+                         StaxFeedReader staxFeedReader,
+                         SeenUrlFilter seenUrlFilter,
+                         @Value("${app.crawler.feed.streaming:true}") boolean streamingEnabled,
+                         @Value("${app.crawler.feed.early-stop-after-seen:10}") int earlyStopAfterSeen) {
+        this.feedFetcher = feedFetcher;
+        this.hostRateLimiter = hostRateLimiter;
+        this.staxFeedReader = staxFeedReader;
+        this.seenUrlFilter = seenUrlFilter;
+        this.streamingEnabled = streamingEnabled;
+        this.earlyStopAfterSeen = earlyStopAfterSeen;
+    }
 
     /**
      * Method utama: fetch dan parse RSS feed dari sumber.
      *
+     * Fetch dilakukan sebagai conditional GET: jika sumber punya ETag / Last-Modified
+     * dari crawl sebelumnya, header If-None-Match / If-Modified-Since ikut dikirim.
+     * Jika server menjawab 304 Not Modified, feed tidak didownload dan tidak diparse.
+     *
      * @param source Sumber RSS yang akan di-parse
-     * @return List artikel hasil parsing (belum disimpan ke DB)
+     * @return FeedResult berisi list artikel (belum disimpan ke DB) dan validator terbaru
      */
-    public List<Article> parseFeed(Source source) {
+    public FeedResult parseFeed(Source source) {
         log.info("Mulai parsing feed dari sumber: {} ({})", source.getName(), source.getUrl());
-        List<Article> articles = new ArrayList<>();
 
-        try {
-            // ---- Step 1: Fetch XML dari URL ----
-            // SyndFeedInput adalah parser utama dari Rome library
-            // XmlReader menangani encoding dan format XML secara otomatis
-            URL feedUrl = URI.create(source.getUrl()).toURL();
-            SyndFeedInput input = new SyndFeedInput();
-
-            // XmlReader membuka koneksi HTTP dan membaca XML feed
-            try (XmlReader reader = new XmlReader(feedUrl)) {
-                SyndFeed feed = input.build(reader);
-
-                log.debug("Feed '{}' berhasil difetch, jumlah entry: {}",
-                        source.getName(), feed.getEntries().size());
-
-                // ---- Step 2: Konversi setiap entry ke Article ----
-                for (SyndEntry entry : feed.getEntries()) {
-                    try {
-                        Article article = convertEntryToArticle(entry, source);
-                        if (article != null) {
-                            articles.add(article);
-                        }
-                    } catch (Exception e) {
-                        // Jika satu entry gagal dikonversi, skip dan lanjut ke entry berikutnya
-                        // Jangan stop semua karena satu entry bermasalah
-                        log.warn("Gagal konversi entry '{}': {}", entry.getTitle(), e.getMessage());
-                    }
-                }
+        // ---- Step 1: Fetch XML dari URL (conditional GET) ----
+        // Lease dipegang sampai body selesai diparse, karena stream dibaca selama parsing
+        try (HostRateLimiter.Lease lease = hostRateLimiter.acquire(source.getUrl());
+             FeedFetcher.FeedResponse response = feedFetcher.fetch(
+                source.getUrl(), source.getFeedEtag(), source.getFeedLastModified())) {
+
+            // 304: feed sama persis dengan crawl sebelumnya, tidak perlu parse
+            if (response.notModified()) {
+                log.info("Feed '{}' tidak berubah sejak crawl terakhir (304), parsing dilewati",
+                        source.getName());
+                return FeedResult.notModified(
+                        firstNonNull(response.etag(), source.getFeedEtag()),
+                        firstNonNull(response.lastModified(), source.getFeedLastModified()));
             }
 
-            log.info("Selesai parsing feed '{}': {} artikel berhasil diparse",
-                    source.getName(), articles.size());
+            // ---- Step 2: Parse + konversi setiap entry ke Article ----
+            ParsedEntries parsed = parseEntries(response, source);
+            EntryCollector collector = parsed.collector();
+
+            log.info("Selesai parsing feed '{}' ({}): {} artikel berhasil diparse{}",
+                    source.getName(), parsed.parser(), collector.articles.size(),
+                    collector.stoppedEarly ? " (berhenti lebih awal, sisa feed sudah pernah dilihat)" : "");
 
+            return new FeedResult(collector.articles, false, response.etag(), response.lastModified());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Fetch feed diinterupsi: " + source.getUrl(), e);
         } catch (Exception e) {
             log.error("Gagal fetch/parse feed dari '{}': {}", source.getUrl(), e.getMessage());
             // Re-throw agar CrawlerService bisa tangkap dan catat ke CrawlLog
             throw new RuntimeException("Gagal parse feed dari " + source.getUrl(), e);
         }
+    }
+
+    /**
+     * Hasil parseEntries: nama parser yang dipakai (untuk log) dan collector berisi artikelnya.
+     */
+    private record ParsedEntries(String parser, EntryCollector collector) {}
+
+    /**
+     * Parse body feed dan kumpulkan entry-nya.
+     * Coba StAX dulu; jika root bukan RSS 2.0 / Atom 1.0, atau XML gagal diparse di titik mana pun,
+     * feed diparse ulang dari awal dengan Rome memakai collector baru. Hasil StAX yang baru
+     * sebagian tidak pernah dipakai: menyimpannya berarti sisa feed yang sama akan hilang
+     * di setiap crawl berikutnya.
+     *
+     * Selama StAX belum membaca lebih dari ROOT_PEEK_LIMIT byte, stream cukup di-reset.
+     * Jika mark sudah hilang, feed di-fetch ulang (tanpa validator conditional GET)
+     * untuk diparse Rome.
+     */
+    private ParsedEntries parseEntries(FeedFetcher.FeedResponse response, Source source) throws Exception {
+        InputStream body = new BufferedInputStream(response.body());
+        if (!streamingEnabled) {
+            return new ParsedEntries("rome", parseWithRome(body, response.contentType(), source));
+        }
+
+        EntryCollector collector = new EntryCollector(source);
+        body.mark(ROOT_PEEK_LIMIT);
+        // Reader sengaja tidak ditutup: menutupnya akan menutup body yang masih dibutuhkan untuk fallback.
+        // XmlFixerReader mengganti entity HTML yang tidak dideklarasikan (&nbsp;, &hellip;, ...)
+        // dengan character reference, sama seperti XML healer yang dipakai Rome.
+        Reader reader = new XmlFixerReader(new XmlReader(body, response.contentType(), true));
+        StaxFeedReader.Outcome outcome;
+        try {
+            outcome = staxFeedReader.read(reader, collector);
+        } catch (XMLStreamException e) {
+            log.warn("StAX gagal membaca feed '{}' setelah {} entry, parse ulang dengan Rome: {}",
+                    source.getName(), collector.articles.size(), e.getMessage());
+            outcome = StaxFeedReader.Outcome.UNSUPPORTED;
+        }
+        if (outcome != StaxFeedReader.Outcome.UNSUPPORTED) {
+            return new ParsedEntries("stax", collector);
+        }
+
+        try {
+            body.reset();
+        } catch (IOException markGone) {
+            // Sudah lewat ROOT_PEEK_LIMIT: awal feed tidak bisa dibaca ulang, ambil feed sekali lagi
+            log.debug("Awal feed '{}' sudah lewat dari buffer, fetch ulang untuk Rome", source.getName());
+            try (FeedFetcher.FeedResponse refetched = feedFetcher.fetch(source.getUrl(), null, null)) {
+                if (refetched.body() == null) {
+                    throw new IOException("Fetch ulang feed tidak mengembalikan body (status "
+                            + refetched.status() + ")");
+                }
+                return new ParsedEntries("rome, fetch ulang",
+                        parseWithRome(refetched.body(), refetched.contentType(), source));
+            }
+        }
+        return new ParsedEntries("rome", parseWithRome(body, response.contentType(), source));
+    }
+
+    private EntryCollector parseWithRome(InputStream body, String contentType, Source source) throws Exception {
+        EntryCollector collector = new EntryCollector(source);
+
+        // Body response langsung di-stream ke SyndFeedInput (parser utama Rome)
+        // XmlReader menangani encoding berdasarkan Content-Type dan deklarasi XML
+        SyndFeedInput input = new SyndFeedInput();
+        try (XmlReader reader = new XmlReader(body, contentType, true)) {
+            SyndFeed feed = input.build(reader);
+            log.debug("Feed berhasil diparse dengan Rome, jumlah entry: {}", feed.getEntries().size());
+
+            for (SyndEntry entry : feed.getEntries()) {
+                if (!collector.test(toFeedEntry(entry))) {
+                    break;
+                }
+            }
+        }
+        return collector;
+    }
+
+    /**
+     * Sink untuk entry feed: konversi ke Article dan putuskan kapan berhenti membaca.
+     * Berhenti setelah earlyStopAfterSeen artikel berturut-turut yang (menurut SeenUrlFilter)
+     * sudah tersimpan. Artikel yang sudah terlihat tetap ikut dikembalikan — deduplikasi final
+     * tetap di CrawlerService, dan timestamp-nya dipakai CrawlIntervalPolicy.
+     */
+    private class EntryCollector implements Predicate<FeedEntry> {
+        private final Source source;
+        private final List<Article> articles = new ArrayList<>();
+        private int consecutiveSeen;
+        private boolean stoppedEarly;
+
+        EntryCollector(Source source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean test(FeedEntry entry) {
+            Article article;
+            try {
+                article = convertEntryToArticle(entry, source);
+            } catch (Exception e) {
+                // Jika satu entry gagal dikonversi, skip dan lanjut ke entry berikutnya
+                // Jangan stop semua karena satu entry bermasalah
+                log.warn("Gagal konversi entry '{}': {}", entry.title(), e.getMessage());
+                return true;
+            }
+            if (article == null) {
+                return true;
+            }
+            articles.add(article);
 
-        return articles;
+            if (earlyStopAfterSeen <= 0) {
+                return true;
+            }
+            consecutiveSeen = seenUrlFilter.probablySeen(article) ? consecutiveSeen + 1 : 0;
+            if (consecutiveSeen >= earlyStopAfterSeen) {
+                stoppedEarly = true;
+                return false;
+            }
+            return true;
+        }
     }
 
     /**
-     * Konversi satu SyndEntry (format Rome) ke entity Article.
+     * Konversi satu entry feed (dari StAX atau Rome) ke entity Article.
      *
-     * SyndEntry adalah representasi satu item/entry di RSS feed.
      * Setiap entry biasanya berisi: title, link, description, publishedDate, author.
      *
      * @return Article entity, atau null jika entry tidak valid (tidak ada URL)
      */
-    private Article convertEntryToArticle(SyndEntry entry, Source source) {
+    private Article convertEntryToArticle(FeedEntry entry, Source source) {
         // URL adalah identifier unik artikel — wajib ada
-        String url = entry.getLink();
+        String url = entry.link();
         if (url == null || url.isBlank()) {
-            log.debug("Entry dilewati karena tidak ada URL: {}", entry.getTitle());
+            log.debug("Entry dilewati karena tidak ada URL: {}", entry.title());
             return null;
         }
+        // Buang parameter tracking (utm_*, fbclid, ...) agar varian URL dianggap artikel yang sama
+        url = UrlCanonicalizer.canonicalize(url);
 
         // ---- Ekstrak judul ----
-        String title = entry.getTitle();
+        String title = entry.title();
         if (title == null || title.isBlank()) {
             log.debug("Entry dilewati karena tidak ada judul");
             return null;
@@ -114,25 +270,13 @@ public class RssFeedParser {
         // ---- Ekstrak deskripsi/excerpt ----
         // RSS feed biasanya menyediakan deskripsi dalam format HTML
         // Kita bersihkan tag HTML-nya agar jadi teks biasa
-        String description = null;
-        if (entry.getDescription() != null) {
-            String rawDesc = entry.getDescription().getValue();
-            // Jsoup.parse().text() menghapus semua tag HTML dan decode HTML entities
-            description = cleanHtml(rawDesc);
-            // Batasi panjang deskripsi maksimal 500 karakter
-            if (description.length() > 500) {
-                description = description.substring(0, 497) + "...";
-            }
-        }
+        // HtmlText berhenti membaca begitu 500 karakter terkumpul (dengan "..." jika terpotong)
+        String description = HtmlText.excerpt(entry.descriptionHtml(), 500);
 
         // ---- Ekstrak tanggal publish ----
-        LocalDateTime publishedAt = null;
-        Date pubDate = entry.getPublishedDate();
-        if (pubDate == null) {
-            pubDate = entry.getUpdatedDate(); // fallback ke updated date
-        }
-        if (pubDate != null) {
-            publishedAt = pubDate.toInstant()
+        LocalDateTime publishedAt;
+        if (entry.publishedDate() != null) {
+            publishedAt = entry.publishedDate().toInstant()
                     .atZone(ZoneId.systemDefault())
                     .toLocalDateTime();
         } else {
@@ -141,29 +285,28 @@ public class RssFeedParser {
 
         // ---- Ekstrak penulis ----
         String author = null;
-        if (entry.getAuthor() != null && !entry.getAuthor().isBlank()) {
-            author = entry.getAuthor();
+        if (entry.author() != null && !entry.author().isBlank()) {
+            author = entry.author();
         }
 
         // ---- Ekstrak GUID ----
         // GUID adalah identifier unik dari sisi sumber RSS
-        String guid = entry.getUri();
+        String guid = entry.guid();
         if (guid == null || guid.isBlank()) {
             guid = url; // fallback ke URL jika tidak ada GUID
+        } else if (UrlCanonicalizer.canonicalize(guid).equals(url)) {
+            // GUID permalink (link item, sering dengan ?utm_source=rss): samakan dengan URL kanonik
+            guid = url;
         }
 
-        // ---- Ekstrak thumbnail ----
-        // Beberapa RSS feed menyertakan gambar via media:thumbnail atau enclosure
-        String thumbnailUrl = extractThumbnail(entry);
-
         // ---- Build Article entity ----
         return Article.builder()
                 .source(source)
                 .title(title.trim())
-                .url(url.trim())
+                .url(url)
                 .guid(guid)
                 .description(description)
-                .thumbnailUrl(thumbnailUrl)
+                .thumbnailUrl(entry.thumbnailUrl())
                 .author(author)
                 .category(source.getCategory()) // inherit kategori dari sumber
                 .publishedAt(publishedAt)
@@ -172,6 +315,25 @@ public class RssFeedParser {
                 .build();
     }
 
+    /**
+     * Petakan SyndEntry (format Rome) ke FeedEntry, format yang sama dengan hasil StaxFeedReader.
+     */
+    private FeedEntry toFeedEntry(SyndEntry entry) {
+        Date pubDate = entry.getPublishedDate();
+        if (pubDate == null) {
+            pubDate = entry.getUpdatedDate(); // fallback ke updated date
+        }
+        return new FeedEntry(
+                entry.getTitle(),
+                entry.getLink(),
+                entry.getUri(),
+                entry.getDescription() != null ? entry.getDescription().getValue() : null,
+                pubDate,
+                entry.getAuthor(),
+                // Beberapa RSS feed menyertakan gambar via media:thumbnail atau enclosure
+                extractThumbnail(entry));
+    }
+
     /**
      * Ekstrak URL thumbnail dari RSS entry.
      * Feed berbeda-beda cara menyimpan gambar:
@@ -207,12 +369,39 @@ public class RssFeedParser {
         return null; // tidak ada thumbnail
     }
 
+    private static String firstNonNull(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+
     /**
-     * Bersihkan HTML dari string: hapus semua tag HTML, decode HTML entities.
-     * Contoh: "<p>Hello &amp; World</p>" → "Hello & World"
+     * Satu entry feed dalam bentuk netral, sebelum dikonversi ke Article.
+     * Diisi oleh StaxFeedReader (streaming) atau dari SyndEntry Rome (fallback).
      */
-    private String cleanHtml(String html) {
-        if (html == null) return null;
-        return Jsoup.parse(html).text();
+    public record FeedEntry(
+        String title,
+        String link,
+        String guid,
+        String descriptionHtml,
+        Date publishedDate,
+        String author,
+        String thumbnailUrl
+    ) {}
+
+    /**
+     * Hasil fetch satu feed.
+     *
+     * notModified = true berarti server menjawab 304 dan list articles kosong.
+     * etag / lastModified adalah validator yang harus disimpan ke Source
+     * untuk dikirim kembali pada crawl berikutnya.
+     */
+    public record FeedResult(
+        List<Article> articles,
+        boolean notModified,
+        String etag,
+        String lastModified
+    ) {
+        public static FeedResult notModified(String etag, String lastModified) {
+            return new FeedResult(List.of(), true, etag, lastModified);
+        }
     }
-}
\ No newline at end of file
+}
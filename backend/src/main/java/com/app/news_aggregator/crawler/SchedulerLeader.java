@@ -0,0 +1,115 @@
+package com.app.news_aggregator.crawler;
+
+import com.app.news_aggregator.config.ConditionalOnRole;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * SchedulerLeader memilih satu instance peran scheduler sebagai leader
+ * lewat PostgreSQL session-level advisory lock.
+ *
+ * Beberapa instance scheduler boleh berjalan (untuk failover), tapi job terjadwal
+ * hanya dijalankan oleh pemegang lock. Lock terikat ke satu koneksi yang ditahan
+ * selama instance menjadi leader: jika instance mati atau koneksinya putus,
+ * PostgreSQL melepas lock dan instance lain mengambil alih di tick berikutnya.
+ *
+ * Koneksi diambil dari pool (satu slot Hikari terpakai permanen di instance leader).
+ */
+@Slf4j
+@Component
+@ConditionalOnRole(ConditionalOnRole.SCHEDULER)
+public class SchedulerLeader {
+
+    private final DataSource dataSource;
+    private final long lockKey;
+
+    // Koneksi pemegang lock; null = bukan leader
+    private Connection lockConnection;
+
+    public SchedulerLeader(DataSource dataSource,
+                           @Value("${app.scheduler.leader-lock-key:7301001}") long lockKey) {
+        this.dataSource = dataSource;
+        this.lockKey = lockKey;
+    }
+
+    /**
+     * Apakah instance ini leader. Dipanggil di awal setiap job terjadwal:
+     * leader memastikan koneksi lock masih hidup, non-leader mencoba mengambil lock.
+     */
+    public synchronized boolean isLeader() {
+        if (lockConnection != null) {
+            if (isValid(lockConnection)) {
+                return true;
+            }
+            log.warn("[SCHEDULER] Koneksi advisory lock putus, status leader dilepas");
+            closeQuietly();
+        }
+
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(true);
+            if (tryLock(connection)) {
+                lockConnection = connection;
+                log.info("[SCHEDULER] Instance ini menjadi leader (advisory lock {})", lockKey);
+                return true;
+            }
+        } catch (SQLException e) {
+            log.warn("[SCHEDULER] Gagal mencoba advisory lock: {}", e.getMessage());
+        }
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {}
+        }
+        return false;
+    }
+
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, lockKey);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            lockConnection.close();
+        } catch (SQLException ignored) {
+        } finally {
+            lockConnection = null;
+        }
+    }
+
+    @PreDestroy
+    synchronized void release() {
+        if (lockConnection == null) return;
+        // Lepas eksplisit: koneksi kembali ke pool, bukan ditutup, jadi lock tidak ikut lepas sendiri
+        try (PreparedStatement ps = lockConnection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            ps.setLong(1, lockKey);
+            ps.execute();
+            log.info("[SCHEDULER] Leader dilepas (advisory lock {})", lockKey);
+        } catch (SQLException e) {
+            log.warn("[SCHEDULER] Gagal melepas advisory lock: {}", e.getMessage());
+        }
+        closeQuietly();
+    }
+}
@@ -0,0 +1,45 @@
+package com.app.news_aggregator.crawler;
+
+import com.app.news_aggregator.config.ConditionalOnRole;
+import com.app.news_aggregator.service.ArticleScraperService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * ScrapePollScheduler memicu pipeline scraping secara berkala di setiap scrape-worker.
+ *
+ * Berbeda dengan RssCrawlerScheduler, job ini tidak butuh leader: artikel diklaim dengan
+ * SKIP LOCKED + lease, jadi beberapa scrape-worker bisa polling bersamaan tanpa
+ * mengerjakan artikel yang sama. Polling ini menangkap artikel yang pesannya hilang,
+ * lease-nya habis, atau backoff retry-nya sudah lewat.
+ */
+@Slf4j
+@Component
+@ConditionalOnRole(ConditionalOnRole.SCRAPE_WORKER)
+@RequiredArgsConstructor
+public class ScrapePollScheduler {
+
+    private final ArticleScraperService articleScraperService;
+
+    /**
+     * Scrape konten lengkap artikel yang belum di-scrape.
+     *
+     * Jadwal: setiap 1 menit, dimulai 60 detik setelah aplikasi start.
+     * Method ini hanya memicu pipeline scraping (berjalan di thread sendiri sampai
+     * antrian artikel habis); jika run sebelumnya belum selesai, tick ini dilewati.
+     *
+     * 1 menit = 60 * 1000 = 60_000 millisecond
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void scheduledArticleScraping() {
+        log.debug("[SCHEDULER] Memulai scraping artikel belum ter-scrape");
+
+        try {
+            articleScraperService.scrapeUnscrapedArticles();
+        } catch (Exception e) {
+            log.error("[SCHEDULER] Error saat scraping artikel: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.app.news_aggregator.crawler;
+
+import com.app.news_aggregator.model.Article;
+import com.app.news_aggregator.util.UrlCanonicalizer;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ScrapeResultCache menyimpan hasil scraping per URL kanonik selama TTL tertentu.
+ *
+ * URL yang sama bisa sampai ke scraper berkali-kali: redelivery pesan RabbitMQ setelah gagal,
+ * varian URL dengan parameter tracking, atau ScrapeConsumer dan pipeline ArticleScraperService
+ * yang mengerjakan artikel yang sama. Dengan cache ini satu halaman hanya di-fetch sekali per TTL:
+ *
+ * - Key adalah URL kanonik (UrlCanonicalizer), jadi varian ?utm_source=... berbagi entry
+ * - Value adalah CompletableFuture: request kedua untuk URL yang SEDANG di-fetch menunggu
+ *   hasil fetch pertama, bukan membuka koneksi baru (single-flight)
+ * - Hanya hasil fetch yang berhasil yang disimpan; future yang gagal (SharedFailure, berisi
+ *   klasifikasi kegagalannya) langsung dibuang Caffeine sehingga kegagalan bisa dicoba lagi,
+ *   sementara artikel yang sedang menunggu future itu ikut mendapat klasifikasi yang sama
+ * - Ukuran dibatasi (maximumSize) karena value berisi konten lengkap artikel
+ */
+@Component
+public class ScrapeResultCache {
+
+    private final AsyncCache<String, ArticleScraper.ScrapeResult> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public ScrapeResultCache(
+            @Value("${app.scraper.result-cache.max-size:2000}") long maxSize,
+            @Value("${app.scraper.result-cache.ttl-minutes:60}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .buildAsync();
+    }
+
+    /**
+     * Daftarkan fetch untuk URL ini jika belum ada yang sedang/sudah mengerjakannya.
+     *
+     * @param pending future milik pemanggil; wajib diselesaikan dengan hasil,
+     *                atau completeExceptionally dengan SharedFailure jika gagal
+     * @return null jika pemanggil yang harus fetch, atau future milik fetch sebelumnya
+     *         (selesai dengan SharedFailure jika fetch tersebut gagal)
+     */
+    public CompletableFuture<ArticleScraper.ScrapeResult> reserve(
+            String url, CompletableFuture<ArticleScraper.ScrapeResult> pending) {
+        CompletableFuture<ArticleScraper.ScrapeResult> existing =
+                cache.asMap().putIfAbsent(UrlCanonicalizer.canonicalize(url), pending);
+        if (existing != null) {
+            hits.incrementAndGet();
+        } else {
+            loads.incrementAndGet();
+        }
+        return existing;
+    }
+
+    /**
+     * Snapshot untuk monitoring.
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long loadCount = loads.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.synchronous().estimatedSize());
+        stats.put("hits", hitCount);
+        stats.put("loads", loadCount);
+        stats.put("hitRatio", hitCount + loadCount > 0 ? (double) hitCount / (hitCount + loadCount) : 0.0);
+        return stats;
+    }
+
+    /**
+     * Kegagalan fetch/ekstrak yang dibagikan ke semua artikel dengan URL yang sama,
+     * lengkap dengan klasifikasinya (404 tetap PERMANENT, 403 tetap BLOCKED, dst).
+     */
+    public static final class SharedFailure extends RuntimeException {
+        private final Article.ScrapeFailure failure;
+
+        public SharedFailure(Article.ScrapeFailure failure, String message) {
+            super(message, null, false, false);
+            this.failure = failure;
+        }
+
+        public Article.ScrapeFailure failure() {
+            return failure;
+        }
+    }
+}
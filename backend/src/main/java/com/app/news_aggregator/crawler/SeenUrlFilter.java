@@ -0,0 +1,267 @@
+package com.app.news_aggregator.crawler;
+
+import com.app.news_aggregator.model.Article;
+import com.app.news_aggregator.repository.ArticleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * SeenUrlFilter adalah Bloom filter in-memory berisi URL dan GUID artikel yang sudah tersimpan.
+ *
+ * Saat feed di-crawl ulang, sebagian besar entry adalah artikel yang sudah ada di DB.
+ * Filter ini menjawab dua kemungkinan:
+ * - "pasti belum pernah dilihat" → artikel langsung dianggap baru, tanpa query ke Postgres
+ * - "mungkin sudah ada"          → tetap dicek ke DB (bisa false positive)
+ *
+ * Filter diisi dari tabel articles saat aplikasi siap, hanya di instance crawl-worker
+ * (lihat SeenUrlFilterWarmUp; di virtual thread, tidak menahan startup),
+ * dan di-update setiap kali CrawlerService menyimpan artikel baru.
+ * Selama warm-up belum selesai, semua entry dianggap "mungkin ada" → perilaku sama seperti tanpa filter.
+ *
+ * Catatan: artikel yang disimpan oleh instance lain tidak masuk ke filter instance ini.
+ * Insert CrawlerService memakai ON CONFLICT DO NOTHING atas UNIQUE(url) dan UNIQUE(source_id, guid),
+ * jadi entry seperti itu cukup dilewati saat insert. Query yang benar-benar dilewati dilaporkan
+ * CrawlerService lewat recordDbCheckSkipped.
+ */
+@Slf4j
+@Component
+public class SeenUrlFilter {
+
+    private static final int WARMUP_BATCH_SIZE = 10_000;
+
+    private final ArticleRepository articleRepository;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double targetFpp;
+
+    private final long numBits;
+    private final int numHashes;
+    private final AtomicLongArray bits;
+
+    private volatile boolean ready;
+
+    // Statistik untuk endpoint monitoring
+    private final AtomicLong insertions = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong maybePresent = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicLong dbChecksSkipped = new AtomicLong();
+
+    public SeenUrlFilter(
+            ArticleRepository articleRepository,
+            @Value("${app.crawler.seen-filter.enabled:true}") boolean enabled,
+            @Value("${app.crawler.seen-filter.expected-insertions:2000000}") long expectedInsertions,
+            @Value("${app.crawler.seen-filter.fpp:0.01}") double targetFpp) {
+        this.articleRepository = articleRepository;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.targetFpp = targetFpp;
+
+        // Ukuran optimal Bloom filter: m = -n ln p / (ln 2)^2, k = (m / n) ln 2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(targetFpp) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, (m + 63) / 64 * 64);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray(enabled ? (int) (numBits / 64) : 1);
+    }
+
+    /**
+     * Isi filter dari DB. Dibaca per batch dengan keyset (id > lastId)
+     * agar tidak memuat seluruh tabel ke memory sekaligus.
+     */
+    public void warmUp() {
+        if (!enabled) {
+            log.info("SeenUrlFilter dinonaktifkan, semua cek duplikat langsung ke DB");
+            return;
+        }
+        Thread.ofVirtual().name("seen-url-filter-warmup").start(() -> {
+            long start = System.currentTimeMillis();
+            long loaded = 0;
+            try {
+                long lastId = 0;
+                List<ArticleRepository.ExistingKey> batch;
+                do {
+                    batch = articleRepository.findKeysAfterId(lastId, PageRequest.of(0, WARMUP_BATCH_SIZE));
+                    for (ArticleRepository.ExistingKey key : batch) {
+                        put(key.getUrl());
+                        // Sama seperti put(Article): GUID yang sama dengan URL tidak dihitung dua kali
+                        if (key.getGuid() != null && !key.getGuid().equals(key.getUrl())) {
+                            put(key.getGuid());
+                        }
+                        lastId = key.getId();
+                    }
+                    loaded += batch.size();
+                } while (batch.size() == WARMUP_BATCH_SIZE);
+
+                ready = true;
+                log.info("SeenUrlFilter siap: {} artikel dimuat dalam {}ms ({} KB, k={})",
+                        loaded, System.currentTimeMillis() - start, memoryBytes() / 1024, numHashes);
+            } catch (Exception e) {
+                // Filter tetap tidak aktif → semua entry dicek ke DB seperti biasa
+                log.error("Warm-up SeenUrlFilter gagal setelah {} artikel: {}", loaded, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * @return false jika artikel PASTI belum pernah disimpan (URL dan GUID belum pernah dilihat),
+     *         true jika mungkin sudah ada atau filter belum siap
+     */
+    public boolean mightContain(Article article) {
+        if (!ready) {
+            return true;
+        }
+        lookups.incrementAndGet();
+        boolean maybe = mightContain(article.getUrl())
+                || (hasDistinctGuid(article) && mightContain(article.getGuid()));
+        if (maybe) {
+            maybePresent.incrementAndGet();
+        }
+        return maybe;
+    }
+
+    /**
+     * Sama seperti mightContain, tapi false selama filter belum siap dan tidak dihitung ke statistik.
+     * Dipakai RssFeedParser untuk memutuskan kapan berhenti membaca feed: saat filter belum siap,
+     * lebih aman membaca seluruh feed daripada menganggap semua entry sudah pernah dilihat.
+     */
+    public boolean probablySeen(Article article) {
+        return ready
+                && (mightContain(article.getUrl())
+                    || (hasDistinctGuid(article) && mightContain(article.getGuid())));
+    }
+
+    /**
+     * Tandai artikel sebagai sudah tersimpan (URL dan GUID).
+     */
+    public void put(Article article) {
+        put(article.getUrl());
+        if (hasDistinctGuid(article)) {
+            put(article.getGuid());
+        }
+    }
+
+    /**
+     * Dipanggil CrawlerService saat filter bilang "mungkin ada" tapi DB bilang tidak ada.
+     */
+    public void recordFalsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    /**
+     * Dipanggil CrawlerService untuk entry yang benar-benar tidak dicek ke DB
+     * (filter bilang "pasti baru" dan entry tidak punya GUID sendiri).
+     */
+    public void recordDbCheckSkipped() {
+        dbChecksSkipped.incrementAndGet();
+    }
+
+    /**
+     * Snapshot kondisi filter untuk monitoring: ukuran memory, tingkat false positive
+     * yang diharapkan (dari jumlah bit terisi) dan yang teramati (dari verifikasi ke DB).
+     */
+    public Map<String, Object> stats() {
+        long setBits = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            setBits += Long.bitCount(bits.get(i));
+        }
+        double fillRatio = (double) setBits / numBits;
+        long lookupCount = lookups.get();
+        long maybeCount = maybePresent.get();
+        long fpCount = falsePositives.get();
+        // Entry yang benar-benar baru = "pasti baru" + false positive
+        long trulyNew = (lookupCount - maybeCount) + fpCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("memoryBytes", memoryBytes());
+        stats.put("numBits", numBits);
+        stats.put("numHashes", numHashes);
+        stats.put("expectedInsertions", expectedInsertions);
+        stats.put("insertions", insertions.get());
+        stats.put("fillRatio", fillRatio);
+        stats.put("targetFpp", targetFpp);
+        stats.put("estimatedFpp", Math.pow(fillRatio, numHashes));
+        stats.put("lookups", lookupCount);
+        stats.put("maybePresent", maybeCount);
+        stats.put("falsePositives", fpCount);
+        stats.put("observedFpp", trulyNew > 0 ? (double) fpCount / trulyNew : 0.0);
+        // Entry yang benar-benar tidak dicek ke DB (entry dengan GUID sendiri selalu dicek)
+        long skippedCount = dbChecksSkipped.get();
+        stats.put("dbChecksSkipped", skippedCount);
+        stats.put("dbChecksSkippedRatio", lookupCount > 0 ? (double) skippedCount / lookupCount : 0.0);
+        return stats;
+    }
+
+    private boolean mightContain(String key) {
+        if (key == null) {
+            return false;
+        }
+        long h1 = hash64(key);
+        long h2 = fmix64(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        long h1 = hash64(key);
+        long h2 = fmix64(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(index);
+                if ((current & mask) != 0) break;
+            } while (!bits.compareAndSet(index, current, current | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    private long memoryBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    private static boolean hasDistinctGuid(Article article) {
+        return article.getGuid() != null && !article.getGuid().equals(article.getUrl());
+    }
+
+    /**
+     * FNV-1a 64-bit + finalizer MurmurHash3 agar bit tersebar merata
+     * (URL berita sering hanya beda di beberapa karakter terakhir).
+     */
+    private static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return fmix64(h);
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,27 @@
+package com.app.news_aggregator.crawler;
+
+import com.app.news_aggregator.config.ConditionalOnRole;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warm-up SeenUrlFilter saat aplikasi siap, hanya di instance crawl-worker.
+ *
+ * Warm-up membaca url/guid seluruh tabel articles. Filter hanya berguna untuk consumer
+ * crawl.rss.queue; node API, scrape atau digest tidak perlu ikut memindai tabel.
+ * Di node tanpa warm-up filter tidak pernah siap → semua cek duplikat langsung ke DB.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnRole(ConditionalOnRole.CRAWL_WORKER)
+public class SeenUrlFilterWarmUp {
+
+    private final SeenUrlFilter seenUrlFilter;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        seenUrlFilter.warmUp();
+    }
+}
@@ -0,0 +1,200 @@
+package com.app.news_aggregator.crawler;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SiteExtractionRules menyimpan aturan ekstraksi konten yang dipakai ArticleScraper.
+ *
+ * Sebelumnya setiap halaman dicoba dengan "article" lalu 10 selector umum berurutan,
+ * dan setiap doc.selectFirst(String) mem-parse ulang selector lalu menelusuri seluruh dokumen.
+ * Untuk situs yang kontennya baru cocok di selector ke-8, itu 8+ traversal per halaman.
+ *
+ * Sekarang:
+ * - Profil per domain (kompas.com, detik.com, ...) langsung menunjuk ke container konten
+ *   dan elemen yang harus dibuang (iklan, "Baca juga", tag) → satu traversal untuk situs yang dikenal
+ * - Selector di-parse sekali menjadi Evaluator dan di-cache (QueryParser tidak dipanggil per halaman)
+ * - Untuk domain tanpa profil, heuristik umum yang terakhir berhasil diingat per host
+ *   dan dicoba paling awal di halaman berikutnya dari host yang sama
+ */
+@Component
+public class SiteExtractionRules {
+
+    /**
+     * Heuristik umum untuk domain tanpa profil, urutan sama dengan sebelumnya.
+     */
+    private static final List<String> GENERIC_CONTENT_SELECTORS = List.of(
+        "article",
+        "[class*='article-body']",
+        "[class*='article-content']",
+        "[class*='post-content']",
+        "[class*='entry-content']",
+        "[class*='story-body']",
+        "[class*='content-body']",
+        "[class*='read-more']",
+        "main",
+        "#content",
+        ".content"
+    );
+
+    /**
+     * Profil bawaan untuk situs berita yang paling banyak di-crawl.
+     * Key adalah domain; subdomain ikut cocok (news.detik.com → detik.com).
+     */
+    private static final Map<String, SiteProfile> PROFILES = Map.of(
+        "kompas.com", new SiteProfile(
+            ".read__content",
+            null,
+            ".ads-on-body, .inner-link-baca-juga, .kompasidRec, .read__related, script, style"),
+        "detik.com", new SiteProfile(
+            ".detail__body-text",
+            ".detail__media-image img",
+            ".parallaxindetail, .staticdetail_container, .detail__body-tag, .lihatjg, .sisip_video_ds, script, style"),
+        "cnnindonesia.com", new SiteProfile(
+            ".detail-text",
+            ".detail-image img",
+            ".linksisip, .paradetail, .inArticleAds, script, style")
+    );
+
+    // Selector string → Evaluator hasil parse (thread-safe, dipakai bersama oleh semua thread extract)
+    private final Map<String, Evaluator> evaluatorCache = new ConcurrentHashMap<>();
+
+    // Host → index heuristik umum yang terakhir berhasil
+    private final Map<String, Integer> learnedSelector = new ConcurrentHashMap<>();
+
+    // Statistik untuk monitoring
+    private final AtomicLong profileHits = new AtomicLong();
+    private final AtomicLong learnedHits = new AtomicLong();
+    private final AtomicLong genericHits = new AtomicLong();
+
+    /**
+     * Aturan per domain: selector container konten, selector thumbnail (opsional),
+     * dan selector elemen di dalam konten yang dibuang sebelum teks diambil.
+     */
+    public record SiteProfile(String contentSelector, String thumbnailSelector, String removeSelector) {}
+
+    /**
+     * Cari profil untuk host halaman, mencocokkan domain dan semua parent domain-nya.
+     */
+    public SiteProfile profileFor(String host) {
+        if (host == null) return null;
+        String candidate = host.toLowerCase(Locale.ROOT);
+        while (true) {
+            SiteProfile profile = PROFILES.get(candidate);
+            if (profile != null) return profile;
+            int dot = candidate.indexOf('.');
+            if (dot < 0) return null;
+            candidate = candidate.substring(dot + 1);
+        }
+    }
+
+    /**
+     * Element konten dari profil situs, dengan elemen pengganggu sudah dibuang dari dokumen.
+     *
+     * @return null jika tidak ada profil atau container tidak ditemukan (layout situs berubah)
+     */
+    public Element selectProfileContent(Document doc, SiteProfile profile) {
+        if (profile == null) return null;
+        Element content = doc.selectFirst(evaluator(profile.contentSelector()));
+        if (content == null) return null;
+        if (profile.removeSelector() != null) {
+            content.select(evaluator(profile.removeSelector())).remove();
+        }
+        profileHits.incrementAndGet();
+        return content;
+    }
+
+    /**
+     * Thumbnail dari profil situs, null jika profil tidak punya selector thumbnail atau tidak ditemukan.
+     */
+    public Element selectProfileThumbnail(Document doc, SiteProfile profile) {
+        if (profile == null || profile.thumbnailSelector() == null) return null;
+        return doc.selectFirst(evaluator(profile.thumbnailSelector()));
+    }
+
+    /**
+     * Coba heuristik umum, dimulai dari heuristik yang terakhir berhasil untuk host ini.
+     *
+     * @param minLength panjang teks minimal agar element dianggap konten
+     * @return teks element konten pertama yang cukup panjang, atau null
+     */
+    public String selectGenericContent(Document doc, String host, int minLength) {
+        Integer learned = host != null ? learnedSelector.get(host) : null;
+        if (learned != null) {
+            String text = matchGeneric(doc, learned, minLength);
+            if (text != null) {
+                learnedHits.incrementAndGet();
+                return text;
+            }
+        }
+
+        for (int i = 0; i < GENERIC_CONTENT_SELECTORS.size(); i++) {
+            if (learned != null && i == learned) continue;
+            String text = matchGeneric(doc, i, minLength);
+            if (text != null) {
+                if (host != null) learnedSelector.put(host, i);
+                genericHits.incrementAndGet();
+                return text;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Evaluator container konten yang sudah diketahui untuk host ini: selector profil situs,
+     * atau heuristik umum yang terakhir berhasil. Dipakai ArticleScraper untuk menghentikan
+     * download halaman begitu container tersebut selesai dibaca.
+     *
+     * @return null jika belum ada yang diketahui (halaman harus dibaca penuh)
+     */
+    public Evaluator knownContentEvaluator(String host) {
+        SiteProfile profile = profileFor(host);
+        if (profile != null) {
+            return evaluator(profile.contentSelector());
+        }
+        Integer learned = host != null ? learnedSelector.get(host) : null;
+        return learned != null ? evaluator(GENERIC_CONTENT_SELECTORS.get(learned)) : null;
+    }
+
+    /**
+     * Evaluator hasil parse selector, di-cache agar setiap selector hanya di-parse sekali.
+     */
+    public Evaluator evaluator(String selector) {
+        return evaluatorCache.computeIfAbsent(selector, QueryParser::parse);
+    }
+
+    /**
+     * Snapshot untuk monitoring: berapa halaman selesai lewat profil, lewat heuristik
+     * yang sudah dipelajari, atau lewat pencarian heuristik dari awal.
+     */
+    public Map<String, Object> stats() {
+        Map<String, String> learned = new LinkedHashMap<>();
+        learnedSelector.forEach((host, index) -> learned.put(host, GENERIC_CONTENT_SELECTORS.get(index)));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("profiles", PROFILES.keySet());
+        stats.put("profileHits", profileHits.get());
+        stats.put("learnedHits", learnedHits.get());
+        stats.put("genericHits", genericHits.get());
+        stats.put("cachedEvaluators", evaluatorCache.size());
+        stats.put("learnedSelectors", learned);
+        return stats;
+    }
+
+    private String matchGeneric(Document doc, int index, int minLength) {
+        Element element = doc.selectFirst(evaluator(GENERIC_CONTENT_SELECTORS.get(index)));
+        if (element == null) return null;
+        String text = element.text();
+        return text.length() > minLength ? text : null;
+    }
+}
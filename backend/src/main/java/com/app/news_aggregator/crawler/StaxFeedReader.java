@@ -0,0 +1,264 @@
+package com.app.news_aggregator.crawler;
+
+import com.rometools.rome.io.impl.DateParser;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Reader;
+import java.util.Date;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * StaxFeedReader membaca RSS 2.0 dan Atom 1.0 secara streaming (StAX).
+ *
+ * Berbeda dengan Rome yang membangun seluruh SyndFeed (DOM JDOM + semua SyndEntry) di memory,
+ * reader ini menghasilkan satu FeedEntry setiap kali elemen item/entry selesai dibaca dan
+ * langsung menyerahkannya ke sink. Sink bisa menghentikan pembacaan kapan saja (misalnya
+ * setelah beberapa artikel berturut-turut yang sudah pernah dilihat), sehingga sisa feed
+ * tidak perlu dibaca sama sekali.
+ *
+ * Format lain (RSS 0.9/1.0 RDF, Atom 0.3, dll) dikembalikan sebagai UNSUPPORTED
+ * agar RssFeedParser bisa fallback ke Rome.
+ */
+@Component
+public class StaxFeedReader {
+
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+    private static final String MEDIA_NS = "http://search.yahoo.com/mrss/";
+    private static final String DC_NS = "http://purl.org/dc/elements/1.1/";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    public enum Outcome {
+        COMPLETED,      // Seluruh feed terbaca
+        STOPPED,        // Sink meminta berhenti sebelum feed habis
+        UNSUPPORTED     // Root element bukan RSS 2.0 / Atom 1.0, belum ada entry yang dibaca
+    }
+
+    /**
+     * Baca feed dan serahkan setiap entry ke sink.
+     *
+     * @param reader Reader XML (encoding sudah ditangani oleh pemanggil, misalnya XmlReader Rome)
+     * @param sink   Dipanggil per entry; return false untuk berhenti membaca
+     */
+    public Outcome read(Reader reader, Predicate<RssFeedParser.FeedEntry> sink) throws XMLStreamException {
+        XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(reader);
+        try {
+            if (!nextStartElement(xml)) {
+                return Outcome.UNSUPPORTED;
+            }
+
+            boolean atom;
+            String rootNs = xml.getNamespaceURI();
+            if ("rss".equals(xml.getLocalName()) && (rootNs == null || rootNs.isEmpty())) {
+                atom = false;
+            } else if ("feed".equals(xml.getLocalName()) && ATOM_NS.equals(rootNs)) {
+                atom = true;
+            } else {
+                return Outcome.UNSUPPORTED;
+            }
+
+            String entryElement = atom ? "entry" : "item";
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT
+                        && entryElement.equals(xml.getLocalName())) {
+                    RssFeedParser.FeedEntry entry = atom ? readAtomEntry(xml) : readRssItem(xml);
+                    if (!sink.test(entry)) {
+                        return Outcome.STOPPED;
+                    }
+                }
+            }
+            return Outcome.COMPLETED;
+        } finally {
+            xml.close(); // tidak menutup Reader di bawahnya
+        }
+    }
+
+    /**
+     * Baca satu <item> RSS 2.0. Pemetaan mengikuti perilaku Rome:
+     * - link      → link, atau guid jika isPermaLink dan link kosong
+     * - uri       → guid
+     * - author    → author, atau dc:creator
+     * - published → pubDate, atau dc:date
+     */
+    private RssFeedParser.FeedEntry readRssItem(XMLStreamReader xml) throws XMLStreamException {
+        String title = null, link = null, guid = null, description = null, author = null;
+        String pubDate = null, enclosureThumbnail = null, mediaThumbnail = null;
+        boolean guidIsPermaLink = true;
+
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            String ns = xml.getNamespaceURI();
+            String name = xml.getLocalName();
+            if (ns == null || ns.isEmpty()) {
+                switch (name) {
+                    case "title" -> title = readText(xml);
+                    case "link" -> link = readText(xml);
+                    case "guid" -> {
+                        guidIsPermaLink = !"false".equalsIgnoreCase(xml.getAttributeValue(null, "isPermaLink"));
+                        guid = readText(xml);
+                    }
+                    case "description" -> description = readText(xml);
+                    case "pubDate" -> pubDate = readText(xml);
+                    case "author" -> author = firstNonBlank(author, readText(xml));
+                    case "enclosure" -> {
+                        if (enclosureThumbnail == null && isImage(xml.getAttributeValue(null, "type"))) {
+                            enclosureThumbnail = xml.getAttributeValue(null, "url");
+                        }
+                        skipElement(xml);
+                    }
+                    default -> skipElement(xml);
+                }
+            } else if (DC_NS.equals(ns) && "creator".equals(name)) {
+                author = firstNonBlank(author, readText(xml));
+            } else if (DC_NS.equals(ns) && "date".equals(name)) {
+                pubDate = firstNonBlank(pubDate, readText(xml));
+            } else if (MEDIA_NS.equals(ns) && ("content".equals(name) || "thumbnail".equals(name))) {
+                if (mediaThumbnail == null) {
+                    mediaThumbnail = xml.getAttributeValue(null, "url");
+                }
+                // media:content bisa berisi media:thumbnail di dalamnya → turun ke anak, jangan skip
+                depth++;
+            } else {
+                skipElement(xml);
+            }
+        }
+
+        if ((link == null || link.isBlank()) && guidIsPermaLink) {
+            link = guid;
+        }
+        return new RssFeedParser.FeedEntry(title, link, guid, description, parseDate(pubDate),
+                author, firstNonBlank(enclosureThumbnail, mediaThumbnail));
+    }
+
+    /**
+     * Baca satu <entry> Atom 1.0.
+     * - link        → link rel="alternate" (atau tanpa rel)
+     * - uri         → id
+     * - description → summary, atau content jika tidak ada summary
+     * - published   → published, atau updated
+     */
+    private RssFeedParser.FeedEntry readAtomEntry(XMLStreamReader xml) throws XMLStreamException {
+        String title = null, link = null, id = null, summary = null, content = null;
+        String published = null, updated = null, author = null, thumbnail = null;
+
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            String ns = xml.getNamespaceURI();
+            String name = xml.getLocalName();
+            if (ATOM_NS.equals(ns)) {
+                switch (name) {
+                    case "title" -> title = readText(xml);
+                    case "id" -> id = readText(xml);
+                    case "summary" -> summary = readText(xml);
+                    case "content" -> content = readText(xml);
+                    case "published" -> published = readText(xml);
+                    case "updated" -> updated = readText(xml);
+                    case "author" -> depth++; // baca <name> di dalamnya
+                    case "name" -> author = firstNonBlank(author, readText(xml));
+                    case "link" -> {
+                        String rel = xml.getAttributeValue(null, "rel");
+                        String href = xml.getAttributeValue(null, "href");
+                        if (rel == null || "alternate".equals(rel)) {
+                            link = firstNonBlank(link, href);
+                        } else if ("enclosure".equals(rel) && isImage(xml.getAttributeValue(null, "type"))) {
+                            thumbnail = firstNonBlank(thumbnail, href);
+                        }
+                        skipElement(xml);
+                    }
+                    default -> skipElement(xml);
+                }
+            } else if (MEDIA_NS.equals(ns) && ("content".equals(name) || "thumbnail".equals(name))) {
+                thumbnail = firstNonBlank(thumbnail, xml.getAttributeValue(null, "url"));
+                depth++;
+            } else {
+                skipElement(xml);
+            }
+        }
+
+        return new RssFeedParser.FeedEntry(title, link, id, firstNonBlank(summary, content),
+                parseDate(firstNonBlank(published, updated)), author, thumbnail);
+    }
+
+    /**
+     * Gabungkan semua teks (termasuk CDATA) sampai elemen saat ini ditutup.
+     * Berbeda dengan getElementText(), tidak error jika ada elemen anak (misalnya Atom type="xhtml").
+     */
+    private static String readText(XMLStreamReader xml) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA,
+                     XMLStreamConstants.SPACE, XMLStreamConstants.ENTITY_REFERENCE -> text.append(xml.getText());
+                default -> { }
+            }
+        }
+        String value = text.toString().trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static void skipElement(XMLStreamReader xml) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) depth++;
+            else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+        }
+    }
+
+    private static boolean nextStartElement(XMLStreamReader xml) throws XMLStreamException {
+        while (xml.hasNext()) {
+            if (xml.next() == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Date parseDate(String value) {
+        // DateParser Rome mendukung RFC 822 (RSS) dan W3C datetime (Atom, dc:date)
+        return value != null ? DateParser.parseDate(value, Locale.US) : null;
+    }
+
+    private static boolean isImage(String type) {
+        return type != null && type.startsWith("image/");
+    }
+
+    private static String firstNonBlank(String value, String fallback) {
+        return value != null && !value.isBlank() ? value : fallback;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Feed berasal dari internet: matikan DTD dan external entity (XXE)
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
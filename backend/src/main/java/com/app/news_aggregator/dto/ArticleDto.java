@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DTO untuk entity Article.
@@ -153,4 +154,33 @@ public class ArticleDto {
                     .build();
         }
     }
+
+    /**
+     * Satu halaman list artikel mode cursor (keyset pagination), untuk infinite scroll.
+     * Tidak ada nomor halaman: client mengirim nextCursor untuk mengambil halaman berikutnya.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @Schema(description = "Halaman list artikel dengan cursor pagination")
+    public static class CursorPage {
+
+        @Schema(description = "Artikel di halaman ini, terbaru lebih dulu")
+        private List<Summary> content;
+
+        @Schema(description = "Jumlah artikel per halaman yang diminta", example = "20")
+        private int size;
+
+        @Schema(description = "Cursor untuk halaman berikutnya. Null jika sudah halaman terakhir", nullable = true,
+                example = "MjAyNC0wMS0xNVQwODozMHwxMjM0")
+        private String nextCursor;
+
+        @Schema(description = "True jika masih ada halaman berikutnya", example = "true")
+        private boolean hasMore;
+
+        @Schema(description = "Perkiraan jumlah total artikel (di-cache sebentar, bukan count per request)",
+                example = "15234")
+        private long approximateTotal;
+    }
 }
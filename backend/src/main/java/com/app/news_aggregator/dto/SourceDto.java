@@ -96,6 +96,12 @@ public class SourceDto {
         @Schema(description = "Status crawl terakhir", nullable = true, allowableValues = {"PENDING", "SUCCESS", "ERROR"}, example = "SUCCESS")
         private String crawlStatus;
 
+        @Schema(description = "Interval crawl adaptif saat ini (menit)", example = "15")
+        private Integer crawlIntervalMinutes;
+
+        @Schema(description = "Jadwal crawl berikutnya", nullable = true, example = "2024-01-15T07:15:00")
+        private LocalDateTime nextCrawlAt;
+
         @Schema(description = "Waktu sumber ditambahkan ke sistem", example = "2024-01-01T00:00:00")
         private LocalDateTime createdAt;
 
@@ -113,6 +119,8 @@ public class SourceDto {
                     .isActive(source.getIsActive())
                     .lastCrawledAt(source.getLastCrawledAt())
                     .crawlStatus(source.getCrawlStatus() != null ? source.getCrawlStatus().name() : null)
+                    .crawlIntervalMinutes(source.getCrawlIntervalMinutes())
+                    .nextCrawlAt(source.getNextCrawlAt())
                     .createdAt(source.getCreatedAt())
                     .build();
         }
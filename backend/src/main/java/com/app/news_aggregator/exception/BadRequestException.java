@@ -0,0 +1,11 @@
+package com.app.news_aggregator.exception;
+
+/**
+ * Exception untuk parameter request yang tidak valid (400 Bad Request).
+ * Contoh penggunaan: cursor pagination yang rusak atau bukan buatan server.
+ */
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -69,7 +69,49 @@ public class Article extends BaseEntity {
     @Builder.Default
     private Boolean isScraped = false;      // Apakah konten lengkap sudah di-scrape?
 
+    @Column(name = "scrape_status", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private ScrapeStatus scrapeStatus = ScrapeStatus.PENDING; // Status di engine scraping
+
+    @Column(name = "scrape_lease_until")
+    private LocalDateTime scrapeLeaseUntil; // Diklaim engine scraping sampai waktu ini
+
+    @Column(name = "scrape_attempts", nullable = false)
+    @Builder.Default
+    private Integer scrapeAttempts = 0;     // Jumlah klaim (> 1 = retry atau lease pernah kedaluwarsa)
+
+    @Column(name = "scrape_failure", length = 20)
+    @Enumerated(EnumType.STRING)
+    private ScrapeFailure scrapeFailure;    // Klasifikasi kegagalan scraping terakhir (null = belum pernah gagal)
+
+    @Column(name = "scrape_next_retry_at")
+    private LocalDateTime scrapeNextRetryAt; // Artikel PENDING tidak diklaim sebelum waktu ini (backoff)
+
+    @Column(name = "scrape_last_error", length = 500)
+    private String scrapeLastError;         // Pesan error scraping terakhir
+
+    @Column(name = "simhash")
+    private Long simhash;                   // Fingerprint judul + deskripsi (near-duplicate)
+
+    @Column(name = "duplicate_of_id")
+    private Long duplicateOfId;             // Artikel kanonik jika ini near-duplicate (null = kanonik)
+
     @Column(name = "view_count", nullable = false)
     @Builder.Default
     private Long viewCount = 0L;            // Jumlah view artikel
-}
\ No newline at end of file
+
+    public enum ScrapeStatus {
+        PENDING,        // Belum di-scrape, atau menunggu retry (scrapeNextRetryAt)
+        IN_PROGRESS,    // Diklaim worker sampai scrapeLeaseUntil
+        DONE,           // Konten berhasil di-fetch
+        FAILED,         // Fetch / ekstraksi gagal
+        SKIPPED         // Near-duplicate, tidak di-scrape
+    }
+
+    public enum ScrapeFailure {
+        TRANSIENT,      // Timeout, koneksi putus, 5xx, 429 → dicoba lagi dengan backoff
+        PERMANENT,      // 404/410, bukan HTML, URL tidak valid → tidak dicoba lagi
+        BLOCKED         // 401/403/451: situs menolak crawler → tidak dicoba lagi
+    }
+}
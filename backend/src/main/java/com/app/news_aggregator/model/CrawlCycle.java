@@ -0,0 +1,67 @@
+package com.app.news_aggregator.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity CrawlCycle merepresentasikan satu kali fan-out crawl ke banyak sumber.
+ * Setiap pesan crawl membawa cycleId, dan setiap worker yang selesai menambah
+ * sourcesCompleted. Cycle selesai saat sourcesCompleted == sourcesTotal.
+ */
+@Entity
+@Table(name = "crawl_cycles")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CrawlCycle {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trigger_type", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Trigger triggerType;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private Status status = Status.RUNNING;
+
+    @Column(name = "sources_total", nullable = false)
+    private Integer sourcesTotal;
+
+    @Column(name = "sources_completed", nullable = false)
+    @Builder.Default
+    private Integer sourcesCompleted = 0;
+
+    @Column(name = "sources_failed", nullable = false)
+    @Builder.Default
+    private Integer sourcesFailed = 0;
+
+    @Column(name = "articles_saved", nullable = false)
+    @Builder.Default
+    private Integer articlesSaved = 0;
+
+    @Column(name = "started_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Trigger {
+        SCHEDULED,  // Tick scheduler untuk sumber yang jatuh tempo
+        MANUAL      // POST /api/v1/crawler/crawl-all
+    }
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        INCOMPLETE  // Melewati batas waktu sebelum semua sumber selesai (pesan hilang / worker mati)
+    }
+}
@@ -44,11 +44,16 @@ public class CrawlLog {
     @Column(name = "duration_ms")
     private Long durationMs;                // Durasi crawl dalam millisecond
 
+    @Column(name = "cycle_id")
+    private Long cycleId;                   // Crawl cycle asal (null untuk crawl manual satu sumber)
+
     @Column(name = "crawled_at", nullable = false)
     @Builder.Default
     private LocalDateTime crawledAt = LocalDateTime.now();
 
     public enum CrawlStatus {
-        SUCCESS, FAILED
+        SUCCESS,
+        FAILED,
+        UNCHANGED   // Feed tidak berubah sejak crawl terakhir (HTTP 304), parsing dilewati
     }
 }
\ No newline at end of file
@@ -47,6 +47,19 @@ public class Source extends BaseEntity {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
+    @Column(name = "feed_etag")
+    private String feedEtag;               // ETag terakhir dari feed (untuk If-None-Match)
+
+    @Column(name = "feed_last_modified", length = 100)
+    private String feedLastModified;       // Last-Modified terakhir dari feed (untuk If-Modified-Since)
+
+    @Column(name = "crawl_interval_minutes", nullable = false)
+    @Builder.Default
+    private Integer crawlIntervalMinutes = 15; // Interval crawl adaptif (lihat CrawlIntervalPolicy)
+
+    @Column(name = "next_crawl_at")
+    private LocalDateTime nextCrawlAt;     // Kapan sumber ini jatuh tempo di-crawl berikutnya
+
     @OneToMany(mappedBy = "source", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
     @Builder.Default
     private List<Article> articles = new ArrayList<>();
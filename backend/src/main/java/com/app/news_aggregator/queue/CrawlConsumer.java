@@ -1,12 +1,16 @@
 package com.app.news_aggregator.queue;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.config.RabbitMQConfig;
+import com.app.news_aggregator.service.CrawlCycleService;
 import com.app.news_aggregator.service.CrawlerService;
 import com.app.news_aggregator.exception.ResourceNotFoundException;
+import com.app.news_aggregator.model.CrawlLog;
 import com.app.news_aggregator.model.Source;
 import com.app.news_aggregator.repository.SourceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
@@ -25,11 +29,13 @@ import org.springframework.stereotype.Component;
  */
 @Slf4j
 @Component
+@ConditionalOnRole(ConditionalOnRole.CRAWL_WORKER)
 @RequiredArgsConstructor
 public class CrawlConsumer {
 
     private final CrawlerService crawlerService;
     private final SourceRepository sourceRepository;
+    private final CrawlCycleService crawlCycleService;
 
     /**
      * Listen ke crawl.rss.queue dan proses setiap pesan yang masuk.
@@ -44,8 +50,12 @@ public class CrawlConsumer {
      * 5. Jalankan crawl via CrawlerService
      * 6. Jika sukses → ACK otomatis (pesan dihapus dari queue)
      * 7. Jika exception → NACK (pesan dikembalikan / ke DLQ)
+     *
+     * Memakai crawlListenerContainerFactory: consumer berjalan di virtual thread,
+     * sehingga banyak feed bisa di-fetch bersamaan tanpa saling menunggu.
      */
-    @RabbitListener(queues = RabbitMQConfig.QUEUE_CRAWL_RSS)
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_CRAWL_RSS,
+                    containerFactory = "crawlListenerContainerFactory")
     public void consumeCrawlRss(CrawlMessage.CrawlRssMessage message) {
         log.info("[WORKER] Menerima task crawl: sumber '{}' (ID: {})",
                 message.getSourceName(), message.getSourceId());
@@ -58,7 +68,10 @@ public class CrawlConsumer {
             // Jalankan crawl secara SINKRON di dalam consumer
             // Consumer sudah berjalan di thread terpisah (thread pool RabbitMQ listener)
             // jadi tidak perlu @Async lagi
-            crawlerService.crawlSource(source);
+            CrawlLog result = crawlerService.crawlSource(source, message.getCycleId());
+
+            // Laporkan ke crawl cycle: cycle selesai saat semua sumbernya sudah melapor
+            crawlCycleService.recordSourceResult(message.getCycleId(), result);
 
             log.info("[WORKER] Task crawl selesai untuk sumber: '{}'", message.getSourceName());
 
@@ -67,13 +80,22 @@ public class CrawlConsumer {
             // Tidak perlu retry — log warning dan biarkan pesan di-ACK
             log.warn("[WORKER] Sumber ID {} tidak ditemukan, task diabaikan: {}",
                     message.getSourceId(), e.getMessage());
+            crawlCycleService.recordSourceResult(message.getCycleId(), null);
             // Tidak throw exception → Spring akan ACK pesan (tidak retry)
 
         } catch (Exception e) {
             // Error lain → throw agar Spring NACK dan pesan masuk DLQ
             log.error("[WORKER] Gagal proses task crawl untuk sumber '{}': {}",
                     message.getSourceName(), e.getMessage());
-            throw new RuntimeException("Gagal crawl sumber: " + message.getSourceName(), e);
+            // Tetap laporkan ke cycle sebagai gagal; tanpa ini cycle tidak pernah selesai
+            try {
+                crawlCycleService.recordSourceResult(message.getCycleId(), null);
+            } catch (Exception recordError) {
+                log.error("[WORKER] Gagal mencatat sumber '{}' sebagai gagal di cycle {}: {}",
+                        message.getSourceName(), message.getCycleId(), recordError.getMessage());
+            }
+            // Tanpa requeue: pesan langsung ke DLQ, sehingga sumber ini hanya dicatat sekali di cycle
+            throw new AmqpRejectAndDontRequeueException("Gagal crawl sumber: " + message.getSourceName(), e);
         }
     }
 }
\ No newline at end of file
@@ -36,6 +36,7 @@ public class CrawlMessage {
         private Long sourceId;
         private String sourceName;
         private String sourceUrl;
+        private Long cycleId;       // Crawl cycle asal pesan ini (untuk agregasi metrik cycle)
 
         @Builder.Default
         private LocalDateTime enqueuedAt = LocalDateTime.now();
@@ -37,13 +37,15 @@ public class CrawlProducer {
      * Method ini dipanggil oleh Scheduler untuk setiap sumber aktif.
      * Pesan yang dikirim berisi: sourceId, sourceName, sourceUrl.
      *
-     * @param source Sumber RSS yang akan di-crawl
+     * @param source  Sumber RSS yang akan di-crawl
+     * @param cycleId Crawl cycle asal (boleh null)
      */
-    public void enqueueCrawlSource(Source source) {
+    public void enqueueCrawlSource(Source source, Long cycleId) {
         CrawlMessage.CrawlRssMessage message = CrawlMessage.CrawlRssMessage.builder()
                 .sourceId(source.getId())
                 .sourceName(source.getName())
                 .sourceUrl(source.getUrl())
+                .cycleId(cycleId)
                 .build();
 
         try {
@@ -75,14 +77,15 @@ public class CrawlProducer {
      * karena kita bisa log summary di akhir.
      *
      * @param sources List sumber yang akan di-enqueue
+     * @param cycleId Crawl cycle yang mencakup semua sumber ini
      */
-    public void enqueueCrawlSources(List<Source> sources) {
-        log.info("Mengirim {} task crawl ke queue...", sources.size());
+    public void enqueueCrawlSources(List<Source> sources, Long cycleId) {
+        log.info("Mengirim {} task crawl ke queue (cycle {})...", sources.size(), cycleId);
 
         int successCount = 0;
         for (Source source : sources) {
             try {
-                enqueueCrawlSource(source);
+                enqueueCrawlSource(source, cycleId);
                 successCount++;
             } catch (Exception e) {
                 log.warn("Gagal enqueue sumber {}: {}", source.getName(), e.getMessage());
@@ -122,6 +125,27 @@ public class CrawlProducer {
         }
     }
 
+    /**
+     * Jadwalkan ulang scraping artikel lewat delayed retry queue (scrape.article.retry.<N>s).
+     * Setelah delay habis, pesan kembali ke scrape.article.queue lewat dead-letter exchange.
+     *
+     * Jika publish gagal, artikel tetap dicoba ulang oleh poller ArticleScraperService
+     * setelah scrape_next_retry_at lewat.
+     */
+    public void enqueueScrapeRetry(Long articleId, int delaySeconds) {
+        CrawlMessage.ScrapeArticleMessage message = CrawlMessage.ScrapeArticleMessage.builder()
+                .articleId(articleId)
+                .build();
+
+        try {
+            // Default exchange: routing key = nama queue
+            rabbitTemplate.convertAndSend("", RabbitMQConfig.scrapeRetryQueue(delaySeconds), message);
+            log.debug("Retry scrape artikel ID {} dijadwalkan dalam {} detik", articleId, delaySeconds);
+        } catch (Exception e) {
+            log.warn("Gagal enqueue retry scrape artikel {}: {}", articleId, e.getMessage());
+        }
+    }
+
     /**
      * Kirim task scraping untuk banyak artikel sekaligus.
      * Dipanggil setelah batch insert artikel baru dari hasil crawl.
@@ -1,5 +1,6 @@
 package com.app.news_aggregator.queue;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.config.RabbitMQConfig;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
@@ -27,6 +28,7 @@ import java.nio.charset.StandardCharsets;
  */
 @Slf4j
 @Component
+@ConditionalOnRole({ConditionalOnRole.CRAWL_WORKER, ConditionalOnRole.SCRAPE_WORKER, ConditionalOnRole.DIGEST_WORKER})
 public class DeadLetterConsumer {
 
     @RabbitListener(queues = RabbitMQConfig.QUEUE_DEAD_LETTER)
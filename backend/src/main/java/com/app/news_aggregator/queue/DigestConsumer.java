@@ -1,5 +1,6 @@
 package com.app.news_aggregator.queue;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.config.RabbitMQConfig;
 import com.app.news_aggregator.service.DigestService;
 import com.app.news_aggregator.dto.DigestMessage;
@@ -23,12 +24,14 @@ import org.springframework.stereotype.Component;
  */
 @Slf4j
 @Component
+@ConditionalOnRole(ConditionalOnRole.DIGEST_WORKER)
 @RequiredArgsConstructor
 public class DigestConsumer {
 
     private final DigestService digestService;
 
-    @RabbitListener(queues = RabbitMQConfig.QUEUE_EMAIL_DIGEST)
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_EMAIL_DIGEST,
+                    containerFactory = "digestListenerContainerFactory")
     public void consumeDigest(DigestMessage message) {
         log.info("[WORKER] Memproses digest untuk user: {} (ID: {})",
                 message.getUserEmail(), message.getUserId());
@@ -0,0 +1,105 @@
+package com.app.news_aggregator.queue;
+
+import com.app.news_aggregator.config.ConditionalOnRole;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * ListenerAutoscaler mengatur maxConcurrentConsumers setiap listener container
+ * berdasarkan lag queue (pesan menunggu) dan utilisasi consumer (ListenerMetrics).
+ *
+ * SimpleMessageListenerContainer sendiri sudah menambah consumer saat consumer yang ada
+ * terus menerima pesan dan menghentikannya saat idle, di antara concurrency minimal dan
+ * maxConcurrentConsumers. Autoscaler hanya menggeser batas atas itu melewati max-concurrency
+ * dari konfigurasi, sampai batas keras per queue (max-concurrency-limit):
+ * - lag > lag-per-consumer x consumer aktif DAN utilisasi tinggi → batas naik 50%
+ *   (sampai batas keras)
+ * - queue kosong DAN utilisasi rendah → batas turun satu (kembali ke max-concurrency konfigurasi)
+ *
+ * Utilisasi tidak menghitung waktu menunggu slot HostRateLimiter atau slot in-flight pipeline
+ * scraping (ListenerMetrics.recordWait). Lag tinggi dengan consumer yang sebagian besar menunggu
+ * tidak menaikkan batas: consumer tambahan hanya ikut antre di rate limit yang sama.
+ */
+@Slf4j
+@Component
+@ConditionalOnRole({ConditionalOnRole.CRAWL_WORKER, ConditionalOnRole.SCRAPE_WORKER, ConditionalOnRole.DIGEST_WORKER})
+public class ListenerAutoscaler {
+
+    private final RabbitListenerEndpointRegistry registry;
+    private final AmqpAdmin amqpAdmin;
+    private final ListenerMetrics listenerMetrics;
+
+    private final boolean enabled;
+    private final double scaleUpUtilization;
+    private final double scaleDownUtilization;
+    private final int lagPerConsumer;
+
+    public ListenerAutoscaler(
+            RabbitListenerEndpointRegistry registry,
+            AmqpAdmin amqpAdmin,
+            ListenerMetrics listenerMetrics,
+            @Value("${app.rabbit.autoscale.enabled:true}") boolean enabled,
+            @Value("${app.rabbit.autoscale.scale-up-utilization:0.75}") double scaleUpUtilization,
+            @Value("${app.rabbit.autoscale.scale-down-utilization:0.25}") double scaleDownUtilization,
+            @Value("${app.rabbit.autoscale.lag-per-consumer:10}") int lagPerConsumer) {
+        this.registry = registry;
+        this.amqpAdmin = amqpAdmin;
+        this.listenerMetrics = listenerMetrics;
+        this.enabled = enabled;
+        this.scaleUpUtilization = scaleUpUtilization;
+        this.scaleDownUtilization = scaleDownUtilization;
+        this.lagPerConsumer = lagPerConsumer;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rabbit.autoscale.interval-ms:15000}", initialDelay = 30_000)
+    public void autoscale() {
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            if (!(container instanceof SimpleMessageListenerContainer simple) || !simple.isRunning()) {
+                continue;
+            }
+            for (String queue : simple.getQueueNames()) {
+                ListenerMetrics.QueueMetrics metrics = listenerMetrics.get(queue);
+                if (metrics == null) continue;
+                try {
+                    adjust(simple, queue, metrics);
+                } catch (Exception e) {
+                    log.warn("[AUTOSCALE] Gagal sampling queue {}: {}", queue, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void adjust(SimpleMessageListenerContainer container, String queue, ListenerMetrics.QueueMetrics metrics) {
+        int consumers = container.getActiveConsumerCount();
+        double utilization = metrics.sampleUtilization(consumers);
+        QueueInformation info = amqpAdmin.getQueueInfo(queue);
+        long lag = info != null ? info.getMessageCount() : 0;
+        metrics.lastLag = lag;
+
+        if (!enabled) return;
+
+        int ceiling = metrics.ceiling;
+        int target = ceiling;
+        if (lag > (long) lagPerConsumer * Math.max(consumers, 1) && utilization >= scaleUpUtilization) {
+            target = Math.min(metrics.limitConsumers, ceiling + Math.max(1, ceiling / 2));
+        } else if (lag == 0 && utilization <= scaleDownUtilization) {
+            // Di bawah max-concurrency konfigurasi, container sendiri yang menghentikan consumer idle
+            target = Math.max(metrics.maxConsumers, ceiling - 1);
+        }
+
+        if (target != ceiling) {
+            container.setMaxConcurrentConsumers(target);
+            metrics.ceiling = target;
+            log.info("[AUTOSCALE] {}: maxConcurrentConsumers {} → {} (lag {}, utilisasi {}%, menunggu {}%, consumer aktif {})",
+                    queue, ceiling, target, lag, Math.round(utilization * 100),
+                    Math.round(metrics.lastWaiting * 100), consumers);
+        }
+    }
+}
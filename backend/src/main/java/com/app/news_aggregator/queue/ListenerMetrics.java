@@ -0,0 +1,158 @@
+package com.app.news_aggregator.queue;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ListenerMetrics mencatat beban setiap listener RabbitMQ per queue:
+ * berapa lama consumer sibuk di dalam listener (utilisasi), jumlah pesan, dan batas consumer.
+ *
+ * Data diisi oleh interceptor yang dipasang RabbitMQConfig di setiap container factory,
+ * lalu dipakai ListenerAutoscaler (bersama lag queue) untuk menaikkan/menurunkan
+ * maxConcurrentConsumers, dan ditampilkan di GET /api/v1/crawler/listeners.
+ *
+ * Waktu yang dihabiskan listener untuk menunggu (slot HostRateLimiter, slot in-flight pipeline
+ * scraping) dilaporkan lewat recordWait dan tidak dihitung sebagai waktu sibuk:
+ * consumer yang tertahan rate limit tidak boleh terlihat seperti consumer yang kekurangan tenaga.
+ * Angka bersifat per instance: setiap worker mengukur dan men-scale container-nya sendiri.
+ */
+@Component
+public class ListenerMetrics {
+
+    // Akumulator waktu tunggu untuk pemanggilan listener yang sedang berjalan di thread ini
+    private static final ThreadLocal<long[]> CURRENT_WAIT = new ThreadLocal<>();
+
+    private final Map<String, QueueMetrics> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Catat waktu yang dihabiskan thread ini untuk menunggu (rate limit, backpressure).
+     * Di luar pemanggilan listener (misalnya thread pipeline scraping) tidak berpengaruh apa-apa.
+     */
+    public static void recordWait(long nanos) {
+        long[] wait = CURRENT_WAIT.get();
+        if (wait != null && nanos > 0) {
+            wait[0] += nanos;
+        }
+    }
+
+    /**
+     * Daftarkan listener untuk satu queue dengan batas consumer dari konfigurasi.
+     * Container sendiri menambah/mengurangi consumer di antara minConsumers dan maxConcurrentConsumers;
+     * autoscaler menggeser maxConcurrentConsumers di antara maxConsumers (nilai konfigurasi)
+     * dan limitConsumers.
+     *
+     * @return interceptor untuk advice chain container (mengukur waktu sibuk per pemanggilan listener)
+     */
+    public MethodInterceptor register(String queue, int minConsumers, int maxConsumers, int limitConsumers) {
+        int max = Math.max(minConsumers, maxConsumers);
+        QueueMetrics metrics = queues.computeIfAbsent(queue,
+                name -> new QueueMetrics(minConsumers, max, Math.max(max, limitConsumers)));
+        return invocation -> {
+            metrics.active.incrementAndGet();
+            long[] wait = new long[1];
+            CURRENT_WAIT.set(wait);
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                CURRENT_WAIT.remove();
+                metrics.waitNanos.addAndGet(wait[0]);
+                metrics.busyNanos.addAndGet(Math.max(0, elapsed - wait[0]));
+                metrics.active.decrementAndGet();
+                // Argumen kedua ContainerDelegate.invokeListener: satu Message atau List (batch listener)
+                Object data = invocation.getArguments().length > 1 ? invocation.getArguments()[1] : null;
+                metrics.messages.addAndGet(data instanceof List<?> batch ? batch.size() : 1);
+            }
+        };
+    }
+
+    public QueueMetrics get(String queue) {
+        return queues.get(queue);
+    }
+
+    public Map<String, QueueMetrics> all() {
+        return queues;
+    }
+
+    /**
+     * Snapshot untuk monitoring.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        queues.forEach((queue, metrics) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("minConsumers", metrics.minConsumers);
+            entry.put("maxConsumersConfigured", metrics.maxConsumers);
+            entry.put("maxConsumersLimit", metrics.limitConsumers);
+            entry.put("maxConsumersCurrent", metrics.ceiling);
+            entry.put("activeConsumers", metrics.lastConsumers);
+            entry.put("busyInListener", metrics.active.get());
+            entry.put("messages", metrics.messages.get());
+            entry.put("utilization", metrics.lastUtilization);
+            entry.put("waiting", metrics.lastWaiting);
+            entry.put("lag", metrics.lastLag);
+            stats.put(queue, entry);
+        });
+        return stats;
+    }
+
+    /**
+     * Metrik satu queue. Field last* dan ceiling diisi oleh ListenerAutoscaler setiap sampling.
+     */
+    public static final class QueueMetrics {
+        final int minConsumers;
+        final int maxConsumers;
+        final int limitConsumers;
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicLong busyNanos = new AtomicLong();
+        final AtomicLong waitNanos = new AtomicLong();
+        final AtomicLong messages = new AtomicLong();
+
+        // Batas maxConcurrentConsumers yang sedang dipakai container (mulai dari nilai konfigurasi)
+        volatile int ceiling;
+        volatile int lastConsumers;
+        volatile double lastUtilization;
+        volatile double lastWaiting;
+        volatile long lastLag = -1;
+
+        // Posisi sampling sebelumnya
+        private long sampledBusyNanos;
+        private long sampledWaitNanos;
+        private long sampledAtNanos = System.nanoTime();
+
+        QueueMetrics(int minConsumers, int maxConsumers, int limitConsumers) {
+            this.minConsumers = minConsumers;
+            this.maxConsumers = maxConsumers;
+            this.limitConsumers = limitConsumers;
+            this.ceiling = maxConsumers;
+        }
+
+        /**
+         * Utilisasi sejak sampling sebelumnya: waktu sibuk di listener (tanpa waktu tunggu)
+         * dibagi (waktu berlalu x jumlah consumer). 1.0 = semua consumer bekerja terus.
+         * Porsi waktu tunggu dengan rumus yang sama disimpan di lastWaiting.
+         */
+        synchronized double sampleUtilization(int consumers) {
+            long now = System.nanoTime();
+            long busy = busyNanos.get();
+            long waited = waitNanos.get();
+            double capacity = (double) (now - sampledAtNanos) * consumers;
+            double utilization = capacity > 0 ? Math.min(1.0, (busy - sampledBusyNanos) / capacity) : 0.0;
+            lastWaiting = capacity > 0 ? Math.min(1.0, (waited - sampledWaitNanos) / capacity) : 0.0;
+            sampledBusyNanos = busy;
+            sampledWaitNanos = waited;
+            sampledAtNanos = now;
+            lastConsumers = consumers;
+            lastUtilization = utilization;
+            return utilization;
+        }
+    }
+}
@@ -1,96 +1,123 @@
 package com.app.news_aggregator.queue;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.config.RabbitMQConfig;
-import com.app.news_aggregator.crawler.ArticleScraper;
-import com.app.news_aggregator.exception.ResourceNotFoundException;
-import com.app.news_aggregator.model.Article;
-import com.app.news_aggregator.repository.ArticleRepository;
+import com.app.news_aggregator.service.ArticleScraperService;
+import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * ScrapeConsumer adalah Worker yang mengkonsumsi pesan dari scrape.article.queue.
  *
  * Setiap kali ada artikel baru masuk dari RSS crawl, CrawlProducer mengirim
- * pesan ke scrape.article.queue. ScrapeConsumer yang kemudian scrape
+ * pesan ke scrape.article.queue. ScrapeConsumer yang kemudian memicu scraping
  * konten lengkap artikel tersebut dari website aslinya.
  *
  * Dengan queue, scraping tidak memblokir proses crawl RSS:
  * - Crawl RSS berjalan cepat → simpan artikel (tanpa konten) → kirim ke queue
- * - ScrapeConsumer memproses satu per satu di background dengan rate yang aman
+ * - ScrapeConsumer menyerahkan artikel ke pipeline scraping begitu pesan diterima,
+ *   tanpa menunggu tick poller berikutnya
+ *
+ * Sebelumnya consumer punya jalur scraping sendiri (load → scrape → save) di samping
+ * pipeline poller, sehingga artikel yang sama bisa di-fetch dua kali dan tidak ada
+ * satu tempat yang tahu status artikel. Sekarang consumer hanya pemicu:
+ * artikel diklaim lewat ArticleScraperService.submitByIds (status + lease yang sama
+ * dengan poller), lalu diproses oleh pipeline yang sama.
  */
 @Slf4j
 @Component
+@ConditionalOnRole(ConditionalOnRole.SCRAPE_WORKER)
 @RequiredArgsConstructor
 public class ScrapeConsumer {
 
-    private final ArticleScraper articleScraper;
-    private final ArticleRepository articleRepository;
+    private final ArticleScraperService articleScraperService;
 
     /**
-     * Listen ke scrape.article.queue.
+     * Listen ke scrape.article.queue, menerima sampai app.scraper.consumer.batch-size pesan sekaligus.
      *
-     * Setiap pesan berisi articleId yang perlu di-scrape.
-     * Consumer mengambil artikel dari DB, scrape kontennya, lalu update DB.
+     * Pesan di-ack setelah artikel diklaim (bukan setelah scraping selesai): sejak itu artikel
+     * dijaga oleh lease di DB. Jika instance mati sebelum hasil ditulis, artikel diklaim ulang
+     * oleh poller setelah lease habis. Artikel yang sudah selesai, near-duplicate, atau sedang
+     * diproses worker lain tidak diklaim dan pesannya cukup di-ack.
+     *
+     * Gagal klaim (DB tidak tersedia) → semua pesan dikembalikan ke queue.
+     * Batch lebih besar dari max-in-flight pipeline: ID di luar batas itu tidak ditawarkan untuk
+     * diklaim, pesannya dikembalikan ke queue (bukan di-ack) agar tidak hilang sampai tick poller.
      */
-    @Transactional
-    @RabbitListener(queues = RabbitMQConfig.QUEUE_SCRAPE_ARTICLE)
-    public void consumeScrapeArticle(CrawlMessage.ScrapeArticleMessage message) {
-        log.debug("[WORKER] Menerima task scrape untuk artikel ID: {}, URL: {}",
-                message.getArticleId(), message.getArticleUrl());
-
-        try {
-            // Ambil artikel dari database
-            Article article = articleRepository.findById(message.getArticleId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Article", message.getArticleId()));
-
-            // Skip jika sudah di-scrape (bisa terjadi jika pesan duplikat di queue)
-            if (article.getIsScraped()) {
-                log.debug("[WORKER] Artikel ID {} sudah di-scrape sebelumnya, skip",
-                        message.getArticleId());
-                return;
-            }
-
-            // Scrape konten dari URL artikel
-            ArticleScraper.ScrapeResult result = articleScraper.scrape(article.getUrl());
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_SCRAPE_ARTICLE,
+                    containerFactory = "scrapeListenerContainerFactory")
+    public void consumeScrapeArticles(List<Message<CrawlMessage.ScrapeArticleMessage>> messages,
+                                      Channel channel) {
+        log.debug("[WORKER] Menerima {} task scrape", messages.size());
 
-            // Update artikel dengan hasil scraping
-            if (result.success() && result.content() != null) {
-                article.setContent(result.content());
+        int limit = articleScraperService.maxIdsPerSubmit();
+        Set<Long> ids = new LinkedHashSet<>();
+        List<Message<CrawlMessage.ScrapeArticleMessage>> offered = new ArrayList<>(messages.size());
+        List<Message<CrawlMessage.ScrapeArticleMessage>> deferred = new ArrayList<>();
+        for (Message<CrawlMessage.ScrapeArticleMessage> message : messages) {
+            Long id = message.getPayload().getArticleId();
+            if (ids.contains(id) || ids.size() < limit) {
+                ids.add(id);
+                offered.add(message);
+            } else {
+                deferred.add(message);
             }
+        }
+        if (!deferred.isEmpty()) {
+            log.warn("[WORKER] Batch scrape melebihi max-in-flight ({}), {} pesan dikembalikan ke queue",
+                    limit, deferred.size());
+            deferred.forEach(message -> reject(channel, message, true));
+        }
 
-            // Update thumbnail jika belum ada dari RSS feed
-            if (article.getThumbnailUrl() == null && result.thumbnailUrl() != null) {
-                article.setThumbnailUrl(result.thumbnailUrl());
-            }
-
-            // Tandai sudah di-scrape (berhasil maupun tidak)
-            article.setIsScraped(true);
-            articleRepository.save(article);
-
-            // Delay kecil agar tidak terlalu agresif hit website sumber
-            // Rate limiting sederhana: 500ms per request scraping
-            Thread.sleep(500);
-
-            log.debug("[WORKER] Scrape selesai untuk artikel ID: {}", message.getArticleId());
-
-        } catch (ResourceNotFoundException e) {
-            // Artikel tidak ditemukan (mungkin sudah dihapus) — tidak perlu retry
-            log.warn("[WORKER] Artikel ID {} tidak ditemukan, task diabaikan",
-                    message.getArticleId());
-
+        int claimed;
+        try {
+            claimed = articleScraperService.submitByIds(ids);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            log.warn("[WORKER] Scraping diinterupsi untuk artikel ID: {}", message.getArticleId());
-
+            offered.forEach(message -> reject(channel, message, true));
+            return;
         } catch (Exception e) {
-            log.error("[WORKER] Gagal scrape artikel ID {}: {}",
-                    message.getArticleId(), e.getMessage());
-            // Throw agar pesan masuk DLQ setelah retry habis
-            throw new RuntimeException("Gagal scrape artikel: " + message.getArticleUrl(), e);
+            log.error("[WORKER] Gagal klaim {} artikel untuk scrape: {}", ids.size(), e.getMessage());
+            offered.forEach(message -> reject(channel, message, true));
+            return;
+        }
+        offered.forEach(message -> ack(channel, message));
+
+        log.debug("[WORKER] {} dari {} artikel diserahkan ke pipeline scraping", claimed, ids.size());
+    }
+
+    private void ack(Channel channel, Message<?> message) {
+        try {
+            channel.basicAck(deliveryTag(message), false);
+        } catch (IOException e) {
+            log.error("[WORKER] Gagal ack pesan scrape: {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Tolak pesan. Dengan requeue → pesan kembali ke queue untuk dicoba lagi.
+     */
+    private void reject(Channel channel, Message<?> message, boolean requeue) {
+        try {
+            channel.basicNack(deliveryTag(message), false, requeue);
+        } catch (IOException e) {
+            log.error("[WORKER] Gagal nack pesan scrape: {}", e.getMessage());
+        }
+    }
+
+    private static long deliveryTag(Message<?> message) {
+        Long tag = message.getHeaders().get(AmqpHeaders.DELIVERY_TAG, Long.class);
+        return tag != null ? tag : 0L;
+    }
+}
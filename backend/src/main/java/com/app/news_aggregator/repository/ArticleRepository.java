@@ -11,59 +11,77 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 // import java.util.Optional;
 
 /**
  * Repository untuk entity Article.
  * Menggunakan Page<Article> untuk mendukung pagination di API.
+ * Bulk insert hasil crawl ada di ArticleRepositoryCustom (JDBC).
  */
 @Repository
-public interface ArticleRepository extends JpaRepository<Article, Long> {
+public interface ArticleRepository extends JpaRepository<Article, Long>, ArticleRepositoryCustom {
 
     /**
-     * Cek apakah artikel dengan URL tersebut sudah ada.
-     * Dipakai saat crawl untuk mencegah duplikasi artikel.
+     * Cek duplikat untuk satu feed sekaligus: ambil url dan guid artikel yang sudah ada
+     * dari daftar URL/GUID yang diberikan, dalam SATU query.
+     * Satu round trip per feed, bukan dua query exists per entry.
+     *
+     * Kedua list tidak boleh kosong (IN () tidak valid di SQL).
      */
-    boolean existsByUrl(String url);
+    @Query("""
+           SELECT a.id AS id, a.url AS url, a.guid AS guid FROM Article a
+           WHERE a.url IN :urls OR a.guid IN :guids
+           """)
+    List<ExistingKey> findExistingKeys(@Param("urls") Collection<String> urls,
+                                       @Param("guids") Collection<String> guids);
+
+    /**
+     * Ambil url/guid artikel per batch dengan keyset (id > afterId), untuk warm-up SeenUrlFilter.
+     */
+    @Query("""
+           SELECT a.id AS id, a.url AS url, a.guid AS guid FROM Article a
+           WHERE a.id > :afterId
+           ORDER BY a.id
+           """)
+    List<ExistingKey> findKeysAfterId(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Projection ringan untuk cek duplikat: hanya id, url dan guid, tanpa load entity penuh.
+     */
+    interface ExistingKey {
+        Long getId();
+        String getUrl();
+        String getGuid();
+    }
 
     /**
-     * Cek apakah artikel dengan GUID tersebut sudah ada.
-     * GUID adalah identifier unik dari RSS feed.
+     * Ambil semua artikel kanonik (near-duplicate disembunyikan), dengan sorting dari Pageable.
      */
-    boolean existsByGuid(String guid);
+    Page<Article> findByDuplicateOfIdIsNull(Pageable pageable);
 
     /**
      * Ambil semua artikel berdasarkan kategori, diurutkan dari terbaru.
      * Menggunakan Pageable untuk pagination (halaman, ukuran halaman, sorting).
+     * Near-duplicate (berita sama dari sumber lain) disembunyikan.
      */
-    Page<Article> findByCategoryOrderByPublishedAtDesc(String category, Pageable pageable);
+    Page<Article> findByCategoryAndDuplicateOfIdIsNullOrderByPublishedAtDesc(String category, Pageable pageable);
 
     /**
      * Ambil semua artikel dari sumber tertentu, diurutkan dari terbaru.
      */
     Page<Article> findBySourceIdOrderByPublishedAtDesc(Long sourceId, Pageable pageable);
 
-    /**
-     * Cari artikel berdasarkan keyword di judul atau deskripsi.
-     * LOWER() untuk case-insensitive search.
-     * LIKE '%keyword%' untuk partial match.
-     */
-    @Query("""
-           SELECT a FROM Article a
-           WHERE LOWER(a.title) LIKE LOWER(CONCAT('%', :keyword, '%'))
-              OR LOWER(a.description) LIKE LOWER(CONCAT('%', :keyword, '%'))
-           ORDER BY a.publishedAt DESC
-           """)
-    Page<Article> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
-
     /**
      * Ambil artikel terpopuler berdasarkan view count.
-     * Dipakai untuk generate email digest.
+     * Dipakai untuk generate email digest (near-duplicate tidak ikut dikirim).
      */
     @Query("""
            SELECT a FROM Article a
            WHERE a.category IN :categories
              AND a.publishedAt >= :since
+             AND a.duplicateOfId IS NULL
            ORDER BY a.viewCount DESC, a.publishedAt DESC
            """)
     Page<Article> findPopularByCategories(
@@ -80,11 +98,4 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
     @Modifying
     @Query("UPDATE Article a SET a.viewCount = a.viewCount + 1 WHERE a.id = :id")
     void incrementViewCount(@Param("id") Long id);
-
-    /**
-     * Ambil semua artikel yang belum di-scrape konten lengkapnya.
-     * Dipakai oleh background job scraper (Phase 2).
-     */
-    @Query("SELECT a FROM Article a WHERE a.isScraped = false ORDER BY a.createdAt DESC")
-    java.util.List<Article> findUnscrapedArticles(Pageable pageable);
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package com.app.news_aggregator.repository;
+
+import com.app.news_aggregator.dto.ArticleDto;
+import com.app.news_aggregator.model.Article;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operasi artikel yang tidak bisa dilakukan efisien lewat JPA (bulk insert, klaim scraping, keyset list, full-text search).
+ * Diimplementasikan di ArticleRepositoryCustomImpl (JDBC), digabung ke ArticleRepository oleh Spring Data.
+ */
+public interface ArticleRepositoryCustom {
+
+    /**
+     * Insert banyak artikel sekaligus dengan multi-row INSERT ... ON CONFLICT DO NOTHING RETURNING id.
+     * Artikel yang URL-nya, atau GUID-nya di sumber yang sama, sudah ada dilewati tanpa error.
+     *
+     * @return artikel yang benar-benar ter-insert, dengan ID terisi (urutan sama dengan input)
+     */
+    List<Article> insertIgnoringDuplicates(List<Article> articles);
+
+    /**
+     * Kandidat near-duplicate: artikel sejak waktu tertentu yang memiliki minimal satu key band
+     * SimHash yang sama (lookup lewat index GIN simhash_bands). Hamming distance dicek pemanggil.
+     * Key dibuat dengan SimHash.bandKeys untuk setiap hari dalam rentang pencarian.
+     */
+    List<SimHashCandidate> findNearDuplicateCandidates(Collection<Integer> bands, LocalDateTime since);
+
+    /**
+     * Klaim artikel PENDING (atau IN_PROGRESS yang lease-nya habis) untuk pipeline scraping,
+     * ubah menjadi IN_PROGRESS dan naikkan scrape_attempts.
+     * SELECT ... FOR UPDATE SKIP LOCKED di dalam satu UPDATE: beberapa worker/instance
+     * bisa mengklaim bersamaan tanpa saling menunggu dan tanpa mendapat artikel yang sama.
+     * Artikel diberi lease; jika tidak ditulis sebelum lease habis, bisa diklaim ulang.
+     * Near-duplicate berstatus SKIPPED sejak insert, jadi tidak pernah diklaim.
+     */
+    List<ScrapeClaim> claimForScraping(int limit, int leaseSeconds);
+
+    /**
+     * Sama seperti claimForScraping, tapi hanya untuk ID tertentu (pesan dari RabbitMQ).
+     * ID yang sudah selesai, sedang dipegang worker lain, atau tidak ada dilewati.
+     */
+    List<ScrapeClaim> claimByIds(Collection<Long> ids, int leaseSeconds);
+
+    /**
+     * Tulis hasil scraping banyak artikel dalam satu transaksi (JDBC batch), lalu lepas lease:
+     * DONE/FAILED → is_scraped = true; PENDING (retry) → next_retry_at = sekarang + delay.
+     * Artikel yang sudah tidak IN_PROGRESS (lease diambil alih lalu selesai) tidak ditimpa.
+     */
+    void saveScrapeResults(List<ScrapeUpdate> updates);
+
+    /**
+     * Jumlah artikel per status scraping, plus artikel IN_PROGRESS yang lease-nya sudah habis
+     * (worker mati/restart sebelum menulis hasil) dan artikel PENDING yang sedang menunggu backoff.
+     */
+    ScrapeStateCounts countByScrapeStatus();
+
+    /**
+     * Satu halaman list artikel dengan keyset pagination: artikel yang urutannya setelah
+     * (beforePublishedAt, beforeId), urut published_at lalu id menurun, tanpa OFFSET dan tanpa count.
+     * Cursor null = halaman pertama. category (lowercase) dan sourceId opsional, category didahulukan.
+     */
+    List<ArticleDto.Summary> findSummariesBefore(String category, Long sourceId,
+                                                 LocalDateTime beforePublishedAt, Long beforeId, int limit);
+
+    /**
+     * Jumlah artikel dengan filter yang sama dengan findSummariesBefore.
+     */
+    long countListed(String category, Long sourceId);
+
+    /**
+     * Full-text search di judul, deskripsi, dan konten hasil scraping (kolom search_vector,
+     * konfigurasi indonesian_unaccent), diurutkan berdasarkan ts_rank. Near-duplicate disembunyikan.
+     *
+     * @param query input user apa adanya, diparse dengan websearch_to_tsquery
+     */
+    List<ArticleDto.Summary> searchSummaries(String query, int offset, int limit);
+
+    /**
+     * Jumlah artikel yang cocok dengan searchSummaries.
+     */
+    long countSearch(String query);
+
+    /**
+     * Seperti searchSummaries, tapi hanya artikel yang terbit sebelum before (atau tanpa published_at):
+     * bagian hasil yang berada di luar window index in-memory.
+     */
+    List<ArticleDto.Summary> searchSummariesPublishedBefore(String query, LocalDateTime before, int offset, int limit);
+
+    /**
+     * Jumlah artikel yang cocok dengan searchSummariesPublishedBefore.
+     */
+    long countSearchPublishedBefore(String query, LocalDateTime before);
+
+    /**
+     * Artikel kanonik yang berubah setelah (updatedAfter, afterId), urut updated_at lalu id,
+     * untuk sinkronisasi index pencarian in-memory (ArticleSearchIndex). Insert dan hasil
+     * scraping sama-sama mengubah updated_at. Hanya artikel yang terbit sejak publishedSince.
+     */
+    List<SearchIndexRow> findChangedForSearchIndex(LocalDateTime updatedAfter, long afterId,
+                                                   LocalDateTime publishedSince, int limit);
+
+    /**
+     * Summary artikel kanonik untuk daftar ID, dengan urutan sama seperti daftar ID.
+     * ID yang tidak ada (artikel sudah dihapus) dilewati.
+     */
+    List<ArticleDto.Summary> findSummariesByIds(long[] ids);
+
+    /**
+     * Teks artikel yang di-index ArticleSearchIndex.
+     */
+    record SearchIndexRow(long id, String title, String description, String content,
+                          LocalDateTime publishedAt, LocalDateTime updatedAt) {}
+
+    /**
+     * Artikel kandidat near-duplicate. duplicateOfId null = artikel kanonik cluster.
+     */
+    record SimHashCandidate(Long id, long simhash, Long duplicateOfId) {}
+
+    /**
+     * Artikel yang berhasil diklaim. thumbnailUrl = thumbnail dari RSS (boleh null).
+     * attempt = klaim ke berapa (termasuk retry terjadwal).
+     * leaseExpired = artikel diambil alih dari IN_PROGRESS yang lease-nya habis (worker sebelumnya mati/macet).
+     */
+    record ScrapeClaim(Long id, String url, String thumbnailUrl, int attempt, boolean leaseExpired) {}
+
+    /**
+     * Hasil scraping satu artikel. content / thumbnailUrl null = tidak mengubah nilai lama.
+     * retryDelaySeconds hanya diisi untuk status PENDING (dijadwalkan ulang).
+     */
+    record ScrapeUpdate(Long id, String content, String thumbnailUrl, Article.ScrapeStatus status,
+                        Article.ScrapeFailure failure, String error, Integer retryDelaySeconds) {
+
+        public static ScrapeUpdate done(Long id, String content, String thumbnailUrl) {
+            return new ScrapeUpdate(id, content, thumbnailUrl, Article.ScrapeStatus.DONE, null, null, null);
+        }
+
+        public static ScrapeUpdate failed(Long id, Article.ScrapeFailure failure, String error) {
+            return new ScrapeUpdate(id, null, null, Article.ScrapeStatus.FAILED, failure, error, null);
+        }
+
+        public static ScrapeUpdate retry(Long id, String error, int delaySeconds) {
+            return new ScrapeUpdate(id, null, null, Article.ScrapeStatus.PENDING,
+                    Article.ScrapeFailure.TRANSIENT, error, delaySeconds);
+        }
+    }
+
+    /**
+     * Snapshot jumlah artikel per status scraping.
+     */
+    record ScrapeStateCounts(Map<Article.ScrapeStatus, Long> byStatus, long expiredLeases, long waitingRetry) {}
+}
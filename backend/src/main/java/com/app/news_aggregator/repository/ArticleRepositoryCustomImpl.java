@@ -0,0 +1,482 @@
+package com.app.news_aggregator.repository;
+
+import com.app.news_aggregator.dto.ArticleDto;
+import com.app.news_aggregator.model.Article;
+import com.app.news_aggregator.util.SimHash;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementasi JDBC untuk ArticleRepositoryCustom.
+ *
+ * Kenapa tidak articleRepository.saveAll()?
+ * Article memakai GenerationType.IDENTITY, sehingga Hibernate harus menjalankan INSERT
+ * satu per satu untuk mendapatkan ID (batching tidak mungkin). Feed dengan 100 artikel baru
+ * = 100 round trip. Di sini artikel dikirim sebagai satu statement multi-row per chunk,
+ * dan ID dikembalikan lewat RETURNING — tetap dibutuhkan untuk enqueue scraping.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ArticleRepositoryCustomImpl implements ArticleRepositoryCustom {
+
+    private static final String INSERT_PREFIX = """
+            INSERT INTO articles (source_id, title, url, guid, description, content, thumbnail_url,
+                                  author, category, published_at, is_scraped, view_count,
+                                  created_at, updated_at, simhash, simhash_bands, duplicate_of_id, scrape_status)
+            VALUES
+            """;
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::integer[], ?, ?)";
+    // Tanpa conflict target: bentrok di UNIQUE(url) maupun UNIQUE(source_id, guid) sama-sama dilewati
+    private static final String INSERT_SUFFIX = " ON CONFLICT DO NOTHING RETURNING id, url";
+    private static final int COLUMNS_PER_ROW = 18;
+
+    // Batas parameter PostgreSQL per statement adalah 32767 → 500 baris x 18 kolom aman
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    // Artikel yang boleh diklaim: PENDING yang tidak sedang menunggu backoff retry,
+    // atau IN_PROGRESS yang lease-nya sudah lewat (worker mati)
+    private static final String CLAIMABLE = """
+             ((scrape_status = 'PENDING'
+                    AND (scrape_next_retry_at IS NULL OR scrape_next_retry_at <= NOW()))
+                   OR (scrape_status = 'IN_PROGRESS' AND scrape_lease_until < NOW()))
+            """;
+
+    private static final String CLAIM_SET = """
+            SET scrape_status = 'IN_PROGRESS',
+                scrape_lease_until = NOW() + (? * INTERVAL '1 second'),
+                scrape_attempts = a.scrape_attempts + 1
+            """;
+
+    // Klaim lewat CTE agar status lama ikut dikembalikan: lease_expired = baris diambil alih
+    // dari IN_PROGRESS yang lease-nya habis (bukan retry PENDING yang sudah jatuh tempo)
+    private static final String CLAIM_UPDATE = """
+            UPDATE articles a
+            """ + CLAIM_SET + """
+            FROM claimable c
+            WHERE a.id = c.id
+            RETURNING a.id, a.url, a.thumbnail_url, a.scrape_attempts, c.lease_expired
+            """;
+
+    private static final String CLAIM_SQL = """
+            WITH claimable AS (
+                SELECT id, scrape_status = 'IN_PROGRESS' AS lease_expired FROM articles
+                WHERE""" + CLAIMABLE + """
+                ORDER BY created_at DESC
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            """ + CLAIM_UPDATE;
+
+    private static final String CLAIM_BY_IDS_SQL = """
+            WITH claimable AS (
+                SELECT id, scrape_status = 'IN_PROGRESS' AS lease_expired FROM articles
+                WHERE id = ANY(?::bigint[])
+                  AND""" + CLAIMABLE + """
+                FOR UPDATE SKIP LOCKED
+            )
+            """ + CLAIM_UPDATE;
+
+    // Thumbnail dari scraping hanya dipakai jika RSS tidak menyediakan thumbnail.
+    // Hanya ditulis selama artikel masih IN_PROGRESS: hasil worker yang lease-nya sudah
+    // diambil alih dan diselesaikan worker lain tidak menimpa hasil tersebut.
+    // Retry: status kembali PENDING dan next_retry_at dihitung dari jam DB (bukan jam worker).
+    private static final String SAVE_SCRAPE_SQL = """
+            UPDATE articles
+            SET content = COALESCE(?, content),
+                thumbnail_url = COALESCE(thumbnail_url, ?),
+                scrape_status = ?,
+                is_scraped = ?,
+                scrape_failure = ?,
+                scrape_last_error = ?,
+                scrape_next_retry_at = NOW() + (? * INTERVAL '1 second'),
+                scrape_lease_until = NULL,
+                updated_at = NOW()
+            WHERE id = ?
+              AND scrape_status = 'IN_PROGRESS'
+            """;
+
+    private static final String COUNT_BY_STATUS_SQL = """
+            SELECT scrape_status, COUNT(*) AS total,
+                   COUNT(*) FILTER (WHERE scrape_lease_until < NOW()) AS expired,
+                   COUNT(*) FILTER (WHERE scrape_next_retry_at > NOW()) AS waiting_retry
+            FROM articles
+            GROUP BY scrape_status
+            """;
+
+    private static final String NEAR_DUPLICATE_SQL = """
+            SELECT id, simhash, duplicate_of_id FROM articles
+            WHERE simhash_bands && ?::integer[]
+              AND created_at >= ?
+            """;
+
+    // Keyset pagination: kolom Summary saja (tanpa content), urut (published_at, id) menurun.
+    // Perbandingan row (published_at, id) < (?, ?) dipakai langsung sebagai batas scan index
+    // idx_articles_*_keyset, sehingga halaman ke-N sama murahnya dengan halaman pertama.
+    private static final String SUMMARY_SELECT = """
+            SELECT a.id, a.title, a.url, a.description, a.thumbnail_url, a.author, a.category,
+                   a.published_at, a.view_count, a.source_id, s.name AS source_name
+            FROM articles a
+            JOIN sources s ON s.id = a.source_id
+            """;
+
+    private static final String SUMMARY_ORDER = " ORDER BY a.published_at DESC, a.id DESC LIMIT ?";
+
+    // Full-text search lewat index GIN search_vector (V13). websearch_to_tsquery menerima input
+    // user apa adanya ("kata kunci", -kecuali, OR) tanpa error sintaks. Ranking ts_rank dengan
+    // bobot judul > deskripsi > konten; artikel dengan rank sama diurutkan dari terbaru.
+    private static final String SEARCH_SQL = SUMMARY_SELECT + """
+            WHERE a.search_vector @@ websearch_to_tsquery('indonesian_unaccent', ?)
+              AND a.duplicate_of_id IS NULL
+            ORDER BY ts_rank(a.search_vector, websearch_to_tsquery('indonesian_unaccent', ?)) DESC,
+                     a.published_at DESC, a.id DESC
+            LIMIT ? OFFSET ?
+            """;
+
+    private static final String SEARCH_COUNT_SQL = """
+            SELECT COUNT(*) FROM articles a
+            WHERE a.search_vector @@ websearch_to_tsquery('indonesian_unaccent', ?)
+              AND a.duplicate_of_id IS NULL
+            """;
+
+    // Sama dengan SEARCH_SQL / SEARCH_COUNT_SQL, hanya artikel di luar window index in-memory
+    // (terbit sebelum batas window, atau tanpa published_at yang tidak pernah di-index)
+    private static final String SEARCH_BEFORE_SQL = SUMMARY_SELECT + """
+            WHERE a.search_vector @@ websearch_to_tsquery('indonesian_unaccent', ?)
+              AND a.duplicate_of_id IS NULL
+              AND (a.published_at < ? OR a.published_at IS NULL)
+            ORDER BY ts_rank(a.search_vector, websearch_to_tsquery('indonesian_unaccent', ?)) DESC,
+                     a.published_at DESC NULLS LAST, a.id DESC
+            LIMIT ? OFFSET ?
+            """;
+
+    private static final String SEARCH_BEFORE_COUNT_SQL = """
+            SELECT COUNT(*) FROM articles a
+            WHERE a.search_vector @@ websearch_to_tsquery('indonesian_unaccent', ?)
+              AND a.duplicate_of_id IS NULL
+              AND (a.published_at < ? OR a.published_at IS NULL)
+            """;
+
+    // Sinkronisasi index pencarian in-memory: keyset (updated_at, id) lewat idx_articles_updated_at
+    private static final String SEARCH_INDEX_CHANGES_SQL = """
+            SELECT id, title, description, content, published_at, updated_at FROM articles
+            WHERE (updated_at, id) > (?, ?)
+              AND published_at >= ?
+              AND duplicate_of_id IS NULL
+            ORDER BY updated_at, id
+            LIMIT ?
+            """;
+
+    private static final String SUMMARIES_BY_IDS_SQL = SUMMARY_SELECT + """
+            WHERE a.id = ANY(?::bigint[])
+              AND a.duplicate_of_id IS NULL
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Article> insertIgnoringDuplicates(List<Article> articles) {
+        if (articles.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Article> inserted = new ArrayList<>(articles.size());
+        for (int from = 0; from < articles.size(); from += ROWS_PER_STATEMENT) {
+            List<Article> chunk = articles.subList(from, Math.min(from + ROWS_PER_STATEMENT, articles.size()));
+            inserted.addAll(insertChunk(chunk));
+        }
+        log.debug("Bulk insert artikel: {} dari {} ter-insert", inserted.size(), articles.size());
+        return inserted;
+    }
+
+    private List<Article> insertChunk(List<Article> chunk) {
+        String sql = INSERT_PREFIX
+                + String.join(",\n", Collections.nCopies(chunk.size(), ROW_PLACEHOLDER))
+                + INSERT_SUFFIX;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        Map<String, Long> idsByUrl = new HashMap<>();
+        jdbcTemplate.query(sql,
+                ps -> {
+                    int offset = 0;
+                    for (Article article : chunk) {
+                        bindRow(ps, offset, article, now);
+                        offset += COLUMNS_PER_ROW;
+                    }
+                },
+                rs -> {
+                    idsByUrl.put(rs.getString("url"), rs.getLong("id"));
+                });
+
+        // Baris yang tidak dikembalikan RETURNING = bentrok di UNIQUE(url) / UNIQUE(source_id, guid), dilewati
+        List<Article> inserted = new ArrayList<>(idsByUrl.size());
+        for (Article article : chunk) {
+            Long id = idsByUrl.remove(article.getUrl());
+            if (id != null) {
+                article.setId(id);
+                article.setCreatedAt(now.toLocalDateTime());
+                article.setUpdatedAt(now.toLocalDateTime());
+                inserted.add(article);
+            }
+        }
+        return inserted;
+    }
+
+    private static void bindRow(PreparedStatement ps, int offset, Article article, Timestamp now) throws SQLException {
+        ps.setLong(offset + 1, article.getSource().getId());
+        ps.setString(offset + 2, article.getTitle());
+        ps.setString(offset + 3, article.getUrl());
+        ps.setString(offset + 4, article.getGuid());
+        ps.setString(offset + 5, article.getDescription());
+        ps.setString(offset + 6, article.getContent());
+        ps.setString(offset + 7, article.getThumbnailUrl());
+        ps.setString(offset + 8, article.getAuthor());
+        ps.setString(offset + 9, article.getCategory());
+        ps.setTimestamp(offset + 10, article.getPublishedAt() != null
+                ? Timestamp.valueOf(article.getPublishedAt()) : null);
+        // Near-duplicate tidak perlu di-scrape: langsung SKIPPED
+        if (article.getDuplicateOfId() != null) {
+            article.setScrapeStatus(Article.ScrapeStatus.SKIPPED);
+            article.setIsScraped(true);
+        }
+        ps.setBoolean(offset + 11, Boolean.TRUE.equals(article.getIsScraped()));
+        ps.setLong(offset + 12, article.getViewCount() != null ? article.getViewCount() : 0L);
+        ps.setTimestamp(offset + 13, now);
+        ps.setTimestamp(offset + 14, now);
+        if (article.getSimhash() != null) {
+            ps.setLong(offset + 15, article.getSimhash());
+            ps.setString(offset + 16, toArrayLiteral(
+                    SimHash.bandKeys(article.getSimhash(), now.toLocalDateTime().toLocalDate().toEpochDay())));
+        } else {
+            ps.setNull(offset + 15, Types.BIGINT);
+            ps.setNull(offset + 16, Types.VARCHAR);
+        }
+        if (article.getDuplicateOfId() != null) {
+            ps.setLong(offset + 17, article.getDuplicateOfId());
+        } else {
+            ps.setNull(offset + 17, Types.BIGINT);
+        }
+        ps.setString(offset + 18, article.getScrapeStatus() != null
+                ? article.getScrapeStatus().name() : Article.ScrapeStatus.PENDING.name());
+    }
+
+    @Override
+    public List<SimHashCandidate> findNearDuplicateCandidates(Collection<Integer> bands, LocalDateTime since) {
+        if (bands.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(NEAR_DUPLICATE_SQL,
+                (rs, rowNum) -> new SimHashCandidate(
+                        rs.getLong("id"),
+                        rs.getLong("simhash"),
+                        rs.getObject("duplicate_of_id", Long.class)),
+                toArrayLiteral(bands.stream().mapToInt(Integer::intValue).toArray()),
+                Timestamp.valueOf(since));
+    }
+
+    /**
+     * Literal array PostgreSQL ("{1,2,3}"), di-cast ke integer[] di SQL.
+     */
+    private static String toArrayLiteral(int[] values) {
+        return toArrayLiteral(Arrays.stream(values).asLongStream().toArray());
+    }
+
+    private static String toArrayLiteral(long[] values) {
+        StringBuilder literal = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) literal.append(',');
+            literal.append(values[i]);
+        }
+        return literal.append('}').toString();
+    }
+
+    @Override
+    public List<ScrapeClaim> claimForScraping(int limit, int leaseSeconds) {
+        return jdbcTemplate.query(CLAIM_SQL, ArticleRepositoryCustomImpl::mapClaim, limit, leaseSeconds);
+    }
+
+    @Override
+    public List<ScrapeClaim> claimByIds(Collection<Long> ids, int leaseSeconds) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(CLAIM_BY_IDS_SQL, ArticleRepositoryCustomImpl::mapClaim,
+                toArrayLiteral(ids.stream().mapToLong(Long::longValue).toArray()), leaseSeconds);
+    }
+
+    private static ScrapeClaim mapClaim(ResultSet rs, int rowNum) throws SQLException {
+        return new ScrapeClaim(rs.getLong("id"), rs.getString("url"),
+                rs.getString("thumbnail_url"), rs.getInt("scrape_attempts"), rs.getBoolean("lease_expired"));
+    }
+
+    @Override
+    @Transactional
+    public void saveScrapeResults(List<ScrapeUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SAVE_SCRAPE_SQL, updates, updates.size(), (ps, update) -> {
+            ps.setString(1, update.content());
+            ps.setString(2, update.thumbnailUrl());
+            ps.setString(3, update.status().name());
+            ps.setBoolean(4, update.status() != Article.ScrapeStatus.PENDING);
+            ps.setString(5, update.failure() != null ? update.failure().name() : null);
+            ps.setString(6, truncate(update.error(), 500));
+            ps.setObject(7, update.retryDelaySeconds(), Types.INTEGER);
+            ps.setLong(8, update.id());
+        });
+    }
+
+    @Override
+    public ScrapeStateCounts countByScrapeStatus() {
+        Map<Article.ScrapeStatus, Long> counts = new EnumMap<>(Article.ScrapeStatus.class);
+        for (Article.ScrapeStatus status : Article.ScrapeStatus.values()) {
+            counts.put(status, 0L);
+        }
+        long[] expiredLeases = new long[1];
+        long[] waitingRetry = new long[1];
+        jdbcTemplate.query(COUNT_BY_STATUS_SQL, rs -> {
+            Article.ScrapeStatus status = Article.ScrapeStatus.valueOf(rs.getString("scrape_status"));
+            counts.put(status, rs.getLong("total"));
+            if (status == Article.ScrapeStatus.IN_PROGRESS) {
+                expiredLeases[0] = rs.getLong("expired");
+            } else if (status == Article.ScrapeStatus.PENDING) {
+                waitingRetry[0] = rs.getLong("waiting_retry");
+            }
+        });
+        return new ScrapeStateCounts(counts, expiredLeases[0], waitingRetry[0]);
+    }
+
+    @Override
+    public List<ArticleDto.Summary> findSummariesBefore(String category, Long sourceId,
+                                                        LocalDateTime beforePublishedAt, Long beforeId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SUMMARY_SELECT).append(listFilter(category, sourceId, args));
+        if (beforePublishedAt != null && beforeId != null) {
+            sql.append(" AND (a.published_at, a.id) < (?, ?)");
+            args.add(Timestamp.valueOf(beforePublishedAt));
+            args.add(beforeId);
+        }
+        sql.append(SUMMARY_ORDER);
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ArticleRepositoryCustomImpl::mapSummary, args.toArray());
+    }
+
+    @Override
+    public long countListed(String category, Long sourceId) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM articles a" + listFilter(category, sourceId, args);
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args.toArray());
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public List<ArticleDto.Summary> searchSummaries(String query, int offset, int limit) {
+        return jdbcTemplate.query(SEARCH_SQL, ArticleRepositoryCustomImpl::mapSummary, query, query, limit, offset);
+    }
+
+    @Override
+    public long countSearch(String query) {
+        Long count = jdbcTemplate.queryForObject(SEARCH_COUNT_SQL, Long.class, query);
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public List<ArticleDto.Summary> searchSummariesPublishedBefore(String query, LocalDateTime before,
+                                                                   int offset, int limit) {
+        return jdbcTemplate.query(SEARCH_BEFORE_SQL, ArticleRepositoryCustomImpl::mapSummary,
+                query, Timestamp.valueOf(before), query, limit, offset);
+    }
+
+    @Override
+    public long countSearchPublishedBefore(String query, LocalDateTime before) {
+        Long count = jdbcTemplate.queryForObject(SEARCH_BEFORE_COUNT_SQL, Long.class, query, Timestamp.valueOf(before));
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public List<SearchIndexRow> findChangedForSearchIndex(LocalDateTime updatedAfter, long afterId,
+                                                          LocalDateTime publishedSince, int limit) {
+        return jdbcTemplate.query(SEARCH_INDEX_CHANGES_SQL,
+                (rs, rowNum) -> new SearchIndexRow(
+                        rs.getLong("id"),
+                        rs.getString("title"),
+                        rs.getString("description"),
+                        rs.getString("content"),
+                        rs.getTimestamp("published_at").toLocalDateTime(),
+                        rs.getTimestamp("updated_at").toLocalDateTime()),
+                Timestamp.valueOf(updatedAfter), afterId, Timestamp.valueOf(publishedSince), limit);
+    }
+
+    @Override
+    public List<ArticleDto.Summary> findSummariesByIds(long[] ids) {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+        Map<Long, ArticleDto.Summary> byId = new HashMap<>();
+        jdbcTemplate.query(SUMMARIES_BY_IDS_SQL, rs -> {
+            ArticleDto.Summary summary = mapSummary(rs, 0);
+            byId.put(summary.getId(), summary);
+        }, toArrayLiteral(ids));
+
+        List<ArticleDto.Summary> ordered = new ArrayList<>(byId.size());
+        for (long id : ids) {
+            ArticleDto.Summary summary = byId.get(id);
+            if (summary != null) ordered.add(summary);
+        }
+        return ordered;
+    }
+
+    /**
+     * Filter list artikel, sama dengan mode offset: per sumber menampilkan semua artikel
+     * sumber itu, list "all" dan per kategori menyembunyikan near-duplicate.
+     */
+    private static String listFilter(String category, Long sourceId, List<Object> args) {
+        if (category != null) {
+            args.add(category);
+            return " WHERE a.category = ? AND a.duplicate_of_id IS NULL";
+        }
+        if (sourceId != null) {
+            args.add(sourceId);
+            return " WHERE a.source_id = ?";
+        }
+        return " WHERE a.duplicate_of_id IS NULL";
+    }
+
+    private static ArticleDto.Summary mapSummary(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp publishedAt = rs.getTimestamp("published_at");
+        return ArticleDto.Summary.builder()
+                .id(rs.getLong("id"))
+                .title(rs.getString("title"))
+                .url(rs.getString("url"))
+                .description(rs.getString("description"))
+                .thumbnailUrl(rs.getString("thumbnail_url"))
+                .author(rs.getString("author"))
+                .category(rs.getString("category"))
+                .sourceName(rs.getString("source_name"))
+                .sourceId(rs.getLong("source_id"))
+                .publishedAt(publishedAt != null ? publishedAt.toLocalDateTime() : null)
+                .viewCount(rs.getLong("view_count"))
+                .build();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
@@ -0,0 +1,57 @@
+package com.app.news_aggregator.repository;
+
+import com.app.news_aggregator.model.CrawlCycle;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CrawlCycleRepository extends JpaRepository<CrawlCycle, Long> {
+
+    List<CrawlCycle> findAllByOrderByStartedAtDesc(Pageable pageable);
+
+    /**
+     * Catat satu sumber selesai. UPDATE atomik di DB (bukan read-modify-write di Java)
+     * karena banyak worker menyelesaikan sumber dari cycle yang sama secara bersamaan.
+     */
+    @Modifying
+    @Query("""
+           UPDATE CrawlCycle c
+           SET c.sourcesCompleted = c.sourcesCompleted + 1,
+               c.sourcesFailed = c.sourcesFailed + :failed,
+               c.articlesSaved = c.articlesSaved + :saved
+           WHERE c.id = :id
+           """)
+    int incrementCompleted(@Param("id") Long id, @Param("failed") int failed, @Param("saved") int saved);
+
+    /**
+     * Tandai cycle selesai jika semua sumber sudah tercatat.
+     * Kondisi status = RUNNING membuat hanya satu worker yang "menutup" cycle.
+     */
+    @Modifying
+    @Query("""
+           UPDATE CrawlCycle c
+           SET c.status = 'COMPLETED', c.finishedAt = :now
+           WHERE c.id = :id
+             AND c.status = 'RUNNING'
+             AND c.sourcesCompleted >= c.sourcesTotal
+           """)
+    int markCompletedIfDone(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Tutup cycle yang terlalu lama RUNNING (pesan hilang, worker mati di tengah crawl).
+     */
+    @Modifying
+    @Query("""
+           UPDATE CrawlCycle c
+           SET c.status = 'INCOMPLETE', c.finishedAt = :now
+           WHERE c.status = 'RUNNING' AND c.startedAt < :cutoff
+           """)
+    int markStaleIncomplete(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now);
+}
@@ -5,9 +5,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-// import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -23,6 +24,12 @@ public interface CrawlLogRepository extends JpaRepository<CrawlLog, Long> {
      */
     Page<CrawlLog> findBySourceIdOrderByCrawledAtDesc(Long sourceId, Pageable pageable);
 
+    /**
+     * Ambil 10 log crawl terakhir satu sumber.
+     * Dipakai CrawlIntervalPolicy untuk menghitung laju artikel baru per sumber.
+     */
+    List<CrawlLog> findTop10BySourceIdOrderByCrawledAtDesc(Long sourceId);
+
     /**
      * Statistik crawl: total artikel yang berhasil disimpan hari ini.
      */
@@ -32,4 +39,66 @@ public interface CrawlLogRepository extends JpaRepository<CrawlLog, Long> {
              AND c.status = 'SUCCESS'
            """)
     Long countArticlesSavedToday();
-}
\ No newline at end of file
+
+    /**
+     * Jumlah crawl hari ini yang dilewati karena feed tidak berubah (HTTP 304).
+     * Dibandingkan dengan total crawl untuk melihat penghematan bandwidth & CPU.
+     */
+    @Query("""
+           SELECT COUNT(c) FROM CrawlLog c
+           WHERE cast(c.crawledAt as LocalDate) = local date
+             AND c.status = 'UNCHANGED'
+           """)
+    long countUnchangedToday();
+
+    /**
+     * Total crawl yang dijalankan hari ini (semua status).
+     */
+    @Query("""
+           SELECT COUNT(c) FROM CrawlLog c
+           WHERE cast(c.crawledAt as LocalDate) = local date
+           """)
+    long countCrawlsToday();
+
+    /**
+     * Distribusi latency crawl per sumber dalam satu cycle (ms), dihitung di Postgres.
+     */
+    @Query(value = """
+           SELECT percentile_cont(0.50) WITHIN GROUP (ORDER BY duration_ms) AS p50,
+                  percentile_cont(0.95) WITHIN GROUP (ORDER BY duration_ms) AS p95,
+                  percentile_cont(0.99) WITHIN GROUP (ORDER BY duration_ms) AS p99,
+                  MAX(duration_ms) AS max
+           FROM crawl_logs
+           WHERE cycle_id = :cycleId
+           """, nativeQuery = true)
+    LatencyPercentiles findLatencyPercentilesByCycleId(@Param("cycleId") Long cycleId);
+
+    /**
+     * Sumber paling lambat dalam satu cycle ("straggler") — yang menentukan makespan.
+     */
+    @Query(value = """
+           SELECT s.id AS sourceId, s.name AS sourceName, c.status AS status,
+                  c.duration_ms AS durationMs, c.articles_saved AS articlesSaved
+           FROM crawl_logs c
+           JOIN sources s ON s.id = c.source_id
+           WHERE c.cycle_id = :cycleId
+           ORDER BY c.duration_ms DESC NULLS LAST
+           LIMIT :limit
+           """, nativeQuery = true)
+    List<Straggler> findSlowestByCycleId(@Param("cycleId") Long cycleId, @Param("limit") int limit);
+
+    interface LatencyPercentiles {
+        Double getP50();
+        Double getP95();
+        Double getP99();
+        Long getMax();
+    }
+
+    interface Straggler {
+        Long getSourceId();
+        String getSourceName();
+        String getStatus();
+        Long getDurationMs();
+        Integer getArticlesSaved();
+    }
+}
@@ -3,8 +3,10 @@ package com.app.news_aggregator.repository;
 import com.app.news_aggregator.model.Source;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 // import java.util.Optional;
 
@@ -26,6 +28,18 @@ public interface SourceRepository extends JpaRepository<Source, Long> {
      */
     List<Source> findByIsActiveTrue();
 
+    /**
+     * Ambil sumber aktif yang sudah jatuh tempo untuk di-crawl.
+     * nextCrawlAt NULL berarti sumber baru / belum pernah dijadwalkan → langsung di-crawl.
+     */
+    @Query("""
+           SELECT s FROM Source s
+           WHERE s.isActive = true
+             AND (s.nextCrawlAt IS NULL OR s.nextCrawlAt <= :now)
+           ORDER BY s.nextCrawlAt ASC NULLS FIRST
+           """)
+    List<Source> findDueForCrawl(@Param("now") LocalDateTime now);
+
     /**
      * Cek apakah URL sudah terdaftar (mencegah duplikat sumber).
      */
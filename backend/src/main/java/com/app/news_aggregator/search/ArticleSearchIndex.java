@@ -0,0 +1,346 @@
+package com.app.news_aggregator.search;
+
+import com.app.news_aggregator.config.ConditionalOnRole;
+import com.app.news_aggregator.repository.ArticleRepository;
+import com.app.news_aggregator.repository.ArticleRepositoryCustom.SearchIndexRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ArticleSearchIndex adalah mesin pencarian in-process untuk artikel terbaru:
+ * inverted index (InvertedIndex) atas judul, deskripsi, dan konten, dengan ranking BM25.
+ *
+ * Query dijawab dari memory tanpa round trip ke database (hanya Summary hasilnya yang
+ * di-load per ID), sehingga latency tidak bergantung pada ukuran tabel articles.
+ *
+ * Sinkronisasi: satu thread milik index mengikuti perubahan tabel articles lewat keyset
+ * (updated_at, id), bukan dipanggil langsung dari CrawlerService / pipeline scraping.
+ * Dengan runtime role, crawl dan scraping bisa berjalan di instance lain dari API, dan
+ * insert hasil crawl maupun hasil scraping sama-sama mengubah updated_at. Setiap sinkronisasi
+ * mundur sejauh overlap-seconds agar transaksi yang commit terlambat (updated_at-nya lebih tua
+ * dari watermark) tidak terlewat; artikel yang isinya tidak berubah tidak di-index ulang.
+ * Artikel yang dihapus dari database tidak terlihat oleh keyset ini; ArticleService membuangnya
+ * lewat prune() saat hit index ternyata tidak ada lagi di database.
+ *
+ * Snapshot: index + watermark ditulis ke disk berkala dan saat shutdown. Saat start, snapshot
+ * di-load lalu hanya perubahan sejak watermark yang dibaca dari database.
+ * Selama index belum siap (snapshot belum ada dan build awal belum selesai), search memakai Postgres.
+ *
+ * Hanya artikel yang terbit dalam window-days terakhir yang di-index; artikel lebih lama
+ * dikeluarkan dari index dan tetap bisa dicari lewat full-text search Postgres.
+ * Batas window yang sedang berlaku diekspos lewat windowStart(), agar ArticleService bisa
+ * menyambung hasil index dengan hasil Postgres untuk artikel sebelum batas itu.
+ */
+@Slf4j
+@Component
+@ConditionalOnRole(ConditionalOnRole.API)
+@ConditionalOnProperty(name = "app.search.index.enabled", havingValue = "true", matchIfMissing = true)
+public class ArticleSearchIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x4E415349;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    // Bobot term per field (term frequency dikalikan bobot), mirip bobot A/B/C di search_vector
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+
+    private final ArticleRepository articleRepository;
+    private final int windowDays;
+    private final long syncIntervalMs;
+    private final int batchSize;
+    private final int overlapSeconds;
+    private final int maxContentChars;
+    private final Path snapshotPath;
+    private final long snapshotIntervalMs;
+
+    private volatile InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+    // Artikel yang terbit sebelum batas ini sudah dikeluarkan dari index
+    private volatile LocalDateTime windowStart;
+    private Thread syncThread;
+
+    // Hanya diakses thread sinkronisasi (dan saat shutdown setelah thread berhenti)
+    private LocalDateTime watermark = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private long lastSnapshotAt;
+
+    // Statistik untuk monitoring
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong pruned = new AtomicLong();
+    private final AtomicLong routedToPostgres = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong queryNanos = new AtomicLong();
+    private volatile long lastSyncMs;
+    private volatile long lastSnapshotMs;
+
+    public ArticleSearchIndex(
+            ArticleRepository articleRepository,
+            @Value("${app.search.index.window-days:90}") int windowDays,
+            @Value("${app.search.index.sync-interval-ms:5000}") long syncIntervalMs,
+            @Value("${app.search.index.batch-size:500}") int batchSize,
+            @Value("${app.search.index.overlap-seconds:30}") int overlapSeconds,
+            @Value("${app.search.index.max-content-chars:20000}") int maxContentChars,
+            @Value("${app.search.index.snapshot-path:./data/search-index.bin}") String snapshotPath,
+            @Value("${app.search.index.snapshot-interval-minutes:10}") long snapshotIntervalMinutes) {
+        this.articleRepository = articleRepository;
+        this.windowDays = windowDays;
+        this.syncIntervalMs = syncIntervalMs;
+        this.batchSize = batchSize;
+        this.overlapSeconds = overlapSeconds;
+        this.maxContentChars = maxContentChars;
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.snapshotIntervalMs = TimeUnit.MINUTES.toMillis(snapshotIntervalMinutes);
+    }
+
+    @PostConstruct
+    void start() {
+        syncThread = Thread.ofPlatform().name("search-index-sync").daemon(true).start(this::syncLoop);
+    }
+
+    /**
+     * Cari artikel dengan BM25, semua term query harus ada.
+     *
+     * @return null jika index belum siap atau query memakai operator websearch (frasa, or, -term)
+     *         yang tidak didukung index (pemanggil memakai Postgres)
+     */
+    public InvertedIndex.Hits search(String query, int offset, int limit) {
+        if (!ready) return null;
+        if (TextAnalyzer.hasQueryOperators(query)) {
+            routedToPostgres.incrementAndGet();
+            return null;
+        }
+        long start = System.nanoTime();
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.analyze(query)));
+        InvertedIndex.Hits hits = terms.isEmpty()
+                ? new InvertedIndex.Hits(new long[0], 0)
+                : index.search(terms, offset, limit);
+        queries.incrementAndGet();
+        queryNanos.addAndGet(System.nanoTime() - start);
+        return hits;
+    }
+
+    /**
+     * Buang artikel yang ternyata sudah tidak ada di database (sinkronisasi hanya melihat
+     * perubahan updated_at, jadi artikel yang dihapus tidak pernah keluar dengan sendirinya).
+     *
+     * @return jumlah artikel yang benar-benar dibuang dari index
+     */
+    public int prune(Collection<Long> articleIds) {
+        int removed = 0;
+        for (Long articleId : articleIds) {
+            if (index.remove(articleId)) removed++;
+        }
+        pruned.addAndGet(removed);
+        return removed;
+    }
+
+    /**
+     * Batas bawah published_at artikel di index (dari sinkronisasi terakhir).
+     * Artikel yang terbit sebelumnya, atau tanpa published_at, hanya ada di Postgres.
+     */
+    public LocalDateTime windowStart() {
+        return windowStart;
+    }
+
+    public Map<String, Object> stats() {
+        long queryCount = queries.get();
+        Map<String, Object> stats = new LinkedHashMap<>(index.stats());
+        stats.put("ready", ready);
+        stats.put("windowDays", windowDays);
+        stats.put("windowStart", windowStart);
+        stats.put("watermark", watermark);
+        stats.put("indexed", indexed.get());
+        stats.put("unchanged", unchanged.get());
+        stats.put("expired", expired.get());
+        stats.put("compactions", compactions.get());
+        stats.put("pruned", pruned.get());
+        stats.put("routedToPostgres", routedToPostgres.get());
+        stats.put("queries", queryCount);
+        stats.put("avgQueryMicros", queryCount > 0 ? queryNanos.get() / queryCount / 1_000 : 0);
+        stats.put("lastSyncMs", lastSyncMs);
+        stats.put("lastSnapshotMs", lastSnapshotMs);
+        stats.put("snapshotPath", snapshotPath.toAbsolutePath().toString());
+        return stats;
+    }
+
+    private void syncLoop() {
+        loadSnapshot();
+        lastSnapshotAt = System.currentTimeMillis();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long start = System.currentTimeMillis();
+                int changed = sync();
+                lastSyncMs = System.currentTimeMillis() - start;
+                if (!ready) {
+                    ready = true;
+                    log.info("Index pencarian siap: {} dokumen ({}ms)", index.stats().get("documents"), lastSyncMs);
+                } else if (changed > 0) {
+                    log.debug("Index pencarian: {} artikel di-index ({}ms)", changed, lastSyncMs);
+                }
+
+                if (System.currentTimeMillis() - lastSnapshotAt >= snapshotIntervalMs) {
+                    writeSnapshot();
+                }
+                Thread.sleep(syncIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Sinkronisasi index pencarian gagal: {}", e.getMessage());
+                try {
+                    Thread.sleep(syncIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Index semua artikel yang berubah sejak watermark (dikurangi overlap), lalu buang artikel
+     * yang keluar dari window dan compact jika tombstone sudah banyak.
+     */
+    private int sync() {
+        LocalDateTime publishedSince = LocalDateTime.now().minusDays(windowDays);
+        LocalDateTime after = watermark.minusSeconds(overlapSeconds);
+        long afterId = 0;
+        int changed = 0;
+
+        while (true) {
+            List<SearchIndexRow> rows = articleRepository.findChangedForSearchIndex(
+                    after, afterId, publishedSince, batchSize);
+            for (SearchIndexRow row : rows) {
+                if (indexRow(row)) {
+                    changed++;
+                    indexed.incrementAndGet();
+                } else {
+                    unchanged.incrementAndGet();
+                }
+                after = row.updatedAt();
+                afterId = row.id();
+                if (row.updatedAt().isAfter(watermark)) watermark = row.updatedAt();
+            }
+            if (rows.size() < batchSize) break;
+        }
+
+        expired.addAndGet(index.removePublishedBefore(publishedSince.toEpochSecond(ZoneOffset.UTC)));
+        windowStart = publishedSince;
+        if (index.needsCompaction()) {
+            index.compact();
+            compactions.incrementAndGet();
+        }
+        return changed;
+    }
+
+    private boolean indexRow(SearchIndexRow row) {
+        String content = row.content();
+        if (content != null && content.length() > maxContentChars) {
+            content = content.substring(0, maxContentChars);
+        }
+        // Fingerprint dari teks yang benar-benar di-index: konten yang diperbaiki dengan panjang sama
+        // tetap terdeteksi berubah
+        int version = Objects.hash(row.title(), row.description(), content);
+
+        Map<String, Integer> termFreqs = new HashMap<>();
+        addTerms(termFreqs, row.title(), TITLE_WEIGHT);
+        addTerms(termFreqs, row.description(), DESCRIPTION_WEIGHT);
+        addTerms(termFreqs, content, CONTENT_WEIGHT);
+        return index.upsert(row.id(), version, row.publishedAt().toEpochSecond(ZoneOffset.UTC), termFreqs);
+    }
+
+    private static void addTerms(Map<String, Integer> termFreqs, String text, int weight) {
+        for (String term : TextAnalyzer.analyze(text)) {
+            termFreqs.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private void loadSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            log.info("Snapshot index pencarian belum ada, build dari database");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Format snapshot index pencarian tidak dikenal, build ulang dari database");
+                return;
+            }
+            LocalDateTime snapshotWatermark = LocalDateTime.parse(in.readUTF());
+            InvertedIndex loaded = InvertedIndex.readFrom(in);
+            // Snapshot bisa berisi artikel yang sudah keluar dari window sejak ditulis
+            LocalDateTime publishedSince = LocalDateTime.now().minusDays(windowDays);
+            loaded.removePublishedBefore(publishedSince.toEpochSecond(ZoneOffset.UTC));
+            index = loaded;
+            windowStart = publishedSince;
+            watermark = snapshotWatermark;
+            ready = true;
+            log.info("Snapshot index pencarian di-load: {} dokumen, watermark {} ({}ms)",
+                    index.stats().get("documents"), watermark, System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Snapshot index pencarian tidak bisa dibaca, build ulang dari database: {}", e.getMessage());
+            index = new InvertedIndex();
+        }
+    }
+
+    /**
+     * Tulis snapshot ke file sementara lalu rename, agar crash di tengah penulisan
+     * tidak meninggalkan snapshot yang rusak.
+     */
+    private void writeSnapshot() {
+        long start = System.currentTimeMillis();
+        lastSnapshotAt = start;
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeUTF(watermark.toString());
+                index.writeTo(out);
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastSnapshotMs = System.currentTimeMillis() - start;
+            log.debug("Snapshot index pencarian ditulis ({}ms)", lastSnapshotMs);
+        } catch (IOException e) {
+            log.warn("Gagal menulis snapshot index pencarian: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        syncThread.interrupt();
+        syncThread.join(TimeUnit.SECONDS.toMillis(10));
+        if (ready) {
+            writeSnapshot();
+        }
+    }
+}
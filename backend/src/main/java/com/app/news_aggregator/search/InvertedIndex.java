@@ -0,0 +1,377 @@
+package com.app.news_aggregator.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * InvertedIndex adalah index full-text in-memory: term → PostingsList, dengan ranking BM25.
+ *
+ * Dokumen diberi doc id internal (int) yang terus bertambah. Update dokumen (mis. konten
+ * hasil scraping masuk) = dokumen lama ditandai terhapus (tombstone) + dokumen baru dengan id
+ * baru, sehingga posting selalu ditambahkan di akhir list dan tidak pernah ditulis ulang.
+ * Tombstone dibersihkan oleh compact() yang memetakan ulang doc id dan membuang posting mati.
+ *
+ * Query berarti semua term harus ada (AND), sama dengan websearch_to_tsquery di Postgres untuk
+ * query tanpa operator. Frasa bertanda kutip, "or", dan "-term" tidak didukung di sini:
+ * ArticleSearchIndex menyerahkan query seperti itu ke Postgres (TextAnalyzer.hasQueryOperators).
+ * docFreq untuk IDF hanya menghitung posting dokumen hidup (dihitung saat posting di-decode):
+ * setelah banyak dokumen keluar dari window, posting mati bisa melebihi jumlah dokumen hidup
+ * dan membuat IDF negatif (urutan hasil terbalik) jika ikut dihitung.
+ *
+ * Thread-safe: query berjalan paralel di bawah read lock, perubahan di bawah write lock.
+ */
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingsList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByArticle = new HashMap<>();
+
+    // Per doc id internal
+    private long[] articleIds = new long[1024];
+    private long[] publishedAt = new long[1024];   // epoch second, untuk tie-break dan window
+    private int[] docLengths = new int[1024];
+    private int[] versions = new int[1024];
+    private BitSet deleted = new BitSet();
+
+    private int docCount;
+    private int liveDocs;
+    private long liveLength;
+
+    /**
+     * Hasil query: article id terurut relevansi untuk halaman yang diminta, dan total dokumen yang cocok.
+     */
+    public record Hits(long[] articleIds, int total) {}
+
+    private record Hit(int doc, float score) {}
+
+    /**
+     * Tambah atau ganti dokumen artikel.
+     *
+     * @param version     fingerprint isi dokumen; dokumen dengan versi sama tidak di-index ulang
+     * @param termFreqs   term → frekuensi (sudah diberi bobot per field oleh pemanggil)
+     * @return false jika artikel sudah ter-index dengan versi yang sama
+     */
+    public boolean upsert(long articleId, int version, long publishedEpochSecond, Map<String, Integer> termFreqs) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByArticle.get(articleId);
+            if (existing != null) {
+                if (versions[existing] == version) return false;
+                delete(existing);
+            }
+            if (termFreqs.isEmpty()) {
+                docByArticle.remove(articleId);
+                return true;
+            }
+
+            int doc = docCount++;
+            ensureDocCapacity(docCount);
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : termFreqs.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new PostingsList()).add(doc, entry.getValue());
+                length += entry.getValue();
+            }
+            articleIds[doc] = articleId;
+            publishedAt[doc] = publishedEpochSecond;
+            docLengths[doc] = length;
+            versions[doc] = version;
+            docByArticle.put(articleId, doc);
+            liveDocs++;
+            liveLength += length;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Hapus satu artikel dari index (misalnya artikel sudah dihapus dari database).
+     *
+     * @return false jika artikel tidak ada di index
+     */
+    public boolean remove(long articleId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docByArticle.remove(articleId);
+            if (doc == null) return false;
+            delete(doc);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tandai artikel yang terbit sebelum batas waktu sebagai terhapus (keluar dari window index).
+     *
+     * @return jumlah dokumen yang dihapus
+     */
+    public int removePublishedBefore(long epochSecond) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            for (int doc = deleted.nextClearBit(0); doc < docCount; doc = deleted.nextClearBit(doc + 1)) {
+                if (publishedAt[doc] < epochSecond) {
+                    docByArticle.remove(articleIds[doc]);
+                    delete(doc);
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cari dokumen yang mengandung semua term, urut skor BM25 lalu waktu terbit terbaru.
+     */
+    public Hits search(List<String> queryTerms, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<PostingsList> lists = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                PostingsList list = postings.get(term);
+                if (list == null) return new Hits(new long[0], 0);
+                lists.add(list);
+            }
+            if (lists.isEmpty() || liveDocs == 0) return new Hits(new long[0], 0);
+            lists.sort(Comparator.comparingInt(PostingsList::docFreq));
+
+            int n = lists.size();
+            int[][] docs = new int[n][];
+            int[][] tfs = new int[n][];
+            float[] idf = new float[n];
+            for (int i = 0; i < n; i++) {
+                PostingsList list = lists.get(i);
+                docs[i] = new int[list.docFreq()];
+                tfs[i] = new int[list.docFreq()];
+                list.decode(docs[i], tfs[i]);
+                int liveFreq = 0;
+                for (int doc : docs[i]) {
+                    if (!deleted.get(doc)) liveFreq++;
+                }
+                if (liveFreq == 0) return new Hits(new long[0], 0);
+                float df = liveFreq;
+                idf[i] = (float) Math.log(1 + (liveDocs - df + 0.5f) / (df + 0.5f));
+            }
+
+            float avgLength = (float) liveLength / liveDocs;
+            int wanted = Math.max(offset + limit, 0);
+            // Min-heap berisi kandidat terbaik, yang terburuk di atas
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(wanted, 1),
+                    (a, b) -> compareHits(a.doc(), a.score(), b.doc(), b.score()));
+            int[] positions = new int[n];
+            int total = 0;
+
+            candidates:
+            for (int c = 0; c < docs[0].length; c++) {
+                int doc = docs[0][c];
+                if (deleted.get(doc)) continue;
+                float score = bm25(tfs[0][c], idf[0], docLengths[doc], avgLength);
+                for (int i = 1; i < n; i++) {
+                    int[] list = docs[i];
+                    int pos = positions[i];
+                    while (pos < list.length && list[pos] < doc) pos++;
+                    positions[i] = pos;
+                    if (pos == list.length) break candidates;
+                    if (list[pos] != doc) continue candidates;
+                    score += bm25(tfs[i][pos], idf[i], docLengths[doc], avgLength);
+                }
+                total++;
+                if (wanted == 0) continue;
+                if (top.size() < wanted) {
+                    top.add(new Hit(doc, score));
+                } else if (compareHits(doc, score, top.peek().doc(), top.peek().score()) > 0) {
+                    top.poll();
+                    top.add(new Hit(doc, score));
+                }
+            }
+
+            // Heap dikosongkan dari yang terburuk → isi array dari belakang
+            Hit[] ranked = new Hit[top.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) ranked[i] = top.poll();
+            int from = Math.min(offset, ranked.length);
+            long[] result = new long[ranked.length - from];
+            for (int i = from; i < ranked.length; i++) {
+                result[i - from] = articleIds[ranked[i].doc()];
+            }
+            return new Hits(result, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * True jika lebih dari seperempat doc id sudah mati dan compaction layak dijalankan.
+     */
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            int dead = docCount - liveDocs;
+            return dead > 1_000 && dead * 4 > docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Buang tombstone: doc id hidup dipetakan ulang menjadi 0..liveDocs-1 (urutan tetap),
+     * posting dokumen mati dibuang, term tanpa posting dihapus.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            int[] newIds = new int[docCount];
+            int next = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                newIds[doc] = deleted.get(doc) ? -1 : next++;
+            }
+
+            long[] newArticleIds = new long[Math.max(next, 1024)];
+            long[] newPublishedAt = new long[newArticleIds.length];
+            int[] newDocLengths = new int[newArticleIds.length];
+            int[] newVersions = new int[newArticleIds.length];
+            for (int doc = 0; doc < docCount; doc++) {
+                int id = newIds[doc];
+                if (id < 0) continue;
+                newArticleIds[id] = articleIds[doc];
+                newPublishedAt[id] = publishedAt[doc];
+                newDocLengths[id] = docLengths[doc];
+                newVersions[id] = versions[doc];
+                docByArticle.put(articleIds[doc], id);
+            }
+
+            postings.replaceAll((term, list) -> list.remap(newIds));
+            postings.values().removeIf(Objects::isNull);
+
+            articleIds = newArticleIds;
+            publishedAt = newPublishedAt;
+            docLengths = newDocLengths;
+            versions = newVersions;
+            deleted = new BitSet();
+            docCount = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            long postingBytes = 0;
+            for (PostingsList list : postings.values()) postingBytes += list.sizeInBytes();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("documents", liveDocs);
+            stats.put("deletedDocuments", docCount - liveDocs);
+            stats.put("terms", postings.size());
+            stats.put("postingBytes", postingBytes);
+            stats.put("avgDocumentLength", liveDocs > 0 ? (double) liveLength / liveDocs : 0);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tulis index ke snapshot (DataOutput). Tombstone ikut disimpan sebagai bitset,
+     * jadi snapshot tetap valid tanpa compact() lebih dulu.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(docCount);
+            for (int doc = 0; doc < docCount; doc++) {
+                out.writeLong(articleIds[doc]);
+                out.writeLong(publishedAt[doc]);
+                out.writeInt(docLengths[doc]);
+                out.writeInt(versions[doc]);
+            }
+            long[] deletedWords = deleted.toLongArray();
+            out.writeInt(deletedWords.length);
+            for (long word : deletedWords) out.writeLong(word);
+
+            out.writeInt(postings.size());
+            for (Map.Entry<String, PostingsList> entry : postings.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static InvertedIndex readFrom(DataInput in) throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        int docCount = in.readInt();
+        index.ensureDocCapacity(docCount);
+        for (int doc = 0; doc < docCount; doc++) {
+            index.articleIds[doc] = in.readLong();
+            index.publishedAt[doc] = in.readLong();
+            index.docLengths[doc] = in.readInt();
+            index.versions[doc] = in.readInt();
+        }
+        long[] deletedWords = new long[in.readInt()];
+        for (int i = 0; i < deletedWords.length; i++) deletedWords[i] = in.readLong();
+        index.deleted = BitSet.valueOf(deletedWords);
+        index.docCount = docCount;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (index.deleted.get(doc)) continue;
+            index.docByArticle.put(index.articleIds[doc], doc);
+            index.liveDocs++;
+            index.liveLength += index.docLengths[doc];
+        }
+
+        int terms = in.readInt();
+        for (int i = 0; i < terms; i++) {
+            String term = in.readUTF();
+            index.postings.put(term, PostingsList.readFrom(in));
+        }
+        return index;
+    }
+
+    private void delete(int doc) {
+        deleted.set(doc);
+        liveDocs--;
+        liveLength -= docLengths[doc];
+    }
+
+    private static float bm25(int termFreq, float idf, int docLength, float avgLength) {
+        return idf * (termFreq * (K1 + 1)) / (termFreq + K1 * (1 - B + B * docLength / avgLength));
+    }
+
+    /**
+     * Urutan hit: skor lebih tinggi lebih baik, skor sama → terbit lebih baru lebih baik.
+     */
+    private int compareHits(int docA, float scoreA, int docB, float scoreB) {
+        int byScore = Float.compare(scoreA, scoreB);
+        if (byScore != 0) return byScore;
+        return Long.compare(publishedAt[docA], publishedAt[docB]);
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity <= articleIds.length) return;
+        int size = Math.max(articleIds.length * 2, capacity);
+        articleIds = Arrays.copyOf(articleIds, size);
+        publishedAt = Arrays.copyOf(publishedAt, size);
+        docLengths = Arrays.copyOf(docLengths, size);
+        versions = Arrays.copyOf(versions, size);
+    }
+}
@@ -0,0 +1,132 @@
+package com.app.news_aggregator.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * PostingsList menyimpan dokumen yang mengandung satu term, sebagai pasangan (doc id, term frequency).
+ *
+ * Doc id selalu bertambah (InvertedIndex memberi id baru untuk setiap dokumen/versi dokumen),
+ * sehingga yang disimpan adalah selisih dengan doc id sebelumnya (delta) dalam varint:
+ * sebagian besar posting hanya 2 byte (1 byte delta + 1 byte tf), tanpa object per posting.
+ */
+final class PostingsList {
+
+    private byte[] data;
+    private int length;
+    private int lastDoc = -1;
+    private int docFreq;
+
+    PostingsList() {
+        this.data = new byte[8];
+    }
+
+    private PostingsList(byte[] data, int lastDoc, int docFreq) {
+        this.data = data;
+        this.length = data.length;
+        this.lastDoc = lastDoc;
+        this.docFreq = docFreq;
+    }
+
+    /**
+     * Tambah posting di akhir list. doc harus lebih besar dari doc terakhir.
+     */
+    void add(int doc, int termFreq) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Doc id harus bertambah: " + doc + " <= " + lastDoc);
+        }
+        ensureCapacity(10);
+        writeVarint(doc - lastDoc);
+        writeVarint(termFreq);
+        lastDoc = doc;
+        docFreq++;
+    }
+
+    int docFreq() {
+        return docFreq;
+    }
+
+    int sizeInBytes() {
+        return length;
+    }
+
+    /**
+     * Decode seluruh posting ke array doc id dan tf (panjang minimal docFreq()).
+     */
+    void decode(int[] docs, int[] termFreqs) {
+        int pos = 0;
+        int doc = -1;
+        for (int i = 0; i < docFreq; i++) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += value;
+
+            int tf = 0;
+            shift = 0;
+            do {
+                b = data[pos++];
+                tf |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            docs[i] = doc;
+            termFreqs[i] = tf;
+        }
+    }
+
+    /**
+     * List baru dengan doc id dipetakan ulang setelah compaction; posting dengan id baru -1 dibuang.
+     *
+     * @return null jika tidak ada posting yang tersisa
+     */
+    PostingsList remap(int[] newIds) {
+        int[] docs = new int[docFreq];
+        int[] tfs = new int[docFreq];
+        decode(docs, tfs);
+        PostingsList remapped = new PostingsList();
+        for (int i = 0; i < docFreq; i++) {
+            int newId = newIds[docs[i]];
+            if (newId >= 0) remapped.add(newId, tfs[i]);
+        }
+        if (remapped.docFreq == 0) return null;
+        remapped.data = Arrays.copyOf(remapped.data, remapped.length);
+        return remapped;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(docFreq);
+        out.writeInt(lastDoc);
+        out.writeInt(length);
+        out.write(data, 0, length);
+    }
+
+    static PostingsList readFrom(DataInput in) throws IOException {
+        int docFreq = in.readInt();
+        int lastDoc = in.readInt();
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return new PostingsList(data, lastDoc, docFreq);
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+}
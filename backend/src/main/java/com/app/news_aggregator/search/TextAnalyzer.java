@@ -0,0 +1,124 @@
+package com.app.news_aggregator.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * TextAnalyzer memecah teks artikel dan query menjadi term untuk InvertedIndex.
+ *
+ * Langkah yang sama dipakai untuk dokumen dan query (agar term-nya bisa dicocokkan):
+ * - lowercase dan buang aksen ("café" → "cafe")
+ * - pecah di karakter selain huruf/angka, buang token 1 huruf dan stopword
+ * - stemming ringan bahasa Indonesia: partikel (-lah, -kah, -pun), kata ganti -nya,
+ *   sufiks (-kan, -an), lalu prefiks (di-, ke-, se-, ter-, ber-, me-, pe- dan varian nasalnya)
+ *
+ * Stemmer sengaja konservatif: prefiks nasal yang meluluhkan huruf awal kata dasar
+ * (menulis ← tulis, memukul ← pukul) tidak dikembalikan, dan imbuhan hanya dibuang jika
+ * sisa katanya minimal 4 huruf (5 untuk partikel: "masalah" tidak menjadi "masa").
+ * Lebih baik "menulis" tidak cocok dengan "tulis" daripada kata yang berbeda arti disamakan.
+ */
+public final class TextAnalyzer {
+
+    private static final int MIN_STEM_LENGTH = 4;
+    private static final int MIN_PARTICLE_STEM_LENGTH = 5;
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "yang", "dan", "di", "ke", "dari", "ini", "itu", "dengan", "untuk", "pada", "adalah",
+        "dalam", "akan", "tidak", "juga", "atau", "oleh", "sebagai", "telah", "sudah", "bisa",
+        "ada", "karena", "saat", "para", "lebih", "kata", "hingga", "masih", "baca", "tersebut",
+        "the", "of", "and", "to", "in", "a", "is", "for"
+    );
+
+    private static final String[] PARTICLES = {"lah", "kah", "pun"};
+    private static final String[] POSSESSIVES = {"nya"};
+    // -i tidak dibuang: "mencari" akan menjadi "mencar" dan tidak cocok lagi dengan "cari"
+    private static final String[] SUFFIXES = {"kan", "an"};
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * true jika query memakai operator websearch_to_tsquery: frasa bertanda kutip, "or", atau "-term".
+     * Index hanya mendukung AND antar term, jadi query seperti ini harus dijawab Postgres.
+     */
+    public static boolean hasQueryOperators(String query) {
+        if (query == null) return false;
+        if (query.indexOf('"') >= 0) return true;
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equalsIgnoreCase("or") || (word.length() > 1 && word.charAt(0) == '-')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Term dari teks, dengan urutan dan pengulangan dipertahankan (dipakai untuk term frequency).
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) return terms;
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (!token.isEmpty()) {
+                addTerm(terms, token.toString());
+                token.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        if (token.length() < 2 || STOPWORDS.contains(token)) return;
+        terms.add(stem(token));
+    }
+
+    static String stem(String word) {
+        if (!Character.isLetter(word.charAt(0))) return word;
+        String stemmed = stripSuffix(word, PARTICLES, MIN_PARTICLE_STEM_LENGTH);
+        stemmed = stripSuffix(stemmed, POSSESSIVES, MIN_STEM_LENGTH);
+        stemmed = stripSuffix(stemmed, SUFFIXES, MIN_STEM_LENGTH);
+        return stripPrefix(stemmed);
+    }
+
+    private static String stripSuffix(String word, String[] suffixes, int minLength) {
+        for (String suffix : suffixes) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= minLength) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+
+    private static String stripPrefix(String word) {
+        int cut = prefixLength(word);
+        return cut > 0 && word.length() - cut >= MIN_STEM_LENGTH ? word.substring(cut) : word;
+    }
+
+    /**
+     * Panjang prefiks yang bisa dibuang tanpa perlu mengembalikan huruf kata dasar.
+     */
+    private static int prefixLength(String word) {
+        if (word.startsWith("di") || word.startsWith("ke") || word.startsWith("se")) return 2;
+        if (word.startsWith("ter") || word.startsWith("ber")) return 3;
+        if ((word.startsWith("me") || word.startsWith("pe")) && word.length() > 3) {
+            // meng-/peng- + vokal, g, h yang tidak luluh (mengambil, menggunakan)
+            if (word.startsWith("ng", 2) && word.length() > 4 && "aiueogh".indexOf(word.charAt(4)) >= 0) return 4;
+            // mem-/pem- + b, p (membaca, mempunyai), men-/pen- + c, d, j (mencari, mendengar)
+            if (word.startsWith("m", 2) && word.length() > 3 && "bp".indexOf(word.charAt(3)) >= 0) return 3;
+            if (word.startsWith("n", 2) && word.length() > 3 && "cdj".indexOf(word.charAt(3)) >= 0) return 3;
+            // me-/pe- + l, r, w, y (melihat, merasa)
+            if ("lrwy".indexOf(word.charAt(2)) >= 0) return 2;
+        }
+        return 0;
+    }
+}
@@ -1,15 +1,40 @@
 package com.app.news_aggregator.service;
 
+import com.app.news_aggregator.config.ConditionalOnRole;
 import com.app.news_aggregator.crawler.*;
 import com.app.news_aggregator.model.Article;
+import com.app.news_aggregator.queue.CrawlProducer;
+import com.app.news_aggregator.queue.ListenerMetrics;
 import com.app.news_aggregator.repository.ArticleRepository;
-import lombok.RequiredArgsConstructor;
+import com.app.news_aggregator.repository.ArticleRepositoryCustom;
+import com.app.news_aggregator.repository.ArticleRepositoryCustom.ScrapeClaim;
+import com.app.news_aggregator.repository.ArticleRepositoryCustom.ScrapeUpdate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ArticleScraperService mengelola proses scraping konten lengkap artikel.
@@ -21,81 +46,467 @@ import java.util.List;
  *
  * Solusinya: simpan artikel dulu tanpa konten (isScraped=false),
  * lalu job ini akan scrape secara bertahap di background.
+ *
+ * Sebelumnya job ini scrape 10 artikel satu per satu di dalam satu @Transactional
+ * (koneksi DB tertahan selama seluruh batch, maksimal ~120 artikel/jam).
+ * Sekarang berupa pipeline bertahap, masing-masing dengan ukuran sendiri:
+ *
+ *   claim (SKIP LOCKED + lease) → fetch (virtual thread, HostRateLimiter per domain)
+ *        → extract (pool CPU) → write (batch, satu transaksi per batch)
+ *
+ * Jumlah artikel yang sedang diproses dibatasi max-in-flight (backpressure ke tahap claim),
+ * dan koneksi DB hanya dipakai sebentar saat claim dan saat menulis batch.
+ *
+ * Ini satu-satunya mesin scraping. Dua pemicu memakai klaim yang sama:
+ * - ScrapePollScheduler (poller): scrapeUnscrapedArticles mengklaim artikel PENDING per batch
+ * - ScrapeConsumer (RabbitMQ): submitByIds mengklaim artikel dari pesan
+ * Status per artikel (PENDING → IN_PROGRESS → DONE/FAILED) dan lease memastikan satu artikel
+ * hanya di-fetch oleh satu worker; artikel yang worker-nya mati diklaim ulang setelah lease habis.
+ *
+ * Kegagalan diklasifikasi (ArticleScraper.classifyFailure):
+ * - TRANSIENT → kembali PENDING dengan backoff bertingkat (app.scraper.retry.delays-seconds),
+ *   dijadwalkan lewat delayed retry queue; setelah semua tingkat habis → FAILED
+ * - PERMANENT / BLOCKED → langsung FAILED, tidak menghabiskan slot fetch lagi
+ *
+ * Hanya dibuat di instance scrape-worker: thread writer dan executor pipeline tidak ikut
+ * berjalan di node API, crawl, atau digest.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
+@ConditionalOnRole(ConditionalOnRole.SCRAPE_WORKER)
 public class ArticleScraperService {
 
     private final ArticleScraper articleScraper;
     private final ArticleRepository articleRepository;
+    private final ScrapeResultCache scrapeResultCache;
+    private final CrawlProducer crawlProducer;
+
+    // Delay retry ke-1, ke-2, ... untuk kegagalan TRANSIENT
+    private final int[] retryDelaysSeconds;
+
+    private final int claimBatchSize;
+    private final int maxInFlight;
+    private final int leaseSeconds;
+    private final int writeBatchSize;
+    private final long writeFlushMs;
 
-    // Berapa artikel yang di-scrape per satu kali jalan
-    private static final int BATCH_SIZE = 10;
+    private final Semaphore inFlight;
+    private final Semaphore fetchSlots;
+    private final ThreadPoolExecutor extractExecutor;
+    private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final BlockingQueue<ScrapeUpdate> writeQueue;
+    private Thread writer;
+
+    // Satu run pipeline pada satu waktu per instance
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Metrik
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong claimedFromQueue = new AtomicLong();
+    private final AtomicLong leaseExpiries = new AtomicLong();
+    private final AtomicLong fetchFailed = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong extracted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final Map<Article.ScrapeFailure, AtomicLong> failures = new EnumMap<>(Article.ScrapeFailure.class);
+    private final AtomicLong retriesScheduled = new AtomicLong();
+    private final AtomicLong retriesExhausted = new AtomicLong();
+    private final AtomicInteger fetching = new AtomicInteger();
+    private volatile long lastRunStartedAt;
+    private volatile long lastRunDurationMs;
+    private volatile long lastRunWritten;
+
+    public ArticleScraperService(
+            ArticleScraper articleScraper,
+            ArticleRepository articleRepository,
+            ScrapeResultCache scrapeResultCache,
+            CrawlProducer crawlProducer,
+            @Value("${app.scraper.retry.delays-seconds:60,300,1800,7200}") int[] retryDelaysSeconds,
+            @Value("${app.scraper.pipeline.claim-batch-size:50}") int claimBatchSize,
+            @Value("${app.scraper.pipeline.max-in-flight:200}") int maxInFlight,
+            @Value("${app.scraper.pipeline.fetch-concurrency:64}") int fetchConcurrency,
+            @Value("${app.scraper.pipeline.extract-threads:0}") int extractThreads,
+            @Value("${app.scraper.pipeline.write-batch-size:50}") int writeBatchSize,
+            @Value("${app.scraper.pipeline.write-flush-ms:1000}") long writeFlushMs,
+            @Value("${app.scraper.pipeline.lease-seconds:600}") int leaseSeconds) {
+        this.articleScraper = articleScraper;
+        this.articleRepository = articleRepository;
+        this.scrapeResultCache = scrapeResultCache;
+        this.crawlProducer = crawlProducer;
+        this.retryDelaysSeconds = retryDelaysSeconds;
+        for (Article.ScrapeFailure failure : Article.ScrapeFailure.values()) {
+            failures.put(failure, new AtomicLong());
+        }
+        this.maxInFlight = maxInFlight;
+        this.claimBatchSize = Math.min(claimBatchSize, maxInFlight);
+        this.leaseSeconds = leaseSeconds;
+        this.writeBatchSize = writeBatchSize;
+        this.writeFlushMs = writeFlushMs;
+
+        this.inFlight = new Semaphore(maxInFlight);
+        this.fetchSlots = new Semaphore(fetchConcurrency);
+        int threads = extractThreads > 0 ? extractThreads : Runtime.getRuntime().availableProcessors();
+        // Antrian extract tidak perlu dibatasi sendiri: total pekerjaan sudah dibatasi oleh inFlight
+        this.extractExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("scrape-extract-", 0).daemon(true).factory());
+        this.writeQueue = new ArrayBlockingQueue<>(maxInFlight);
+    }
 
     /**
-     * Scrape batch artikel yang belum punya konten lengkap.
-     * Dipanggil oleh RssCrawlerScheduler setiap 5 menit.
+     * Tahap write berjalan selama aplikasi hidup, dipakai bersama oleh poller dan consumer.
+     */
+    @PostConstruct
+    void startWriter() {
+        writer = Thread.ofVirtual().name("scrape-writer").start(this::writeLoop);
+    }
+
+    /**
+     * Scrape semua artikel yang belum punya konten lengkap.
+     * Dipanggil oleh ScrapePollScheduler setiap menit.
      *
-     * Mengambil BATCH_SIZE artikel dengan isScraped=false,
-     * lalu scrape satu per satu dengan delay kecil antar request
-     * agar tidak terdeteksi sebagai bot agresif.
+     * Pipeline berjalan di virtual thread sendiri agar thread scheduler (yang juga dipakai
+     * untuk crawl RSS) tidak tertahan. Jika run sebelumnya masih berjalan, panggilan ini diabaikan.
      */
-    @Transactional
     public void scrapeUnscrapedArticles() {
-        // Ambil artikel yang belum di-scrape (batch kecil)
-        List<Article> unscraped = articleRepository.findUnscrapedArticles(
-                PageRequest.of(0, BATCH_SIZE)
-        );
-
-        if (unscraped.isEmpty()) {
-            log.debug("Tidak ada artikel yang perlu di-scrape");
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Pipeline scraping masih berjalan, tick ini dilewati");
             return;
         }
+        Thread.ofVirtual().name("scrape-pipeline").start(() -> {
+            try {
+                runPipeline();
+            } catch (Exception e) {
+                log.error("Pipeline scraping berhenti karena error: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Batas jumlah ID yang diproses submitByIds dalam satu panggilan (= max-in-flight).
+     */
+    public int maxIdsPerSubmit() {
+        return maxInFlight;
+    }
+
+    /**
+     * Scrape artikel tertentu (dari pesan scrape.article.queue).
+     *
+     * Artikel diklaim dengan lease yang sama seperti poller, lalu diproses secara async oleh pipeline.
+     * Method ini hanya menunggu slot in-flight (backpressure ke consumer), bukan hasil scraping.
+     * ID yang sudah DONE/FAILED/SKIPPED atau sedang dipegang worker lain dilewati.
+     * Hanya maxIdsPerSubmit() ID pertama yang dicoba diklaim; sisanya wajib dikembalikan pemanggil.
+     *
+     * @return jumlah artikel yang berhasil diklaim
+     */
+    public int submitByIds(Collection<Long> ids) throws InterruptedException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int permits = Math.min(ids.size(), maxInFlight);
+        long waitStart = System.nanoTime();
+        try {
+            inFlight.acquire(permits);
+        } finally {
+            // Menunggu pipeline bukan waktu kerja consumer (lihat ListenerAutoscaler)
+            ListenerMetrics.recordWait(System.nanoTime() - waitStart);
+        }
+        List<ScrapeClaim> batch;
+        try {
+            batch = articleRepository.claimByIds(ids.stream().limit(permits).toList(), leaseSeconds);
+        } catch (Exception e) {
+            inFlight.release(permits);
+            throw e;
+        }
+        inFlight.release(permits - batch.size());
+        claimedFromQueue.addAndGet(batch.size());
+        dispatch(batch, null);
+        return batch.size();
+    }
 
-        log.info("Memulai scraping {} artikel yang belum punya konten lengkap", unscraped.size());
-        int successCount = 0;
+    /**
+     * Satu run: klaim batch demi batch sampai tidak ada lagi artikel PENDING,
+     * lalu tunggu semua artikel yang diklaim run ini masuk ke tahap write.
+     *
+     * Artikel milik run ini dihitung dengan Phaser sendiri (satu party per artikel), bukan dengan
+     * menghabiskan semua permit inFlight: permit itu juga terus diambil ScrapeConsumer, sehingga
+     * menunggu maxInFlight permit sekaligus bisa tertunda tanpa batas selama antrian scrape ramai.
+     */
+    private void runPipeline() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        long writtenBefore = written.get();
+        lastRunStartedAt = start;
+        Phaser outstanding = new Phaser(1);
 
-        for (Article article : unscraped) {
+        while (!Thread.currentThread().isInterrupted()) {
+            // Backpressure: hanya klaim sebanyak slot in-flight yang tersedia
+            inFlight.acquire(claimBatchSize);
+            List<ScrapeClaim> batch;
             try {
-                // Scrape konten dari URL artikel
-                ArticleScraper.ScrapeResult result = articleScraper.scrape(article.getUrl());
+                batch = articleRepository.claimForScraping(claimBatchSize, leaseSeconds);
+            } catch (Exception e) {
+                inFlight.release(claimBatchSize);
+                throw e;
+            }
+            inFlight.release(claimBatchSize - batch.size());
+            if (batch.isEmpty()) {
+                break;
+            }
 
-                if (result.success()) {
-                    // Update artikel dengan konten hasil scraping
-                    if (result.content() != null) {
-                        article.setContent(result.content());
-                    }
+            claimed.addAndGet(batch.size());
+            log.debug("Pipeline scraping: {} artikel diklaim", batch.size());
+            outstanding.bulkRegister(batch.size());
+            dispatch(batch, outstanding);
+        }
 
-                    // Update thumbnail jika belum ada dari RSS feed
-                    if (article.getThumbnailUrl() == null && result.thumbnailUrl() != null) {
-                        article.setThumbnailUrl(result.thumbnailUrl());
-                    }
+        // Tunggu semua artikel run ini sampai masuk writeQueue
+        outstanding.awaitAdvanceInterruptibly(outstanding.arrive());
 
-                    successCount++;
-                }
+        lastRunDurationMs = System.currentTimeMillis() - start;
+        lastRunWritten = written.get() - writtenBefore;
+        if (lastRunWritten > 0) {
+            log.info("Scraping selesai: {} artikel ditulis dalam {}ms", lastRunWritten, lastRunDurationMs);
+        }
+    }
+
+    /**
+     * @param outstanding Phaser run poller yang menunggu artikel ini selesai, atau null (dari consumer)
+     */
+    private void dispatch(List<ScrapeClaim> batch, Phaser outstanding) {
+        for (ScrapeClaim claim : batch) {
+            if (claim.leaseExpired()) {
+                // Klaim ulang: worker sebelumnya tidak menulis hasil sebelum lease habis
+                leaseExpiries.incrementAndGet();
+            }
+            fetchExecutor.execute(() -> fetchStage(claim, outstanding));
+        }
+    }
+
+    /**
+     * Tahap fetch (I/O): dibatasi fetch-concurrency total dan HostRateLimiter per domain.
+     * HTML di-parse secara streaming sambil di-download (lihat ArticleScraper.fetch).
+     *
+     * URL yang sudah/sedang di-scrape (ScrapeResultCache, per URL kanonik) tidak di-fetch ulang:
+     * artikel langsung memakai hasil fetch tersebut.
+     */
+    private void fetchStage(ScrapeClaim claim, Phaser outstanding) {
+        CompletableFuture<ArticleScraper.ScrapeResult> pending = new CompletableFuture<>();
+        CompletableFuture<ArticleScraper.ScrapeResult> cached = scrapeResultCache.reserve(claim.url(), pending);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            // Fetch URL yang sama gagal: pakai klasifikasi kegagalan fetch tersebut
+            cached.whenComplete((result, error) -> enqueueWrite(result != null
+                    ? toUpdate(claim, result)
+                    : sharedFailureUpdate(claim, error),
+                    outstanding));
+            return;
+        }
+
+        ArticleScraper.FetchedPage page;
+        try {
+            fetchSlots.acquire();
+            fetching.incrementAndGet();
+            try {
+                page = articleScraper.fetch(claim.url());
+            } finally {
+                fetching.decrementAndGet();
+                fetchSlots.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.completeExceptionally(
+                    new ScrapeResultCache.SharedFailure(Article.ScrapeFailure.TRANSIENT, "Fetch diinterupsi"));
+            // Lease dibiarkan habis → artikel diklaim ulang di run berikutnya
+            release(outstanding);
+            return;
+        } catch (Exception e) {
+            Article.ScrapeFailure failure = ArticleScraper.classifyFailure(e);
+            log.warn("Gagal scraping URL '{}' ({}): {}", claim.url(), failure, e.getMessage());
+            fetchFailed.incrementAndGet();
+            pending.completeExceptionally(new ScrapeResultCache.SharedFailure(failure, e.toString()));
+            enqueueWrite(failureUpdate(claim, failure, e.toString()), outstanding);
+            return;
+        }
+
+        extractExecutor.execute(() -> extractStage(claim, page, pending, outstanding));
+    }
+
+    /**
+     * Tahap extract (CPU): pilih konten dan thumbnail dari dokumen di pool thread sebesar jumlah CPU.
+     */
+    private void extractStage(ScrapeClaim claim, ArticleScraper.FetchedPage page,
+                              CompletableFuture<ArticleScraper.ScrapeResult> pending, Phaser outstanding) {
+        ScrapeUpdate update;
+        try {
+            ArticleScraper.ScrapeResult result = articleScraper.extract(page);
+            extracted.incrementAndGet();
+            pending.complete(result);
+            update = toUpdate(claim, result);
+        } catch (Exception e) {
+            // Halaman yang sama akan gagal diekstrak lagi: tidak perlu retry
+            log.warn("Gagal ekstrak konten artikel ID {}: {}", claim.id(), e.getMessage());
+            pending.completeExceptionally(
+                    new ScrapeResultCache.SharedFailure(Article.ScrapeFailure.PERMANENT, e.toString()));
+            update = failureUpdate(claim, Article.ScrapeFailure.PERMANENT, e.toString());
+        }
+        enqueueWrite(update, outstanding);
+    }
+
+    /**
+     * Hasil scraping → update DB.
+     * Thumbnail hasil scraping hanya dipakai jika RSS tidak menyediakan thumbnail.
+     */
+    private static ScrapeUpdate toUpdate(ScrapeClaim claim, ArticleScraper.ScrapeResult result) {
+        return ScrapeUpdate.done(claim.id(), result.content(),
+                claim.thumbnailUrl() == null ? result.thumbnailUrl() : null);
+    }
+
+    /**
+     * Kegagalan → update DB. TRANSIENT dijadwalkan ulang selama tingkat backoff masih tersedia
+     * (klaim ke-n memakai delay ke-n); selain itu FAILED.
+     */
+    private ScrapeUpdate failureUpdate(ScrapeClaim claim, Article.ScrapeFailure failure, String error) {
+        failures.get(failure).incrementAndGet();
+        if (failure == Article.ScrapeFailure.TRANSIENT) {
+            if (claim.attempt() <= retryDelaysSeconds.length) {
+                return ScrapeUpdate.retry(claim.id(), error, retryDelaysSeconds[claim.attempt() - 1]);
+            }
+            retriesExhausted.incrementAndGet();
+        }
+        return ScrapeUpdate.failed(claim.id(), failure, error);
+    }
+
+    /**
+     * Kegagalan fetch URL yang sama oleh artikel lain → update DB dengan klasifikasi yang sama.
+     */
+    private ScrapeUpdate sharedFailureUpdate(ScrapeClaim claim, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ScrapeResultCache.SharedFailure shared) {
+            return failureUpdate(claim, shared.failure(), "Fetch URL yang sama gagal: " + shared.getMessage());
+        }
+        return failureUpdate(claim, Article.ScrapeFailure.TRANSIENT, "Fetch URL yang sama gagal");
+    }
 
-                // Tandai sebagai sudah di-scrape (baik berhasil maupun gagal)
-                // agar tidak terus dicoba berulang untuk artikel yang memang tidak bisa di-scrape
-                article.setIsScraped(true);
-                articleRepository.save(article);
+    private void enqueueWrite(ScrapeUpdate update, Phaser outstanding) {
+        try {
+            writeQueue.put(update);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            release(outstanding);
+        }
+    }
 
-                // Delay kecil antar request: 500ms - 1500ms (random)
-                // Mencegah website mendeteksi pola scraping otomatis
-                Thread.sleep(500 + (long) (Math.random() * 1000));
+    /**
+     * Artikel keluar dari pipeline: kembalikan slot in-flight dan lapor ke run yang menunggunya.
+     */
+    private void release(Phaser outstanding) {
+        inFlight.release();
+        if (outstanding != null) {
+            outstanding.arriveAndDeregister();
+        }
+    }
 
+    /**
+     * Tahap write: kumpulkan hasil sampai write-batch-size atau write-flush-ms, lalu tulis
+     * dalam satu transaksi. Berhenti saat shutdown setelah antrian kosong.
+     */
+    private void writeLoop() {
+        List<ScrapeUpdate> batch = new ArrayList<>(writeBatchSize);
+        boolean stopping = false;
+        while (true) {
+            try {
+                ScrapeUpdate update = stopping
+                        ? writeQueue.poll()
+                        : writeQueue.poll(writeFlushMs, TimeUnit.MILLISECONDS);
+                if (update != null) {
+                    batch.add(update);
+                    writeQueue.drainTo(batch, writeBatchSize - batch.size());
+                }
+                if (batch.size() >= writeBatchSize || (update == null && !batch.isEmpty())) {
+                    flush(batch);
+                }
+                if (stopping && update == null) {
+                    return;
+                }
             } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.warn("Scraping diinterupsi");
-                break;
-            } catch (Exception e) {
-                log.warn("Gagal scrape artikel ID {}: {}", article.getId(), e.getMessage());
-                // Tetap tandai sebagai scraped agar tidak retry terus
-                article.setIsScraped(true);
-                articleRepository.save(article);
+                stopping = true;
             }
         }
+    }
+
+    private void flush(List<ScrapeUpdate> batch) {
+        try {
+            articleRepository.saveScrapeResults(batch);
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            // Lease akan habis dan artikel diklaim ulang, jadi hasil tidak hilang permanen
+            log.error("Gagal menulis {} hasil scraping: {}", batch.size(), e.getMessage());
+            batch.clear();
+            return;
+        }
+
+        // Retry dijadwalkan setelah next_retry_at tersimpan, agar pesan tidak tiba lebih dulu
+        for (ScrapeUpdate update : batch) {
+            if (update.retryDelaySeconds() != null) {
+                crawlProducer.enqueueScrapeRetry(update.id(), update.retryDelaySeconds());
+                retriesScheduled.incrementAndGet();
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * Snapshot metrik pipeline: throughput, kedalaman antrian tiap tahap,
+     * dan jumlah artikel per status scraping di DB.
+     */
+    public Map<String, Object> pipelineStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("claimed", claimed.get());
+        stats.put("claimedFromQueue", claimedFromQueue.get());
+        stats.put("leaseExpiries", leaseExpiries.get());
+        stats.put("fetchFailed", fetchFailed.get());
+        stats.put("resultCacheHits", cacheHits.get());
+        stats.put("extracted", extracted.get());
+        stats.put("written", written.get());
+        Map<String, Object> failed = new LinkedHashMap<>();
+        failures.forEach((failure, count) -> failed.put(failure.name(), count.get()));
+        stats.put("failures", failed);
+        stats.put("retriesScheduled", retriesScheduled.get());
+        stats.put("retriesExhausted", retriesExhausted.get());
+
+        Map<String, Object> depth = new LinkedHashMap<>();
+        depth.put("inFlight", maxInFlight - inFlight.availablePermits());
+        depth.put("fetching", fetching.get());
+        depth.put("waitingForFetchSlot", fetchSlots.getQueueLength());
+        depth.put("extractQueue", extractExecutor.getQueue().size());
+        depth.put("extractActive", extractExecutor.getActiveCount());
+        depth.put("writeQueue", writeQueue.size());
+        stats.put("queueDepth", depth);
+
+        long runMs = running.get() ? System.currentTimeMillis() - lastRunStartedAt : lastRunDurationMs;
+        stats.put("lastRunDurationMs", runMs);
+        stats.put("lastRunWritten", lastRunWritten);
+        stats.put("lastRunArticlesPerSecond", lastRunDurationMs > 0 ? lastRunWritten * 1000.0 / lastRunDurationMs : 0.0);
+
+        ArticleRepositoryCustom.ScrapeStateCounts counts = articleRepository.countByScrapeStatus();
+        Map<String, Object> states = new LinkedHashMap<>();
+        counts.byStatus().forEach((status, total) -> states.put(status.name(), total));
+        stats.put("articlesByStatus", states);
+        stats.put("expiredLeases", counts.expiredLeases());
+        stats.put("waitingRetry", counts.waitingRetry());
+        return stats;
+    }
 
-        log.info("Scraping selesai: {}/{} artikel berhasil di-scrape", successCount, unscraped.size());
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        fetchExecutor.shutdownNow();
+        extractExecutor.shutdownNow();
+        // Hasil yang sudah di writeQueue tetap di-flush; sisanya diklaim ulang setelah lease habis
+        writer.interrupt();
+        writer.join();
     }
-}
\ No newline at end of file
+}
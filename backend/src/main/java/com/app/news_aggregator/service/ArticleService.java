@@ -5,11 +5,19 @@ import com.app.news_aggregator.dto.ArticleDto;
 import com.app.news_aggregator.exception.ResourceNotFoundException;
 import com.app.news_aggregator.model.Article;
 import com.app.news_aggregator.repository.ArticleRepository;
+import com.app.news_aggregator.search.ArticleSearchIndex;
+import com.app.news_aggregator.search.InvertedIndex;
+import com.app.news_aggregator.util.ArticleCursor;
 import com.app.news_aggregator.util.RestPage;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
@@ -20,6 +28,15 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
 /**
  * ArticleService dengan Redis Caching.
  *
@@ -34,14 +51,49 @@ import org.springframework.transaction.annotation.Transactional;
  * "articles::cat_teknologi_0"  → artikel kategori teknologi, halaman 0
  * "article_detail::1"          → detail artikel ID 1
  * "search::spring_boot_0"      → hasil search "spring boot", halaman 0
+ *
+ * Invalidasi setelah crawl bersifat terarah (lihat invalidateArticleCache(categories, sourceIds)):
+ * hanya halaman awal list "all", kategori, dan sumber yang mendapat artikel baru yang dihapus.
+ *
+ * Mode cursor (getArticlesByCursor) tidak memakai cache Spring: query keyset sudah murah
+ * di setiap halaman, hanya total artikelnya yang di-cache sebentar per instance.
  */
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ArticleService {
 
+    // Berapa kali search index diulang setelah membuang hit yang sudah dihapus dari database
+    private static final int MAX_PRUNE_ATTEMPTS = 3;
+
     private final ArticleRepository articleRepository;
+    private final CacheManager cacheManager;
+    private final int evictPages;
+    private final List<Integer> evictPageSizes;
+
+    // Total artikel per filter untuk mode cursor: key "all", "cat_<kategori>", "src_<id>"
+    private final com.github.benmanes.caffeine.cache.Cache<String, Long> listCounts;
+
+    // Null jika bean tidak ada: hanya dibuat di instance dengan peran API dan app.search.index.enabled=true
+    private final ArticleSearchIndex searchIndex;
+
+    public ArticleService(
+            ArticleRepository articleRepository,
+            CacheManager cacheManager,
+            ObjectProvider<ArticleSearchIndex> searchIndexProvider,
+            @Value("${app.cache.articles.evict-pages:3}") int evictPages,
+            @Value("${app.cache.articles.evict-page-sizes:20}") List<Integer> evictPageSizes,
+            @Value("${app.articles.count-cache.ttl-seconds:60}") long countTtlSeconds) {
+        this.articleRepository = articleRepository;
+        this.cacheManager = cacheManager;
+        this.searchIndex = searchIndexProvider.getIfAvailable();
+        this.evictPages = evictPages;
+        this.evictPageSizes = evictPageSizes;
+        this.listCounts = Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(Duration.ofSeconds(countTtlSeconds))
+                .build();
+    }
 
     /**
      * Ambil semua artikel dengan pagination.
@@ -59,7 +111,7 @@ public class ArticleService {
     public RestPage<ArticleDto.Summary> getAllArticles(int page, int size) {
         log.debug("[CACHE MISS] getAllArticles - query ke database (page={}, size={})", page, size);
         Pageable pageable = PageRequest.of(page, size, Sort.by("publishedAt").descending());
-        Page<ArticleDto.Summary> rpage = articleRepository.findAll(pageable).map(ArticleDto.Summary::from);
+        Page<ArticleDto.Summary> rpage = articleRepository.findByDuplicateOfIdIsNull(pageable).map(ArticleDto.Summary::from);
         return new RestPage<>(rpage.getContent(), rpage.getNumber(), rpage.getSize(), rpage.getTotalElements());
     }
 
@@ -67,15 +119,16 @@ public class ArticleService {
      * Ambil artikel berdasarkan kategori.
      * Cache key berbeda per kategori dan halaman.
      * Contoh key: "articles::cat_teknologi_0_20"
+     * Kategori di key di-lowercase (sama dengan query) agar bisa di-evict terarah.
      */
-    @Cacheable(value = RedisConfig.CACHE_ARTICLES, key = "'cat_' + #category + '_' + #page + '_' + #size")
+    @Cacheable(value = RedisConfig.CACHE_ARTICLES, key = "'cat_' + #category.toLowerCase() + '_' + #page + '_' + #size")
     @Transactional(readOnly = true)
     public RestPage<ArticleDto.Summary> getArticlesByCategory(String category, int page, int size) {
         log.debug("[CACHE MISS] getArticlesByCategory - query ke database (category={})", category);
 
         Pageable pageable = PageRequest.of(page, size);
         Page<ArticleDto.Summary> rpage = articleRepository
-                .findByCategoryOrderByPublishedAtDesc(category.toLowerCase(), pageable)
+                .findByCategoryAndDuplicateOfIdIsNullOrderByPublishedAtDesc(category.toLowerCase(), pageable)
                 .map(ArticleDto.Summary::from);
         return new RestPage<>(rpage.getContent(), rpage.getNumber(), rpage.getSize(), rpage.getTotalElements());
     }
@@ -94,6 +147,51 @@ public class ArticleService {
         return new RestPage<>(rpage.getContent(), rpage.getNumber(), rpage.getSize(), rpage.getTotalElements());
     }
 
+    /**
+     * List artikel dengan keyset pagination (infinite scroll).
+     *
+     * Mode offset (getAllArticles dkk.) menjalankan OFFSET page*size dan count(*) di setiap
+     * request: makin dalam halamannya dan makin besar tabelnya, makin lambat. Di sini halaman
+     * berikutnya dicari dengan (published_at, id) < cursor lewat index komposit, sehingga setiap
+     * halaman sama murahnya, dan total hanya dihitung sekali per TTL (app.articles.count-cache).
+     *
+     * Filter sama dengan mode offset: category didahulukan dari sourceId.
+     * Satu baris ekstra diambil untuk mengetahui apakah masih ada halaman berikutnya.
+     */
+    public ArticleDto.CursorPage getArticlesByCursor(String cursor, String category, Long sourceId, int size) {
+        ArticleCursor after = ArticleCursor.decode(cursor);
+        int limit = Math.max(size, 1);
+        String normalizedCategory = category != null && !category.isBlank()
+                ? category.toLowerCase(Locale.ROOT) : null;
+        Long source = normalizedCategory == null ? sourceId : null;
+
+        List<ArticleDto.Summary> rows = articleRepository.findSummariesBefore(
+                normalizedCategory, source,
+                after != null ? after.publishedAt() : null,
+                after != null ? after.id() : null,
+                limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        List<ArticleDto.Summary> content = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ArticleDto.Summary last = content.get(content.size() - 1);
+            nextCursor = new ArticleCursor(last.getPublishedAt(), last.getId()).encode();
+        }
+
+        String countKey = normalizedCategory != null ? "cat_" + normalizedCategory
+                : source != null ? "src_" + source : "all";
+        long total = listCounts.get(countKey, key -> articleRepository.countListed(normalizedCategory, source));
+
+        return ArticleDto.CursorPage.builder()
+                .content(List.copyOf(content))
+                .size(limit)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .approximateTotal(total)
+                .build();
+    }
+
     /**
      * Ambil detail satu artikel berdasarkan ID.
      * Sekaligus increment view count.
@@ -119,6 +217,12 @@ public class ArticleService {
      * Cari artikel berdasarkan keyword.
      * Cache key: "search::java_0_20"
      * TTL lebih pendek (2 menit) karena hasil search lebih dinamis.
+     *
+     * Dijawab dari index in-memory (ArticleSearchIndex, BM25) jika sudah siap, disambung dengan
+     * full-text search Postgres (index GIN) untuk artikel yang lebih lama dari window index.
+     * Postgres dipakai sepenuhnya jika index belum siap / dinonaktifkan, atau jika query memakai
+     * operator websearch (frasa bertanda kutip, or, -term) yang tidak didukung index. Keduanya mencari di judul,
+     * deskripsi, dan konten hasil scraping, dan kata berimbuhan ikut cocok ("membangun" → "bangun").
      */
     @Cacheable(value = RedisConfig.CACHE_SEARCH, key = "#keyword.toLowerCase() + '_' + #page + '_' + #size")
     @Transactional(readOnly = true)
@@ -129,29 +233,117 @@ public class ArticleService {
             return getAllArticles(page, size);
         }
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<ArticleDto.Summary> rpage = articleRepository.searchByKeyword(keyword.trim(), pageable)
-                .map(ArticleDto.Summary::from);
-        return new RestPage<>(rpage.getContent(), rpage.getNumber(), rpage.getSize(), rpage.getTotalElements());
+        String query = keyword.trim();
+        if (searchIndex != null) {
+            RestPage<ArticleDto.Summary> result = searchWithIndex(query, page, size);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        List<ArticleDto.Summary> content = articleRepository.searchSummaries(query, page * size, size);
+        // Halaman terakhir (tidak penuh) sudah menentukan total, count hanya jika masih ada halaman lain
+        long total = content.size() < size && (page == 0 || !content.isEmpty())
+                ? (long) page * size + content.size()
+                : articleRepository.countSearch(query);
+        return new RestPage<>(content, page, size, total);
+    }
+
+    /**
+     * Search lewat index in-memory, disambung dengan Postgres untuk artikel di luar window index.
+     *
+     * Urutan hasil: semua hit index (BM25), lalu artikel yang terbit sebelum windowStart (ts_rank).
+     * Halaman yang melewati hit index diisi dari Postgres mulai offset yang tersisa, dan total
+     * selalu = hit index + kecocokan di luar window, sehingga total tidak berubah antar halaman.
+     *
+     * Hit index yang sudah tidak ada di database (artikel dihapus) dibuang dari index dan query
+     * diulang, agar halaman tidak kurang isi dan total tidak ikut menghitung artikel yang hilang.
+     *
+     * @return null jika index belum siap atau query memakai operator yang tidak didukung index
+     *         (pemanggil memakai Postgres sepenuhnya)
+     */
+    private RestPage<ArticleDto.Summary> searchWithIndex(String query, int page, int size) {
+        int offset = page * size;
+        InvertedIndex.Hits hits;
+        List<ArticleDto.Summary> content;
+        int attempts = 0;
+        while (true) {
+            hits = searchIndex.search(query, offset, size);
+            if (hits == null) {
+                return null;
+            }
+            content = new ArrayList<>(articleRepository.findSummariesByIds(hits.articleIds()));
+            if (content.size() == hits.articleIds().length || ++attempts > MAX_PRUNE_ATTEMPTS) {
+                break;
+            }
+            Set<Long> missing = new HashSet<>();
+            for (long id : hits.articleIds()) missing.add(id);
+            content.forEach(summary -> missing.remove(summary.getId()));
+            log.debug("Index pencarian: {} artikel sudah tidak ada di database, dibuang dari index", missing.size());
+            searchIndex.prune(missing);
+        }
+        LocalDateTime windowStart = searchIndex.windowStart();
+        if (windowStart == null) {
+            return null;
+        }
+
+        int remaining = size - hits.articleIds().length;
+        if (remaining > 0) {
+            int olderOffset = Math.max(offset - hits.total(), 0);
+            List<ArticleDto.Summary> older =
+                    articleRepository.searchSummariesPublishedBefore(query, windowStart, olderOffset, remaining);
+            content.addAll(older);
+            // Halaman terakhir (tidak penuh) sudah menentukan total, sama seperti jalur Postgres
+            if (older.size() < remaining && (olderOffset == 0 || !older.isEmpty())) {
+                return new RestPage<>(content, page, size, (long) hits.total() + olderOffset + older.size());
+            }
+        }
+        long total = hits.total() + articleRepository.countSearchPublishedBefore(query, windowStart);
+        return new RestPage<>(content, page, size, total);
     }
 
     /**
      * Invalidasi cache artikel saat ada artikel baru masuk.
      * Dipanggil oleh CrawlerService setelah saveNewArticles() selesai.
      *
-     * @Caching memungkinkan kita pakai multiple @CacheEvict sekaligus:
-     * - Hapus semua entri di cache "articles" (list artikel)
-     * - Hapus semua entri di cache "search"
+     * Sebelumnya seluruh cache "articles" dan "search" dihapus setiap kali satu sumber
+     * menyimpan satu artikel; dengan puluhan sumber yang di-crawl tiap 15 menit, cache hampir
+     * tidak pernah HIT. Sekarang yang dihapus hanya key yang isinya bisa berubah:
+     * - halaman awal "all" (artikel baru selalu masuk di urutan teratas)
+     * - halaman awal kategori dan sumber dari artikel baru
+     *
+     * Halaman awal = page 0..evict-pages-1 untuk setiap ukuran di evict-page-sizes.
+     * Halaman yang lebih dalam atau ukuran lain bisa tertinggal paling lama sebesar TTL cache
+     * (5 menit), begitu juga hasil search (TTL 2 menit).
      *
      * Kenapa tidak hapus "article_detail"?
      * Karena detail artikel yang sudah ada tidak berubah, hanya ada artikel BARU.
      */
-    @Caching(evict = {
-        @CacheEvict(value = RedisConfig.CACHE_ARTICLES, allEntries = true),
-        @CacheEvict(value = RedisConfig.CACHE_SEARCH, allEntries = true)
-    })
-    public void invalidateArticleCache() {
-        log.info("[CACHE EVICT] Cache artikel dan search dihapus karena ada data baru");
+    public void invalidateArticleCache(Collection<String> categories, Collection<Long> sourceIds) {
+        Cache cache = cacheManager.getCache(RedisConfig.CACHE_ARTICLES);
+        if (cache == null) return;
+
+        int evicted = evictFirstPages(cache, "all_");
+        for (String category : categories) {
+            if (category == null || category.isBlank()) continue;
+            evicted += evictFirstPages(cache, "cat_" + category.toLowerCase(Locale.ROOT) + "_");
+        }
+        for (Long sourceId : sourceIds) {
+            if (sourceId == null) continue;
+            evicted += evictFirstPages(cache, "src_" + sourceId + "_");
+        }
+        log.debug("[CACHE EVICT] {} key artikel dihapus (kategori={}, sumber={})", evicted, categories, sourceIds);
+    }
+
+    private int evictFirstPages(Cache cache, String prefix) {
+        int count = 0;
+        for (int page = 0; page < evictPages; page++) {
+            for (int size : evictPageSizes) {
+                cache.evict(prefix + page + "_" + size);
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
@@ -0,0 +1,169 @@
+package com.app.news_aggregator.service;
+
+import com.app.news_aggregator.exception.ResourceNotFoundException;
+import com.app.news_aggregator.model.CrawlCycle;
+import com.app.news_aggregator.model.CrawlLog;
+import com.app.news_aggregator.repository.CrawlCycleRepository;
+import com.app.news_aggregator.repository.CrawlLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CrawlCycleService mengoordinasikan satu crawl cycle: fan-out ke banyak sumber lewat queue,
+ * lalu mengagregasi penyelesaiannya dari semua CrawlConsumer worker.
+ *
+ * Sebelumnya setelah pesan dikirim ke queue tidak ada yang tahu kapan crawl selesai,
+ * berapa lama end-to-end, atau sumber mana yang memperlambat. Sekarang:
+ * - startCycle()          → dipanggil sebelum enqueue, cycleId ikut di setiap CrawlRssMessage
+ * - recordSourceResult()  → dipanggil worker setelah satu sumber selesai (counter atomik di DB,
+ *                           aman untuk banyak worker / banyak instance)
+ * - getCycleMetrics()     → p50/p95/p99 latency per sumber, makespan, artikel/detik, straggler
+ *
+ * Paralelisme fan-out tetap dibatasi oleh jumlah consumer (app.crawler.consumers.*)
+ * dan HostRateLimiter per domain; metrik ini dipakai untuk menyetel angka tersebut.
+ */
+@Slf4j
+@Service
+public class CrawlCycleService {
+
+    private static final int STRAGGLER_LIMIT = 5;
+
+    private final CrawlCycleRepository crawlCycleRepository;
+    private final CrawlLogRepository crawlLogRepository;
+    private final long cycleTimeoutMinutes;
+
+    public CrawlCycleService(CrawlCycleRepository crawlCycleRepository,
+                             CrawlLogRepository crawlLogRepository,
+                             @Value("${app.crawler.cycle-timeout-minutes:60}") long cycleTimeoutMinutes) {
+        this.crawlCycleRepository = crawlCycleRepository;
+        this.crawlLogRepository = crawlLogRepository;
+        this.cycleTimeoutMinutes = cycleTimeoutMinutes;
+    }
+
+    /**
+     * Buat cycle baru untuk sejumlah sumber yang akan di-enqueue.
+     * Cycle lama yang masih RUNNING melewati batas waktu ditutup sebagai INCOMPLETE.
+     * Cycle tanpa sumber langsung COMPLETED: tidak akan ada consumer yang melaporkan hasilnya.
+     */
+    @Transactional
+    public CrawlCycle startCycle(CrawlCycle.Trigger trigger, int sourcesTotal) {
+        LocalDateTime now = LocalDateTime.now();
+        int stale = crawlCycleRepository.markStaleIncomplete(now.minusMinutes(cycleTimeoutMinutes), now);
+        if (stale > 0) {
+            log.warn("{} crawl cycle ditutup sebagai INCOMPLETE (lebih dari {} menit)", stale, cycleTimeoutMinutes);
+        }
+
+        boolean empty = sourcesTotal == 0;
+        CrawlCycle cycle = crawlCycleRepository.save(CrawlCycle.builder()
+                .triggerType(trigger)
+                .sourcesTotal(sourcesTotal)
+                .status(empty ? CrawlCycle.Status.COMPLETED : CrawlCycle.Status.RUNNING)
+                .startedAt(now)
+                .finishedAt(empty ? now : null)
+                .build());
+        log.info("Crawl cycle {} dimulai ({}, {} sumber)", cycle.getId(), trigger, sourcesTotal);
+        return cycle;
+    }
+
+    /**
+     * Catat hasil crawl satu sumber ke cycle-nya. Tidak melakukan apa-apa jika cycleId null
+     * (crawl manual satu sumber).
+     *
+     * @param result CrawlLog hasil crawl, atau null jika sumber dilewati (misalnya sudah dihapus)
+     */
+    @Transactional
+    public void recordSourceResult(Long cycleId, CrawlLog result) {
+        if (cycleId == null) {
+            return;
+        }
+        boolean failed = result == null || result.getStatus() == CrawlLog.CrawlStatus.FAILED;
+        int saved = result != null && result.getArticlesSaved() != null ? result.getArticlesSaved() : 0;
+
+        crawlCycleRepository.incrementCompleted(cycleId, failed ? 1 : 0, saved);
+        if (crawlCycleRepository.markCompletedIfDone(cycleId, LocalDateTime.now()) > 0) {
+            crawlCycleRepository.findById(cycleId).ifPresent(cycle ->
+                    log.info("Crawl cycle {} selesai: {} sumber ({} gagal), {} artikel baru dalam {}ms",
+                            cycle.getId(), cycle.getSourcesTotal(), cycle.getSourcesFailed(),
+                            cycle.getArticlesSaved(), makespanMs(cycle)));
+        }
+    }
+
+    /**
+     * Ringkasan cycle terbaru (tanpa percentile, untuk daftar).
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRecentCycles(int size) {
+        return crawlCycleRepository.findAllByOrderByStartedAtDesc(PageRequest.of(0, size))
+                .stream()
+                .map(this::summary)
+                .toList();
+    }
+
+    /**
+     * Metrik lengkap satu cycle: ringkasan + distribusi latency per sumber + straggler.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCycleMetrics(Long cycleId) {
+        CrawlCycle cycle = crawlCycleRepository.findById(cycleId)
+                .orElseThrow(() -> new ResourceNotFoundException("CrawlCycle", cycleId));
+
+        Map<String, Object> metrics = summary(cycle);
+
+        CrawlLogRepository.LatencyPercentiles latency = crawlLogRepository.findLatencyPercentilesByCycleId(cycleId);
+        Map<String, Object> latencyMs = new LinkedHashMap<>();
+        latencyMs.put("p50", latency != null ? latency.getP50() : null);
+        latencyMs.put("p95", latency != null ? latency.getP95() : null);
+        latencyMs.put("p99", latency != null ? latency.getP99() : null);
+        latencyMs.put("max", latency != null ? latency.getMax() : null);
+        metrics.put("sourceLatencyMs", latencyMs);
+
+        metrics.put("stragglers", crawlLogRepository.findSlowestByCycleId(cycleId, STRAGGLER_LIMIT)
+                .stream()
+                .map(s -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("sourceId", s.getSourceId());
+                    row.put("sourceName", s.getSourceName());
+                    row.put("status", s.getStatus());
+                    row.put("durationMs", s.getDurationMs());
+                    row.put("articlesSaved", s.getArticlesSaved());
+                    return row;
+                })
+                .toList());
+        return metrics;
+    }
+
+    private Map<String, Object> summary(CrawlCycle cycle) {
+        long makespanMs = makespanMs(cycle);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("id", cycle.getId());
+        summary.put("trigger", cycle.getTriggerType());
+        summary.put("status", cycle.getStatus());
+        summary.put("sourcesTotal", cycle.getSourcesTotal());
+        summary.put("sourcesCompleted", cycle.getSourcesCompleted());
+        summary.put("sourcesFailed", cycle.getSourcesFailed());
+        summary.put("sourcesPending", Math.max(0, cycle.getSourcesTotal() - cycle.getSourcesCompleted()));
+        summary.put("articlesSaved", cycle.getArticlesSaved());
+        summary.put("startedAt", cycle.getStartedAt());
+        summary.put("finishedAt", cycle.getFinishedAt());
+        summary.put("makespanMs", makespanMs);
+        summary.put("articlesPerSecond", makespanMs > 0 ? cycle.getArticlesSaved() * 1000.0 / makespanMs : 0.0);
+        return summary;
+    }
+
+    /**
+     * Durasi end-to-end cycle: dari enqueue sampai sumber terakhir selesai (atau sampai sekarang jika masih berjalan).
+     */
+    private static long makespanMs(CrawlCycle cycle) {
+        LocalDateTime end = cycle.getFinishedAt() != null ? cycle.getFinishedAt() : LocalDateTime.now();
+        return Duration.between(cycle.getStartedAt(), end).toMillis();
+    }
+}
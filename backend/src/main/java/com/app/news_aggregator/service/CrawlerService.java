@@ -1,8 +1,11 @@
 package com.app.news_aggregator.service;
 
-import com.app.news_aggregator.config.RedisConfig;
+import com.app.news_aggregator.crawler.CrawlIntervalPolicy;
+import com.app.news_aggregator.crawler.NearDuplicateDetector;
 import com.app.news_aggregator.crawler.RssFeedParser;
+import com.app.news_aggregator.crawler.SeenUrlFilter;
 import com.app.news_aggregator.model.Article;
+import com.app.news_aggregator.model.CrawlCycle;
 import com.app.news_aggregator.model.CrawlLog;
 import com.app.news_aggregator.model.Source;
 import com.app.news_aggregator.repository.ArticleRepository;
@@ -12,15 +15,16 @@ import com.app.news_aggregator.queue.CrawlProducer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 // import org.springframework.scheduling.annotation.Async;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * CrawlerService adalah orchestrator utama proses crawling.
@@ -41,36 +45,106 @@ public class CrawlerService {
     private final CrawlLogRepository crawlLogRepository;
     private final CrawlProducer crawlProducer;
     private final ArticleService articleService;
+    private final CrawlIntervalPolicy crawlIntervalPolicy;
+    private final SeenUrlFilter seenUrlFilter;
+    private final CrawlCycleService crawlCycleService;
+    private final NearDuplicateDetector nearDuplicateDetector;
+    private final SourceService sourceService;
 
     /**
-     * Enqueue crawl semua sumber aktif ke RabbitMQ.
-     * Dipanggil oleh Scheduler setiap 15 menit.
+     * Enqueue crawl hanya untuk sumber aktif yang sudah jatuh tempo (nextCrawlAt <= sekarang).
+     * Dipanggil oleh Scheduler setiap menit.
+     *
+     * Sebelum di-enqueue, nextCrawlAt digeser sejauh interval saat ini sebagai "lease",
+     * agar sumber yang masih antre di queue tidak di-enqueue ulang pada tick berikutnya.
+     * Nilai final dihitung ulang oleh crawlSource() setelah crawl selesai.
+     */
+    public void crawlDueSources() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Source> dueSources = sourceRepository.findDueForCrawl(now);
+        if (dueSources.isEmpty()) {
+            log.debug("Tidak ada sumber yang jatuh tempo untuk di-crawl");
+            return;
+        }
+
+        for (Source source : dueSources) {
+            source.setNextCrawlAt(now.plusMinutes(source.getCrawlIntervalMinutes()));
+        }
+        sourceRepository.saveAll(dueSources);
+
+        CrawlCycle cycle = crawlCycleService.startCycle(CrawlCycle.Trigger.SCHEDULED, dueSources.size());
+        log.info("Mengirim {} task crawl (sumber jatuh tempo) ke RabbitMQ queue", dueSources.size());
+        crawlProducer.enqueueCrawlSources(dueSources, cycle.getId());
+    }
+
+    /**
+     * Enqueue crawl semua sumber aktif ke RabbitMQ, tanpa melihat jadwal.
+     * Dipanggil dari trigger manual (CrawlerController).
      * Di Phase 3: tidak crawl langsung, tapi kirim pesan ke queue.
+     *
+     * @return crawl cycle yang dibuat, untuk dipantau lewat GET /api/v1/crawler/cycles/{id}
      */
-    public void crawlAllActiveSources() {
+    public CrawlCycle crawlAllActiveSources() {
         List<Source> activeSources = sourceRepository.findByIsActiveTrue();
+        CrawlCycle cycle = crawlCycleService.startCycle(CrawlCycle.Trigger.MANUAL, activeSources.size());
         log.info("Mengirim {} task crawl ke RabbitMQ queue", activeSources.size());
-        crawlProducer.enqueueCrawlSources(activeSources);
+        crawlProducer.enqueueCrawlSources(activeSources, cycle.getId());
+        return cycle;
     }
 
     /**
      * Crawl satu sumber secara sinkron.
      * Dipanggil oleh CrawlConsumer (Worker) saat consume pesan dari queue.
      * Juga bisa dipanggil langsung dari CrawlerController (manual trigger).
+     *
+     * Sengaja TIDAK @Transactional: fetch feed bisa memakan waktu hingga timeout,
+     * dan transaksi di level method akan menahan koneksi DB (pool hanya 10) selama
+     * menunggu publisher. Setiap operasi repository di bawah berjalan di transaksinya
+     * sendiri yang singkat, setelah fetch selesai.
      */
-    @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = RedisConfig.CACHE_SOURCES, allEntries = true),
-        @CacheEvict(value = RedisConfig.CACHE_CATEGORIES, allEntries = true)
-    })
     public CrawlLog crawlSource(Source source) {
+        return crawlSource(source, null);
+    }
+
+    /**
+     * Crawl satu sumber sebagai bagian dari crawl cycle.
+     * cycleId disimpan di CrawlLog agar latency per sumber bisa diagregasi per cycle.
+     *
+     * Cache "sources" hanya di-evict jika crawl status sumber berubah, "categories" tidak
+     * disentuh (kategori hanya berubah lewat SourceService).
+     */
+    public CrawlLog crawlSource(Source source, Long cycleId) {
         log.info("Crawl sumber: {} (ID: {})", source.getName(), source.getId());
         long startTime = System.currentTimeMillis();
-        CrawlLog.CrawlLogBuilder logBuilder = CrawlLog.builder().source(source);
+        Source.CrawlStatus previousStatus = source.getCrawlStatus();
+        CrawlLog.CrawlLogBuilder logBuilder = CrawlLog.builder().source(source).cycleId(cycleId);
 
         try {
-            // Step 1: Parse RSS feed
-            List<Article> parsedArticles = rssFeedParser.parseFeed(source);
+            // Step 1: Parse RSS feed (conditional GET dengan ETag / Last-Modified)
+            // Validator baru baru dipasang ke source setelah artikelnya tersimpan dan di-enqueue:
+            // jika langkah berikutnya gagal, validator lama tetap dipakai agar crawl berikutnya
+            // tidak mendapat 304 dan artikel baru di feed ini tidak hilang.
+            RssFeedParser.FeedResult feed = rssFeedParser.parseFeed(source);
+
+            // Feed tidak berubah (HTTP 304) → tidak ada yang perlu dideduplikasi/disimpan
+            if (feed.notModified()) {
+                source.setFeedEtag(feed.etag());
+                source.setFeedLastModified(feed.lastModified());
+                source.setLastCrawledAt(LocalDateTime.now());
+                source.setCrawlStatus(Source.CrawlStatus.SUCCESS);
+                source.setErrorMessage(null);
+                scheduleNextCrawl(source, List.of(), 0);
+                saveSource(source, previousStatus);
+
+                long duration = System.currentTimeMillis() - startTime;
+                log.info("Crawl selesai '{}': feed tidak berubah ({}ms)", source.getName(), duration);
+
+                return crawlLogRepository.save(logBuilder
+                        .status(CrawlLog.CrawlStatus.UNCHANGED)
+                        .durationMs(duration).build());
+            }
+
+            List<Article> parsedArticles = feed.articles();
             logBuilder.articlesFound(parsedArticles.size());
 
             // Step 2: Filter duplikat dan simpan artikel baru
@@ -80,16 +154,27 @@ public class CrawlerService {
 
             // Step 3: Kirim task scraping ke queue (BUKAN langsung scrape)
             // ScrapeConsumer yang akan proses satu per satu secara async via RabbitMQ
+            // Near-duplicate tidak di-scrape: kontennya sama dengan artikel kanonik
             if (!savedArticles.isEmpty()) {
-                articleService.invalidateArticleCache();
-                crawlProducer.enqueueScrapeArticles(savedArticles);
+                articleService.invalidateArticleCache(
+                        savedArticles.stream().map(Article::getCategory).collect(Collectors.toSet()),
+                        List.of(source.getId()));
+                List<Article> toScrape = savedArticles.stream()
+                        .filter(article -> article.getDuplicateOfId() == null)
+                        .toList();
+                if (!toScrape.isEmpty()) {
+                    crawlProducer.enqueueScrapeArticles(toScrape);
+                }
             }
 
-            // Step 4: Update status source
+            // Step 4: Update validator, status source + jadwal crawl berikutnya
+            source.setFeedEtag(feed.etag());
+            source.setFeedLastModified(feed.lastModified());
             source.setLastCrawledAt(LocalDateTime.now());
             source.setCrawlStatus(Source.CrawlStatus.SUCCESS);
             source.setErrorMessage(null);
-            sourceRepository.save(source);
+            scheduleNextCrawl(source, parsedArticles, savedArticles.size());
+            saveSource(source, previousStatus);
 
             long duration = System.currentTimeMillis() - startTime;
             log.info("Crawl selesai '{}': {} ditemukan, {} baru ({}ms)",
@@ -104,7 +189,8 @@ public class CrawlerService {
             log.error("Crawl gagal '{}': {}", source.getName(), e.getMessage(), e);
             source.setCrawlStatus(Source.CrawlStatus.ERROR);
             source.setErrorMessage(e.getMessage());
-            sourceRepository.save(source);
+            scheduleNextCrawl(source, List.of(), 0);
+            saveSource(source, previousStatus);
 
             return crawlLogRepository.save(logBuilder
                     .status(CrawlLog.CrawlStatus.FAILED)
@@ -113,30 +199,115 @@ public class CrawlerService {
         }
     }
 
+    /**
+     * Simpan source setelah crawl; cache sumber hanya dibuang jika crawl status-nya berubah.
+     */
+    private void saveSource(Source source, Source.CrawlStatus previousStatus) {
+        sourceRepository.save(source);
+        if (source.getCrawlStatus() != previousStatus) {
+            sourceService.evictCrawledSource(source);
+        }
+    }
+
+    /**
+     * Hitung interval adaptif dan set nextCrawlAt sumber (belum disimpan ke DB).
+     */
+    private void scheduleNextCrawl(Source source, List<Article> parsedArticles, int savedCount) {
+        List<CrawlLog> recentLogs = crawlLogRepository.findTop10BySourceIdOrderByCrawledAtDesc(source.getId());
+        int interval = crawlIntervalPolicy.nextIntervalMinutes(source, parsedArticles, savedCount, recentLogs);
+        source.setCrawlIntervalMinutes(interval);
+        source.setNextCrawlAt(LocalDateTime.now().plusMinutes(interval));
+    }
+
     /**
      * Filter duplikat, simpan artikel baru, return list artikel yang tersimpan.
      * Return List<Article> (bukan int) karena butuh ID artikel untuk enqueue scraping.
+     *
+     * Tiga tahap cek duplikat:
+     * 1. Buang entry kembar di feed yang sama
+     * 2. SeenUrlFilter memisahkan entry yang PASTI baru dari yang MUNGKIN sudah ada
+     * 3. Hanya entry "mungkin ada" yang dicek ke DB, sekaligus dalam satu query (findExistingKeys)
+     *
+     * Artikel baru yang isinya mirip artikel lain (berita sindikasi dari sumber berbeda)
+     * tetap disimpan, tapi ditandai near-duplicate oleh NearDuplicateDetector.
+     *
+     * Insert memakai ON CONFLICT DO NOTHING atas UNIQUE(url) dan UNIQUE(source_id, guid):
+     * artikel yang disimpan worker/instance lain (belum tercatat di SeenUrlFilter instance ini),
+     * oleh crawl paralel feed lain, atau artikel yang sama dengan URL berubah (GUID sama)
+     * dilewati tanpa menggagalkan seluruh batch. Karena itu entry "pasti baru" aman
+     * di-insert tanpa cek ke DB.
      */
     private List<Article> saveNewArticles(List<Article> articles) {
-        List<Article> newArticles = new ArrayList<>();
-
+        // Step 1: dedup dalam feed
+        List<Article> uniqueArticles = new ArrayList<>();
+        Set<String> feedUrls = new HashSet<>();
+        Set<String> feedGuids = new HashSet<>();
         for (Article article : articles) {
-            boolean isDuplicate = article.getUrl() != null
-                    && articleRepository.existsByUrl(article.getUrl());
+            if (article.getUrl() == null || !feedUrls.add(article.getUrl())) continue;
+            if (hasDistinctGuid(article) && !feedGuids.add(article.getGuid())) continue;
+            uniqueArticles.add(article);
+        }
 
-            if (!isDuplicate && article.getGuid() != null
-                    && !article.getGuid().equals(article.getUrl())) {
-                isDuplicate = articleRepository.existsByGuid(article.getGuid());
+        // Step 2: Bloom filter — kumpulkan key yang perlu diverifikasi ke DB
+        boolean[] maybeSeen = new boolean[uniqueArticles.size()];
+        boolean[] checkDb = new boolean[uniqueArticles.size()];
+        Set<String> urls = new HashSet<>();
+        Set<String> guids = new HashSet<>();
+        for (int i = 0; i < uniqueArticles.size(); i++) {
+            Article article = uniqueArticles.get(i);
+            maybeSeen[i] = seenUrlFilter.mightContain(article);
+            // Entry "pasti baru" yang ternyata sudah ada (disimpan instance lain) tertahan ON CONFLICT saat insert
+            checkDb[i] = maybeSeen[i];
+            if (checkDb[i]) {
+                urls.add(article.getUrl());
+                guids.add(hasDistinctGuid(article) ? article.getGuid() : article.getUrl());
+            } else {
+                seenUrlFilter.recordDbCheckSkipped();
             }
+        }
 
-            if (!isDuplicate) newArticles.add(article);
+        // Step 3: satu query untuk semua entry yang perlu dicek
+        Set<String> existingUrls = new HashSet<>();
+        Set<String> existingGuids = new HashSet<>();
+        if (!urls.isEmpty()) {
+            for (ArticleRepository.ExistingKey key : articleRepository.findExistingKeys(urls, guids)) {
+                existingUrls.add(key.getUrl());
+                if (key.getGuid() != null) existingGuids.add(key.getGuid());
+            }
         }
 
-        if (!newArticles.isEmpty()) {
-            newArticles = articleRepository.saveAll(newArticles); // return dengan ID terisi
+        List<Article> newArticles = new ArrayList<>();
+        for (int i = 0; i < uniqueArticles.size(); i++) {
+            Article article = uniqueArticles.get(i);
+            boolean isDuplicate = checkDb[i]
+                    && (existingUrls.contains(article.getUrl())
+                        || (hasDistinctGuid(article) && existingGuids.contains(article.getGuid())));
+
+            if (isDuplicate) {
+                seenUrlFilter.put(article); // pastikan tercatat (misalnya disimpan instance lain)
+            } else {
+                if (maybeSeen[i]) seenUrlFilter.recordFalsePositive();
+                newArticles.add(article);
+            }
         }
 
-        log.debug("{} artikel baru dari {} total di feed", newArticles.size(), articles.size());
-        return newArticles;
+        // Near-duplicate dari artikel lain di batch ini di-insert setelah kanoniknya (butuh ID kanonik)
+        Map<Article, Article> batchDuplicates = nearDuplicateDetector.assignClusters(newArticles);
+        List<Article> insertedArticles = new ArrayList<>(articleRepository.insertIgnoringDuplicates(
+                newArticles.stream().filter(article -> !batchDuplicates.containsKey(article)).toList())); // ID terisi
+        if (!batchDuplicates.isEmpty()) {
+            nearDuplicateDetector.resolveBatchDuplicates(batchDuplicates);
+            insertedArticles.addAll(articleRepository.insertIgnoringDuplicates(new ArrayList<>(batchDuplicates.keySet())));
+        }
+        newArticles.forEach(seenUrlFilter::put); // termasuk yang bentrok: URL/GUID-nya memang sudah ada di DB
+
+        log.debug("{} artikel baru dari {} total di feed ({} dicek ke DB, {} bentrok saat insert)",
+                insertedArticles.size(), articles.size(), urls.size(),
+                newArticles.size() - insertedArticles.size());
+        return insertedArticles;
+    }
+
+    private static boolean hasDistinctGuid(Article article) {
+        return article.getGuid() != null && !article.getGuid().equals(article.getUrl());
     }
 }
\ No newline at end of file
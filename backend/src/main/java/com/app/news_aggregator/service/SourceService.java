@@ -32,6 +32,8 @@ import java.util.stream.Collectors;
  * pola invalidasi :
  * - Create/Update/Delete source -> @CacheEvict("sources") + @CacheEvict("categories")
  * - sehingga request berikutnya akan fresh dari DB
+ * - Crawl hanya meng-evict entri sumber yang crawl status-nya berubah (evictCrawledSource),
+ *   kategori tidak pernah berubah karena crawl
  */
 @Slf4j
 @Service
@@ -196,6 +198,20 @@ public class SourceService {
         log.info("Sumber RSS berhasil dihapus: {}", id);
     }
 
+    /**
+     * Hapus entri cache "sources" yang memuat sumber ini: list semua, detail, dan list per kategori.
+     * Dipanggil CrawlerService hanya saat crawl status sumber berubah (mis. SUCCESS → ERROR);
+     * lastCrawledAt yang bergeser di setiap crawl boleh tertinggal sampai TTL.
+     */
+    @Caching(evict = {
+        @CacheEvict(value = RedisConfig.CACHE_SOURCES, key = "'all'"),
+        @CacheEvict(value = RedisConfig.CACHE_SOURCES, key = "'id_' + #source.id"),
+        @CacheEvict(value = RedisConfig.CACHE_SOURCES, key = "'cat_' + #source.category", condition = "#source.category != null")
+    })
+    public void evictCrawledSource(Source source) {
+        log.debug("[CACHE EVICT] Cache sumber '{}' dihapus karena crawl status berubah", source.getName());
+    }
+
     /**
      * Helper method: ambil Source atau lempar exception jika tidak ditemukan.
      * Private karena hanya dipakai di dalam service ini.
@@ -0,0 +1,48 @@
+package com.app.news_aggregator.util;
+
+import com.app.news_aggregator.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * ArticleCursor adalah posisi di list artikel untuk keyset pagination: (publishedAt, id)
+ * artikel terakhir yang sudah dikirim ke client. Halaman berikutnya = artikel yang urutannya
+ * setelah posisi ini, id memecah seri untuk artikel dengan publishedAt yang sama.
+ *
+ * Dikirim ke client sebagai string base64url yang opaque ("2024-01-15T08:30|1234"),
+ * agar format internalnya bisa berubah tanpa mengubah kontrak API.
+ */
+public record ArticleCursor(LocalDateTime publishedAt, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = publishedAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode cursor dari client.
+     *
+     * @return null jika cursor kosong (halaman pertama)
+     * @throws BadRequestException jika cursor tidak valid
+     */
+    public static ArticleCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Cursor tidak valid");
+            }
+            return new ArticleCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Cursor tidak valid");
+        }
+    }
+}
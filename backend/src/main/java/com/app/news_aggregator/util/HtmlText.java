@@ -0,0 +1,255 @@
+package com.app.news_aggregator.util;
+
+import org.jsoup.nodes.Entities;
+
+/**
+ * HtmlText mengubah potongan HTML (deskripsi RSS) menjadi teks biasa tanpa membangun DOM.
+ *
+ * Sebelumnya setiap deskripsi entry diproses dengan Jsoup.parse(html).text(): satu Document
+ * lengkap per entry hanya untuk membuang tag dan decode entity, lalu hasilnya dipotong 500 karakter.
+ * Di sini HTML dibaca sekali dari kiri ke kanan, teks langsung ditulis ke satu StringBuilder,
+ * dan pembacaan berhenti begitu jumlah karakter yang dibutuhkan sudah terkumpul.
+ *
+ * Hasilnya mengikuti Jsoup text() untuk kasus umum di feed berita:
+ * - Tag dibuang; tag block (p, div, br, li, ...) menjadi pemisah spasi
+ * - Isi script/style dan komentar dibuang; isi CDATA dianggap teks apa adanya (tag dan entity tidak diproses)
+ * - Entity bernama (&amp;amp; &amp;nbsp; ...) dan numerik (&amp;#8217; &amp;#x2019;) di-decode
+ * - Whitespace berurutan (termasuk nbsp) diringkas jadi satu spasi, awal/akhir di-trim
+ */
+public final class HtmlText {
+
+    private static final String ELLIPSIS = "...";
+    private static final String CDATA_OPEN = "<![CDATA[";
+    private static final String CDATA_CLOSE = "]]>";
+
+    // Tag yang di browser memisahkan teks (Jsoup text() menyisipkan spasi)
+    private static final String[] BLOCK_TAGS = {
+        "p", "br", "div", "li", "ul", "ol", "h1", "h2", "h3", "h4", "h5", "h6",
+        "tr", "td", "th", "table", "blockquote", "section", "article", "figure", "figcaption", "hr"
+    };
+
+    private HtmlText() {
+    }
+
+    /**
+     * Teks dari HTML, dipotong maksimal maxLength karakter dengan "..." di akhir jika terpotong.
+     * Contoh: excerpt("&lt;p&gt;Hello &amp;amp; World&lt;/p&gt;", 500) → "Hello &amp; World"
+     */
+    public static String excerpt(String html, int maxLength) {
+        if (html == null) return null;
+        // Ambil satu karakter lebih untuk tahu apakah teks perlu dipotong
+        String text = toText(html, maxLength + 1);
+        if (text.length() > maxLength) {
+            return text.substring(0, maxLength - ELLIPSIS.length()) + ELLIPSIS;
+        }
+        return text;
+    }
+
+    /**
+     * Teks dari HTML, berhenti setelah maxChars karakter terkumpul.
+     */
+    public static String toText(String html, int maxChars) {
+        if (html == null) return null;
+
+        StringBuilder out = new StringBuilder(Math.min(html.length(), maxChars));
+        int[] codepoints = new int[2];
+        boolean pendingSpace = false;
+        int i = 0;
+        int len = html.length();
+        int cdataEnd = -1; // posisi "]]>" penutup selama berada di dalam CDATA
+
+        while (i < len && out.length() < maxChars) {
+            char c = html.charAt(i);
+
+            if (cdataEnd >= 0 && i == cdataEnd) {
+                i += CDATA_CLOSE.length();
+                cdataEnd = -1;
+                continue;
+            }
+            if (cdataEnd < 0 && c == '<' && html.startsWith(CDATA_OPEN, i)) {
+                i += CDATA_OPEN.length();
+                int close = html.indexOf(CDATA_CLOSE, i);
+                cdataEnd = close < 0 ? len : close;
+                continue;
+            }
+
+            if (c == '<' && cdataEnd < 0) {
+                int tagEnd = skipMarkup(html, i);
+                if (tagEnd > i) {
+                    if (isBlockBoundary(html, i)) pendingSpace = true;
+                    i = tagEnd;
+                    continue;
+                }
+                // '<' yang bukan awal tag (misalnya "a < b") → teks biasa
+            }
+
+            int codepoint;
+            if (c == '&' && cdataEnd < 0) {
+                int entityEnd = decodeEntity(html, i, codepoints);
+                if (entityEnd > i) {
+                    codepoint = codepoints[0];
+                    i = entityEnd;
+                } else {
+                    codepoint = c;
+                    i++;
+                }
+            } else {
+                codepoint = c;
+                i++;
+            }
+
+            if (isWhitespace(codepoint)) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace && out.length() > 0) {
+                out.append(' ');
+                if (out.length() >= maxChars) break;
+            }
+            pendingSpace = false;
+            out.appendCodePoint(codepoint);
+        }
+
+        if (out.length() > maxChars) {
+            out.setLength(maxChars);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Lewati tag, komentar, atau deklarasi yang dimulai di posisi start ('<').
+     * Isi elemen script/style ikut dilewati.
+     *
+     * @return posisi setelah markup, atau start jika '<' bukan awal markup
+     */
+    private static int skipMarkup(String html, int start) {
+        int len = html.length();
+        if (start + 1 >= len) return start;
+        char next = html.charAt(start + 1);
+
+        if (html.startsWith("<!--", start)) {
+            int end = html.indexOf("-->", start + 4);
+            return end < 0 ? len : end + 3;
+        }
+        if (next != '/' && next != '!' && next != '?' && !isAsciiLetter(next)) {
+            return start;
+        }
+
+        int end = tagEnd(html, start + 1);
+        if (next != '/' && (tagNameIs(html, start + 1, "script") || tagNameIs(html, start + 1, "style"))) {
+            String closing = tagNameIs(html, start + 1, "script") ? "</script" : "</style";
+            int close = indexOfIgnoreCase(html, closing, end);
+            return close < 0 ? len : tagEnd(html, close + 1);
+        }
+        return end;
+    }
+
+    /**
+     * Posisi setelah '>' penutup tag, mengabaikan '>' di dalam nilai atribut bertanda kutip.
+     */
+    private static int tagEnd(String html, int from) {
+        char quote = 0;
+        for (int i = from; i < html.length(); i++) {
+            char c = html.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+        return html.length();
+    }
+
+    /**
+     * Decode entity di posisi start ('&') ke codepoints[0].
+     *
+     * @return posisi setelah entity, atau start jika bukan entity yang dikenal
+     */
+    private static int decodeEntity(String html, int start, int[] codepoints) {
+        int len = html.length();
+        int i = start + 1;
+        if (i >= len) return start;
+
+        if (html.charAt(i) == '#') {
+            i++;
+            int radix = 10;
+            if (i < len && (html.charAt(i) == 'x' || html.charAt(i) == 'X')) {
+                radix = 16;
+                i++;
+            }
+            int digitsStart = i;
+            int value = 0;
+            while (i < len && Character.digit(html.charAt(i), radix) >= 0 && i - digitsStart < 7) {
+                value = value * radix + Character.digit(html.charAt(i), radix);
+                i++;
+            }
+            if (i == digitsStart || !Character.isValidCodePoint(value) || value == 0) return start;
+            if (i < len && html.charAt(i) == ';') i++;
+            codepoints[0] = value;
+            return i;
+        }
+
+        int nameStart = i;
+        while (i < len && Character.isLetterOrDigit(html.charAt(i)) && i - nameStart < 32) {
+            i++;
+        }
+        if (i == nameStart || i >= len || html.charAt(i) != ';') return start;
+
+        int decoded = decodeCommonEntity(html, nameStart, i);
+        if (decoded < 0) {
+            if (Entities.codepointsForName(html.substring(nameStart, i), codepoints) == 0) return start;
+            decoded = codepoints[0];
+        }
+        codepoints[0] = decoded;
+        return i + 1;
+    }
+
+    /**
+     * Jalur cepat untuk entity yang paling sering muncul di feed, tanpa alokasi String.
+     */
+    private static int decodeCommonEntity(String html, int from, int to) {
+        int length = to - from;
+        if (length == 3 && html.startsWith("amp", from)) return '&';
+        if (length == 2 && html.startsWith("lt", from)) return '<';
+        if (length == 2 && html.startsWith("gt", from)) return '>';
+        if (length == 4 && html.startsWith("quot", from)) return '"';
+        if (length == 4 && html.startsWith("apos", from)) return '\'';
+        if (length == 4 && html.startsWith("nbsp", from)) return '\u00A0';
+        return -1;
+    }
+
+    private static boolean isBlockBoundary(String html, int tagStart) {
+        int nameStart = tagStart + 1;
+        if (nameStart < html.length() && html.charAt(nameStart) == '/') nameStart++;
+        for (String tag : BLOCK_TAGS) {
+            if (tagNameIs(html, nameStart, tag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cek apakah nama tag di posisi from sama dengan name (case-insensitive, diikuti non-huruf).
+     */
+    private static boolean tagNameIs(String html, int from, String name) {
+        int end = from + name.length();
+        if (end > html.length() || !html.regionMatches(true, from, name, 0, name.length())) return false;
+        return end == html.length() || !Character.isLetterOrDigit(html.charAt(end));
+    }
+
+    private static int indexOfIgnoreCase(String html, String needle, int from) {
+        for (int i = from; i <= html.length() - needle.length(); i++) {
+            if (html.regionMatches(true, i, needle, 0, needle.length())) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u00A0';
+    }
+}
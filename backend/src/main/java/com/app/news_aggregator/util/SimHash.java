@@ -0,0 +1,109 @@
+package com.app.news_aggregator.util;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * SimHash 64-bit untuk mendeteksi teks yang hampir sama (near-duplicate).
+ *
+ * Teks dipecah menjadi kata; setiap kata di-hash 64-bit, lalu untuk setiap posisi bit
+ * dijumlahkan +1 (bit 1) atau -1 (bit 0). Bit fingerprint = 1 jika jumlahnya positif.
+ * Dua teks yang hanya beda beberapa kata menghasilkan fingerprint yang hanya beda
+ * beberapa bit (Hamming distance kecil), berbeda dengan hash biasa.
+ *
+ * Untuk pencarian kandidat, fingerprint dibagi menjadi 8 band x 8 bit (LSH):
+ * dua fingerprint dengan distance <= 7 pasti sama persis di minimal satu band.
+ * Judul + deskripsi berita hanya puluhan kata, sehingga satu kata yang berbeda bisa
+ * menggeser 4-5 bit; band yang lebih kecil dibutuhkan agar threshold cukup longgar.
+ */
+public final class SimHash {
+
+    public static final int BANDS = 8;
+    private static final int BAND_BITS = 64 / BANDS;
+
+    // Kata yang terlalu umum untuk membedakan berita (bahasa Indonesia + sedikit Inggris)
+    private static final Set<String> STOPWORDS = Set.of(
+        "yang", "dan", "di", "ke", "dari", "ini", "itu", "dengan", "untuk", "pada", "adalah",
+        "dalam", "akan", "tidak", "juga", "atau", "oleh", "sebagai", "telah", "sudah", "bisa",
+        "ada", "karena", "saat", "para", "lebih", "kata", "hingga", "masih", "baca", "tersebut",
+        "the", "of", "and", "to", "in", "a", "is", "for"
+    );
+
+    private SimHash() {
+    }
+
+    /**
+     * Fingerprint teks, atau null jika jumlah kata yang berarti kurang dari minTokens
+     * (teks terlalu pendek → fingerprint mudah bertabrakan).
+     */
+    public static Long fingerprint(String text, int minTokens) {
+        if (text == null) return null;
+
+        int[] weights = new int[64];
+        int tokens = 0;
+        int len = text.length();
+        int i = 0;
+        while (i < len) {
+            while (i < len && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < len && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i - start < 2) continue;
+
+            String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+            if (STOPWORDS.contains(token)) continue;
+
+            long hash = hash64(token);
+            for (int bit = 0; bit < 64; bit++) {
+                weights[bit] += ((hash >>> bit) & 1) != 0 ? 1 : -1;
+            }
+            tokens++;
+        }
+        if (tokens < minTokens) return null;
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) fingerprint |= 1L << bit;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Key band LSH dari fingerprint untuk satu bucket waktu (hari sejak epoch).
+     * Format: (bucket << 11) | (index band << 8) | 8 bit band.
+     *
+     * Bucket waktu ikut di dalam key agar posting list index GIN hanya berisi artikel
+     * dari hari yang sama: tanpa bucket, satu nilai band 8-bit cocok dengan 1/256 seluruh tabel.
+     */
+    public static int[] bandKeys(long fingerprint, long bucket) {
+        int[] keys = new int[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            int bits = (int) ((fingerprint >>> (band * BAND_BITS)) & ((1 << BAND_BITS) - 1));
+            keys[band] = (int) (bucket << 11) | (band << BAND_BITS) | bits;
+        }
+        return keys;
+    }
+
+    /**
+     * Jumlah bit yang berbeda antara dua fingerprint.
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * FNV-1a 64-bit + finalizer MurmurHash3 (sama dengan SeenUrlFilter).
+     */
+    private static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,86 @@
+package com.app.news_aggregator.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * UrlCanonicalizer menormalkan URL artikel agar varian URL yang menunjuk ke halaman yang sama
+ * menghasilkan string yang sama.
+ *
+ * Link di RSS sering membawa parameter tracking (utm_source dari feed, fbclid dari share),
+ * sehingga satu artikel bisa tersimpan, di-scrape, dan di-cache beberapa kali.
+ *
+ * Normalisasi yang dilakukan:
+ * - scheme dan host lowercase, port default (80/443) dibuang
+ * - parameter tracking (utm_*, fbclid, gclid, ...) dibuang; parameter lain tetap dengan urutan aslinya
+ * - fragment (#...) dibuang, path kosong menjadi "/"
+ *
+ * Scheme tidak diubah (http tidak dipaksa menjadi https) dan www tidak dibuang:
+ * keduanya bisa menunjuk ke server yang berbeda.
+ */
+public final class UrlCanonicalizer {
+
+    // Hanya parameter yang dikenal sebagai tracking. Nama umum seperti ref, share, amp, atau page
+    // tidak dibuang: di sebagian situs parameter itu memilih konten/versi halaman yang berbeda.
+    private static final Set<String> TRACKING_PARAMS = Set.of(
+        "fbclid", "gclid", "dclid", "msclkid", "yclid", "igshid", "mc_cid", "mc_eid",
+        "_ga", "_gl", "ref_src", "cmpid"
+    );
+
+    private UrlCanonicalizer() {
+    }
+
+    /**
+     * URL kanonik, atau URL asli (di-trim) jika tidak bisa di-parse.
+     */
+    public static String canonicalize(String url) {
+        if (url == null) return null;
+        String trimmed = url.trim();
+        URI uri;
+        try {
+            uri = new URI(trimmed);
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+        if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+            return trimmed;
+        }
+
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        StringBuilder canonical = new StringBuilder(trimmed.length()).append(scheme).append("://");
+        if (uri.getRawUserInfo() != null) {
+            canonical.append(uri.getRawUserInfo()).append('@');
+        }
+        String host = uri.getHost() != null ? uri.getHost() : uri.getRawAuthority();
+        canonical.append(host.toLowerCase(Locale.ROOT));
+        int port = uri.getPort();
+        if (port != -1 && !(port == 80 && "http".equals(scheme)) && !(port == 443 && "https".equals(scheme))) {
+            canonical.append(':').append(port);
+        }
+
+        String path = uri.getRawPath();
+        canonical.append(path == null || path.isEmpty() ? "/" : path);
+
+        String query = stripTrackingParams(uri.getRawQuery());
+        if (!query.isEmpty()) {
+            canonical.append('?').append(query);
+        }
+        return canonical.toString();
+    }
+
+    private static String stripTrackingParams(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) return "";
+        StringBuilder kept = new StringBuilder(rawQuery.length());
+        for (String param : rawQuery.split("&")) {
+            if (param.isEmpty()) continue;
+            int eq = param.indexOf('=');
+            String name = (eq < 0 ? param : param.substring(0, eq)).toLowerCase(Locale.ROOT);
+            if (name.startsWith("utm_") || TRACKING_PARAMS.contains(name)) continue;
+            if (!kept.isEmpty()) kept.append('&');
+            kept.append(param);
+        }
+        return kept.toString();
+    }
+}
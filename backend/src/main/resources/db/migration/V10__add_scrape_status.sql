@@ -0,0 +1,33 @@
+-- ============================================================
+-- V10__add_scrape_status.sql
+-- Status scraping per artikel: satu sumber kebenaran untuk semua jalur
+-- scraping (poller terjadwal dan ScrapeConsumer RabbitMQ).
+--
+-- PENDING     → belum di-scrape, boleh diklaim
+-- IN_PROGRESS → sedang dikerjakan sampai scrape_lease_until;
+--               lease yang lewat boleh diklaim ulang (worker mati)
+-- DONE        → konten berhasil di-fetch
+-- FAILED      → fetch/ekstraksi gagal
+-- SKIPPED     → near-duplicate, tidak perlu di-scrape
+--
+-- is_scraped tetap dipertahankan (dipakai API) dan selalu
+-- = scrape_status IN ('DONE', 'FAILED', 'SKIPPED').
+-- ============================================================
+
+ALTER TABLE articles
+    ADD COLUMN IF NOT EXISTS scrape_status   VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    ADD COLUMN IF NOT EXISTS scrape_attempts INTEGER     NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN articles.scrape_status IS 'PENDING / IN_PROGRESS / DONE / FAILED / SKIPPED';
+COMMENT ON COLUMN articles.scrape_attempts IS 'Jumlah klaim; > 1 berarti lease sebelumnya kedaluwarsa atau dicoba ulang';
+
+-- Backfill dari kolom lama
+UPDATE articles SET scrape_status = 'DONE'    WHERE is_scraped = TRUE AND content IS NOT NULL;
+UPDATE articles SET scrape_status = 'FAILED'  WHERE is_scraped = TRUE AND content IS NULL;
+UPDATE articles SET scrape_status = 'SKIPPED' WHERE is_scraped = FALSE AND duplicate_of_id IS NOT NULL;
+UPDATE articles SET is_scraped = TRUE         WHERE scrape_status = 'SKIPPED';
+
+-- Index antrian klaim: hanya artikel yang masih perlu dikerjakan
+DROP INDEX IF EXISTS idx_articles_unscraped;
+CREATE INDEX IF NOT EXISTS idx_articles_scrape_queue ON articles(created_at DESC)
+    WHERE scrape_status IN ('PENDING', 'IN_PROGRESS');
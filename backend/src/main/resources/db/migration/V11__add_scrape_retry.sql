@@ -0,0 +1,19 @@
+-- ============================================================
+-- V11__add_scrape_retry.sql
+-- Klasifikasi kegagalan scraping + retry dengan backoff.
+--
+-- Sebelumnya setiap kegagalan langsung ditandai selesai (is_scraped = TRUE):
+-- timeout sesaat hilang permanen. Sekarang:
+--   TRANSIENT → kembali PENDING dengan scrape_next_retry_at (backoff bertingkat)
+--   PERMANENT → FAILED (404/410, bukan HTML, URL tidak valid)
+--   BLOCKED   → FAILED (401/403/451)
+-- Jumlah percobaan memakai scrape_attempts (V10).
+-- ============================================================
+
+ALTER TABLE articles
+    ADD COLUMN IF NOT EXISTS scrape_failure       VARCHAR(20),
+    ADD COLUMN IF NOT EXISTS scrape_next_retry_at TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS scrape_last_error    VARCHAR(500);
+
+COMMENT ON COLUMN articles.scrape_failure IS 'TRANSIENT / PERMANENT / BLOCKED — klasifikasi kegagalan terakhir';
+COMMENT ON COLUMN articles.scrape_next_retry_at IS 'Artikel PENDING tidak diklaim sebelum waktu ini';
@@ -0,0 +1,20 @@
+-- ============================================================
+-- V12__add_articles_keyset_indexes.sql
+-- Keyset pagination list artikel: urut (published_at, id) menurun,
+-- halaman berikutnya dicari dengan (published_at, id) < cursor.
+-- Index komposit per mode list agar seek + LIMIT langsung dari index,
+-- tanpa OFFSET scan dan tanpa sort:
+--   all      : artikel kanonik (duplicate_of_id IS NULL)
+--   category : artikel kanonik per kategori
+--   source   : semua artikel per sumber
+-- ============================================================
+
+-- Cursor butuh published_at terisi; parser sudah fallback ke waktu crawl,
+-- baris lama yang masih NULL diisi created_at
+UPDATE articles SET published_at = created_at WHERE published_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_articles_keyset ON articles(published_at DESC, id DESC)
+    WHERE duplicate_of_id IS NULL;
+CREATE INDEX IF NOT EXISTS idx_articles_category_keyset ON articles(category, published_at DESC, id DESC)
+    WHERE duplicate_of_id IS NULL;
+CREATE INDEX IF NOT EXISTS idx_articles_source_keyset ON articles(source_id, published_at DESC, id DESC);
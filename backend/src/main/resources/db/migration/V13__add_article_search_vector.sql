@@ -0,0 +1,35 @@
+-- ============================================================
+-- V13__add_article_search_vector.sql
+-- Full-text search artikel, menggantikan LOWER(...) LIKE '%keyword%'
+-- yang selalu seq scan dan tidak mencari di konten hasil scraping.
+--
+-- indonesian_unaccent : parser default + unaccent + stemmer Snowball
+--                       bahasa Indonesia ("membaca", "dibaca" → "baca")
+-- search_vector       : generated column (title A, description B, content C),
+--                       otomatis diperbarui saat insert dan saat konten di-scrape
+-- ============================================================
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'indonesian_unaccent') THEN
+        CREATE TEXT SEARCH CONFIGURATION indonesian_unaccent (COPY = pg_catalog.indonesian);
+        ALTER TEXT SEARCH CONFIGURATION indonesian_unaccent
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, indonesian_stem;
+    END IF;
+END
+$$;
+
+-- Konten dibatasi 100.000 karakter: tsvector maksimal 1 MB, dan bobot C
+-- untuk konten panjang tidak banyak berubah setelah bagian awal artikel
+ALTER TABLE articles
+    ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('indonesian_unaccent', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('indonesian_unaccent', coalesce(description, '')), 'B') ||
+        setweight(to_tsvector('indonesian_unaccent', left(coalesce(content, ''), 100000)), 'C')
+    ) STORED;
+
+COMMENT ON COLUMN articles.search_vector IS 'Full-text search (indonesian_unaccent): judul A, deskripsi B, konten C';
+
+CREATE INDEX IF NOT EXISTS idx_articles_search_vector ON articles USING GIN (search_vector);
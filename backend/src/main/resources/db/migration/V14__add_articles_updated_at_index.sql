@@ -0,0 +1,9 @@
+-- ============================================================
+-- V14__add_articles_updated_at_index.sql
+-- Index pencarian in-memory (ArticleSearchIndex) mengikuti perubahan
+-- artikel lewat keyset (updated_at, id): insert hasil crawl dan hasil
+-- scraping sama-sama mengubah updated_at. Tanpa index ini setiap
+-- sinkronisasi (default tiap 5 detik) menjadi seq scan.
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_articles_updated_at ON articles(updated_at, id);
@@ -0,0 +1,18 @@
+-- ============================================================
+-- V15__add_articles_source_guid_unique.sql
+-- GUID unik per sumber, agar insert crawl bisa melewati duplikat GUID
+-- (URL artikel berubah, GUID sama) lewat ON CONFLICT DO NOTHING tanpa
+-- cek ke DB lebih dulu. Entry yang menurut SeenUrlFilter pasti baru
+-- tidak lagi dicek ke Postgres sama sekali.
+-- ============================================================
+
+-- Baris lama dengan GUID kembar di sumber yang sama: pertahankan GUID di baris
+-- tertua, baris lain dikosongkan (URL tetap unik, dedup berbasis URL tidak berubah)
+UPDATE articles a
+SET guid = NULL
+FROM articles b
+WHERE a.source_id = b.source_id
+  AND a.guid = b.guid
+  AND a.id > b.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_articles_source_guid ON articles(source_id, guid);
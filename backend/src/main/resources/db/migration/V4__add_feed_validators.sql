@@ -0,0 +1,14 @@
+-- ============================================================
+-- V4__add_feed_validators.sql
+-- Menyimpan validator HTTP (ETag / Last-Modified) per sumber RSS
+-- agar crawler bisa melakukan conditional GET dan skip parsing
+-- jika feed tidak berubah (HTTP 304 Not Modified)
+-- ============================================================
+
+ALTER TABLE sources
+    ADD COLUMN IF NOT EXISTS feed_etag          VARCHAR(255),  -- Header ETag dari response feed terakhir
+    ADD COLUMN IF NOT EXISTS feed_last_modified VARCHAR(100);  -- Header Last-Modified (disimpan apa adanya)
+
+COMMENT ON COLUMN sources.feed_etag IS 'Dikirim kembali sebagai If-None-Match saat crawl berikutnya';
+COMMENT ON COLUMN sources.feed_last_modified IS 'Dikirim kembali sebagai If-Modified-Since saat crawl berikutnya';
+COMMENT ON COLUMN crawl_logs.status IS 'SUCCESS, FAILED, atau UNCHANGED (feed tidak berubah, HTTP 304)';
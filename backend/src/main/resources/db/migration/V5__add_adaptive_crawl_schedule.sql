@@ -0,0 +1,18 @@
+-- ============================================================
+-- V5__add_adaptive_crawl_schedule.sql
+-- Interval crawl adaptif per sumber: sumber breaking news di-crawl
+-- lebih sering, sumber yang jarang update di-backoff secara eksponensial
+-- ============================================================
+
+ALTER TABLE sources
+    ADD COLUMN IF NOT EXISTS crawl_interval_minutes INT NOT NULL DEFAULT 15,  -- Interval crawl saat ini
+    ADD COLUMN IF NOT EXISTS next_crawl_at          TIMESTAMP;               -- Kapan sumber ini jatuh tempo di-crawl
+
+COMMENT ON COLUMN sources.crawl_interval_minutes IS 'Dihitung ulang setiap crawl dari frekuensi publish dan riwayat crawl_logs';
+COMMENT ON COLUMN sources.next_crawl_at IS 'NULL = segera di-crawl pada tick scheduler berikutnya';
+
+-- Index untuk query scheduler: sumber aktif yang sudah jatuh tempo
+CREATE INDEX IF NOT EXISTS idx_sources_next_crawl_at ON sources(next_crawl_at) WHERE is_active = TRUE;
+
+-- Index untuk mengambil riwayat crawl terbaru per sumber
+CREATE INDEX IF NOT EXISTS idx_crawl_logs_source_crawled_at ON crawl_logs(source_id, crawled_at DESC);
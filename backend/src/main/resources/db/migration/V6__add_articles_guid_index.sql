@@ -0,0 +1,8 @@
+-- ============================================================
+-- V6__add_articles_guid_index.sql
+-- Index untuk cek duplikat berbasis GUID.
+-- Cek duplikat per feed sekarang satu query: url IN (...) OR guid IN (...),
+-- url sudah ter-index (UNIQUE), guid belum → tanpa index ini jadi seq scan.
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_articles_guid ON articles(guid);
@@ -0,0 +1,29 @@
+-- ============================================================
+-- V7__add_crawl_cycles.sql
+-- Satu "crawl cycle" = satu kali fan-out crawl ke banyak sumber
+-- (tick scheduler atau trigger manual). Dipakai untuk mengukur
+-- kapan cycle selesai, makespan, latency per sumber, dan straggler.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS crawl_cycles (
+    id                BIGSERIAL PRIMARY KEY,
+    trigger_type      VARCHAR(20) NOT NULL,              -- SCHEDULED atau MANUAL
+    status            VARCHAR(20) NOT NULL DEFAULT 'RUNNING', -- RUNNING, COMPLETED, INCOMPLETE
+    sources_total     INT NOT NULL,                      -- Jumlah sumber yang di-enqueue
+    sources_completed INT NOT NULL DEFAULT 0,            -- Sumber yang sudah selesai (berhasil/gagal)
+    sources_failed    INT NOT NULL DEFAULT 0,            -- Sumber yang gagal di-crawl
+    articles_saved    INT NOT NULL DEFAULT 0,            -- Total artikel baru dari cycle ini
+    started_at        TIMESTAMP NOT NULL DEFAULT NOW(),
+    finished_at       TIMESTAMP                          -- NULL selama cycle masih berjalan
+);
+
+COMMENT ON TABLE crawl_cycles IS 'Satu kali fan-out crawl ke banyak sumber, diagregasi dari semua worker';
+COMMENT ON COLUMN crawl_cycles.status IS 'INCOMPLETE = melewati batas waktu sebelum semua sumber selesai';
+
+CREATE INDEX IF NOT EXISTS idx_crawl_cycles_started_at ON crawl_cycles(started_at DESC);
+
+-- Setiap crawl log tahu berasal dari cycle mana (NULL untuk crawl manual satu sumber)
+ALTER TABLE crawl_logs
+    ADD COLUMN IF NOT EXISTS cycle_id BIGINT REFERENCES crawl_cycles(id) ON DELETE SET NULL;
+
+CREATE INDEX IF NOT EXISTS idx_crawl_logs_cycle_id ON crawl_logs(cycle_id);
@@ -0,0 +1,14 @@
+-- ============================================================
+-- V8__add_scrape_lease.sql
+-- Lease untuk pipeline scraping: artikel yang sedang dikerjakan
+-- ditandai sampai waktu tertentu agar tidak diklaim worker lain.
+-- Jika worker mati, lease kedaluwarsa dan artikel bisa diklaim ulang.
+-- ============================================================
+
+ALTER TABLE articles
+    ADD COLUMN IF NOT EXISTS scrape_lease_until TIMESTAMP;   -- NULL = tidak sedang dikerjakan
+
+COMMENT ON COLUMN articles.scrape_lease_until IS 'Diisi saat artikel diklaim pipeline scraping (SKIP LOCKED), dikosongkan saat hasil ditulis';
+
+-- Index parsial: hanya artikel yang belum di-scrape, urut dari terbaru (urutan klaim)
+CREATE INDEX IF NOT EXISTS idx_articles_unscraped ON articles(created_at DESC) WHERE is_scraped = FALSE;
@@ -0,0 +1,26 @@
+-- ============================================================
+-- V9__add_article_simhash.sql
+-- Deteksi artikel near-duplicate lintas sumber (berita sindikasi yang
+-- muncul di beberapa portal dengan URL berbeda).
+-- simhash       : fingerprint 64-bit dari judul + deskripsi
+-- simhash_bands : 8 band 8-bit dari simhash (LSH) + hari insert, index GIN
+--                 untuk mencari kandidat dengan operator && (overlap array)
+-- duplicate_of_id : artikel kanonik cluster; NULL = artikel kanonik sendiri
+-- ============================================================
+
+ALTER TABLE articles
+    ADD COLUMN IF NOT EXISTS simhash         BIGINT,
+    ADD COLUMN IF NOT EXISTS simhash_bands   INTEGER[],
+    ADD COLUMN IF NOT EXISTS duplicate_of_id BIGINT REFERENCES articles(id) ON DELETE SET NULL;
+
+COMMENT ON COLUMN articles.simhash IS 'SimHash 64-bit judul + deskripsi; NULL jika teks terlalu pendek';
+COMMENT ON COLUMN articles.simhash_bands IS 'Key LSH: (hari sejak epoch << 11) | (index band << 8) | 8 bit simhash, untuk lookup kandidat near-duplicate';
+COMMENT ON COLUMN articles.duplicate_of_id IS 'Artikel kanonik jika artikel ini near-duplicate, disembunyikan dari list';
+
+CREATE INDEX IF NOT EXISTS idx_articles_simhash_bands ON articles USING GIN (simhash_bands);
+CREATE INDEX IF NOT EXISTS idx_articles_duplicate_of_id ON articles(duplicate_of_id);
+
+-- Near-duplicate tidak di-scrape: keluarkan dari index antrian scraping
+DROP INDEX IF EXISTS idx_articles_unscraped;
+CREATE INDEX IF NOT EXISTS idx_articles_unscraped ON articles(created_at DESC)
+    WHERE is_scraped = FALSE AND duplicate_of_id IS NULL;
@@ -0,0 +1,87 @@
+package com.app.news_aggregator.crawler;
+
+import com.app.news_aggregator.model.Article;
+import com.app.news_aggregator.repository.ArticleRepository;
+import com.app.news_aggregator.repository.ArticleRepositoryCustom.SimHashCandidate;
+import com.app.news_aggregator.util.SimHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NearDuplicateDetectorTest {
+
+    private static final String TITLE = "Banjir rendam ratusan rumah warga Cimanggung Sumedang";
+    private static final String DESCRIPTION =
+            "Tim SAR gabungan mengevakuasi warga setelah hujan deras sejak Senin malam";
+
+    private ArticleRepository articleRepository;
+    private NearDuplicateDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        when(articleRepository.findNearDuplicateCandidates(anyCollection(), any())).thenReturn(List.of());
+        detector = new NearDuplicateDetector(articleRepository, true, 6, 72, 6);
+    }
+
+    @Test
+    void sameStoryInOneBatchIsClusteredUnderFirstArticle() {
+        Article kompas = article("https://kompas.com/banjir-sumedang", TITLE, DESCRIPTION);
+        Article detik = article("https://detik.com/banjir-sumedang", TITLE, DESCRIPTION);
+        Article other = article("https://detik.com/emas",
+                "Harga emas Antam naik delapan ribu rupiah per gram",
+                "Harga emas batangan produksi Antam kembali menguat pada perdagangan Selasa pagi");
+
+        Map<Article, Article> batchDuplicates = detector.assignClusters(List.of(kompas, detik, other));
+
+        assertThat(batchDuplicates).hasSize(1).containsEntry(detik, kompas);
+        assertThat(kompas.getSimhash()).isEqualTo(detik.getSimhash());
+        assertThat(other.getSimhash()).isNotNull();
+        assertThat(kompas.getDuplicateOfId()).isNull();
+        assertThat(other.getDuplicateOfId()).isNull();
+
+        // Setelah kanonik ter-insert, near-duplicate menunjuk ke ID-nya
+        kompas.setId(101L);
+        detector.resolveBatchDuplicates(batchDuplicates);
+        assertThat(detik.getDuplicateOfId()).isEqualTo(101L);
+    }
+
+    @Test
+    void storedCandidateWinsOverBatchAndPointsToItsCanonical() {
+        Long fingerprint = SimHash.fingerprint(TITLE + " " + DESCRIPTION, 6);
+        when(articleRepository.findNearDuplicateCandidates(anyCollection(), any()))
+                .thenReturn(List.of(new SimHashCandidate(7L, fingerprint, 3L)));
+        Article first = article("https://kompas.com/banjir-sumedang", TITLE, DESCRIPTION);
+        Article second = article("https://detik.com/banjir-sumedang", TITLE, DESCRIPTION);
+
+        Map<Article, Article> batchDuplicates = detector.assignClusters(List.of(first, second));
+
+        assertThat(batchDuplicates).isEmpty();
+        assertThat(first.getDuplicateOfId()).isEqualTo(3L);
+        assertThat(second.getDuplicateOfId()).isEqualTo(3L);
+    }
+
+    @Test
+    void shortTextGetsNoFingerprintAndIsNeverClustered() {
+        Article a = article("https://a.com/1", "Gempa Cianjur", null);
+        Article b = article("https://b.com/1", "Gempa Cianjur", null);
+
+        Map<Article, Article> batchDuplicates = detector.assignClusters(List.of(a, b));
+
+        assertThat(batchDuplicates).isEmpty();
+        assertThat(a.getSimhash()).isNull();
+        assertThat(b.getSimhash()).isNull();
+    }
+
+    private static Article article(String url, String title, String description) {
+        return Article.builder().url(url).title(title).description(description).build();
+    }
+}
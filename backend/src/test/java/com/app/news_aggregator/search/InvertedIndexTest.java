@@ -0,0 +1,159 @@
+package com.app.news_aggregator.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    private static final long DAY = 86_400;
+
+    @Test
+    void ranksHigherTermFrequencyAndRarerTermsFirst() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert(1, 1, DAY, terms("banjir", 1, "jakarta", 1, "hujan", 1));
+        index.upsert(2, 1, DAY, terms("banjir", 4, "jakarta", 1, "hujan", 1));
+        index.upsert(3, 1, DAY, terms("jakarta", 1, "macet", 1, "tol", 1));
+        index.upsert(4, 1, DAY, terms("jakarta", 1, "banjir", 1, "rob", 1));
+
+        InvertedIndex.Hits banjir = index.search(List.of("banjir"), 0, 10);
+        assertThat(banjir.total()).isEqualTo(3);
+        assertThat(banjir.articleIds()[0]).isEqualTo(2L);
+
+        // AND: hanya dokumen dengan semua term
+        InvertedIndex.Hits banjirRob = index.search(List.of("banjir", "rob"), 0, 10);
+        assertThat(banjirRob.articleIds()).containsExactly(4L);
+        assertThat(index.search(List.of("banjir", "tidakada"), 0, 10).total()).isZero();
+    }
+
+    @Test
+    void shorterDocumentWinsAndTiesGoToNewestArticle() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert(1, 1, DAY, terms("gempa", 1, "cianjur", 1));
+        index.upsert(2, 1, DAY, terms("gempa", 1, "cianjur", 1, "warga", 1, "mengungsi", 1, "tenda", 1));
+        index.upsert(3, 1, 3 * DAY, terms("gempa", 1, "cianjur", 1));
+
+        InvertedIndex.Hits hits = index.search(List.of("gempa"), 0, 10);
+
+        // 1 dan 3 sama pendek (skor sama) → yang terbit lebih baru dulu; dokumen panjang terakhir
+        assertThat(hits.articleIds()).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void paginatesOverRankedHits() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 25; id++) {
+            index.upsert(id, 1, id * DAY, terms("pemilu", 1));
+        }
+
+        InvertedIndex.Hits page2 = index.search(List.of("pemilu"), 10, 10);
+        InvertedIndex.Hits page3 = index.search(List.of("pemilu"), 20, 10);
+        InvertedIndex.Hits beyond = index.search(List.of("pemilu"), 30, 10);
+
+        assertThat(page2.total()).isEqualTo(25);
+        assertThat(page2.articleIds()).containsExactly(15L, 14L, 13L, 12L, 11L, 10L, 9L, 8L, 7L, 6L);
+        assertThat(page3.articleIds()).containsExactly(5L, 4L, 3L, 2L, 1L);
+        assertThat(beyond.articleIds()).isEmpty();
+        assertThat(beyond.total()).isEqualTo(25);
+    }
+
+    @Test
+    void upsertSkipsSameVersionAndReplacesChangedDocument() {
+        InvertedIndex index = new InvertedIndex();
+        assertThat(index.upsert(1, 7, DAY, terms("harga", 1, "beras", 1))).isTrue();
+        assertThat(index.upsert(1, 7, DAY, terms("harga", 1, "beras", 1))).isFalse();
+
+        assertThat(index.upsert(1, 8, DAY, terms("harga", 1, "cabai", 1))).isTrue();
+
+        assertThat(index.search(List.of("beras"), 0, 10).total()).isZero();
+        assertThat(index.search(List.of("cabai"), 0, 10).articleIds()).containsExactly(1L);
+        assertThat(index.stats()).containsEntry("documents", 1).containsEntry("deletedDocuments", 1);
+    }
+
+    @Test
+    void removeDropsArticleFromHitsAndTotal() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert(1, 1, DAY, terms("gempa", 1));
+        index.upsert(2, 1, 2 * DAY, terms("gempa", 1));
+
+        assertThat(index.remove(1)).isTrue();
+        assertThat(index.remove(1)).isFalse();
+
+        InvertedIndex.Hits hits = index.search(List.of("gempa"), 0, 10);
+        assertThat(hits.total()).isEqualTo(1);
+        assertThat(hits.articleIds()).containsExactly(2L);
+        assertThat(index.stats()).containsEntry("documents", 1).containsEntry("deletedDocuments", 1);
+    }
+
+    @Test
+    void compactionRemapsDocIdsWithoutChangingResults() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 3_000; id++) {
+            index.upsert(id, 1, id * DAY, terms("berita", 1, id % 2 == 0 ? "genap" : "ganjil", 1));
+        }
+        // 2.000 dokumen lama keluar dari window → tombstone
+        assertThat(index.removePublishedBefore(2_001 * DAY)).isEqualTo(2_000);
+        // Artikel yang diperbarui mendapat doc id baru setelah tombstone-nya
+        index.upsert(2_500, 2, 2_500 * DAY, terms("berita", 1, "genap", 1, "koreksi", 1));
+        assertThat(index.needsCompaction()).isTrue();
+
+        InvertedIndex.Hits before = index.search(List.of("berita", "genap"), 0, 2_000);
+        index.compact();
+        InvertedIndex.Hits after = index.search(List.of("berita", "genap"), 0, 2_000);
+
+        assertThat(index.needsCompaction()).isFalse();
+        assertThat(index.stats()).containsEntry("documents", 1_000).containsEntry("deletedDocuments", 0);
+        assertThat(after.total()).isEqualTo(before.total()).isEqualTo(500);
+        assertThat(after.articleIds()).containsExactly(before.articleIds());
+        assertThat(index.search(List.of("koreksi"), 0, 10).articleIds()).containsExactly(2_500L);
+        assertThat(index.search(List.of("genap"), 0, 10).articleIds()[0]).isEqualTo(3_000L);
+
+        // Setelah compaction update dan insert tetap berjalan dengan doc id baru
+        index.upsert(2_500, 3, 2_500 * DAY, terms("berita", 1, "ralat", 1));
+        index.upsert(9_999, 1, 9_999 * DAY, terms("berita", 1, "ralat", 1));
+        assertThat(index.search(List.of("koreksi"), 0, 10).total()).isZero();
+        assertThat(index.search(List.of("ralat"), 0, 10).articleIds()).containsExactly(9_999L, 2_500L);
+    }
+
+    @Test
+    void snapshotRoundTripPreservesDocumentsTombstonesAndRanking() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert(1, 11, DAY, terms("banjir", 1, "bekasi", 1));
+        index.upsert(2, 12, 2 * DAY, terms("banjir", 3, "bekasi", 1, "tanggul", 1));
+        index.upsert(3, 13, 3 * DAY, terms("kebakaran", 1, "pasar", 1));
+        index.upsert(1, 14, DAY, terms("banjir", 1, "bogor", 1)); // tombstone untuk versi lama
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        InvertedIndex read = InvertedIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(read.stats()).isEqualTo(index.stats());
+        for (List<String> query : List.of(List.of("banjir"), List.of("bekasi"), List.of("bogor"), List.of("pasar"))) {
+            InvertedIndex.Hits expected = index.search(query, 0, 10);
+            InvertedIndex.Hits actual = read.search(query, 0, 10);
+            assertThat(actual.total()).as("%s", query).isEqualTo(expected.total());
+            assertThat(actual.articleIds()).as("%s", query).containsExactly(expected.articleIds());
+        }
+        // Versi ikut tersimpan: dokumen yang sama tidak di-index ulang, dokumen baru tetap bisa masuk
+        assertThat(read.upsert(2, 12, 2 * DAY, terms("banjir", 3, "bekasi", 1, "tanggul", 1))).isFalse();
+        assertThat(read.upsert(4, 1, 4 * DAY, terms("banjir", 1, "depok", 1))).isTrue();
+        assertThat(read.search(List.of("banjir"), 0, 10).total()).isEqualTo(3);
+    }
+
+    private static Map<String, Integer> terms(Object... termAndFreq) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (int i = 0; i < termAndFreq.length; i += 2) {
+            terms.put((String) termAndFreq[i], (Integer) termAndFreq[i + 1]);
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,93 @@
+package com.app.news_aggregator.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostingsListTest {
+
+    @Test
+    void varintRoundTripAcrossByteBoundaries() {
+        // Delta dan tf di sekitar batas 1, 2, 3, 4, dan 5 byte varint
+        int[] docs = {0, 1, 128, 129, 16_512, 2_113_664, 270_549_120, Integer.MAX_VALUE};
+        int[] tfs = {1, 127, 128, 16_383, 16_384, 2_097_152, 1, 300};
+        PostingsList list = new PostingsList();
+        for (int i = 0; i < docs.length; i++) {
+            list.add(docs[i], tfs[i]);
+        }
+
+        int[] decodedDocs = new int[list.docFreq()];
+        int[] decodedTfs = new int[list.docFreq()];
+        list.decode(decodedDocs, decodedTfs);
+
+        assertThat(list.docFreq()).isEqualTo(docs.length);
+        assertThat(decodedDocs).containsExactly(docs);
+        assertThat(decodedTfs).containsExactly(tfs);
+    }
+
+    @Test
+    void smallDeltasTakeTwoBytesPerPosting() {
+        PostingsList list = new PostingsList();
+        for (int doc = 0; doc < 1_000; doc++) {
+            list.add(doc * 3, 2);
+        }
+
+        assertThat(list.sizeInBytes()).isEqualTo(2_000);
+    }
+
+    @Test
+    void rejectsNonIncreasingDocIds() {
+        PostingsList list = new PostingsList();
+        list.add(5, 1);
+
+        assertThatThrownBy(() -> list.add(5, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> list.add(4, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void remapDropsDeletedDocsAndKeepsOrder() {
+        PostingsList list = new PostingsList();
+        list.add(0, 1);
+        list.add(2, 2);
+        list.add(3, 3);
+        list.add(7, 4);
+        // doc 3 mati; doc 1 dan 4-6 tidak punya posting di list ini
+        int[] newIds = {0, -1, 1, -1, -1, -1, -1, 2};
+
+        PostingsList remapped = list.remap(newIds);
+
+        int[] docs = new int[remapped.docFreq()];
+        int[] tfs = new int[remapped.docFreq()];
+        remapped.decode(docs, tfs);
+        assertThat(docs).containsExactly(0, 1, 2);
+        assertThat(tfs).containsExactly(1, 2, 4);
+        assertThat(list.remap(new int[]{-1, -1, -1, -1, -1, -1, -1, -1})).isNull();
+    }
+
+    @Test
+    void snapshotRoundTripKeepsPostingsAndAllowsAppending() throws IOException {
+        PostingsList list = new PostingsList();
+        list.add(3, 1);
+        list.add(900, 2);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        list.writeTo(new DataOutputStream(bytes));
+        PostingsList read = PostingsList.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        // lastDoc ikut dipulihkan: posting baru tetap di-encode sebagai delta yang benar
+        read.add(901, 5);
+
+        int[] docs = new int[read.docFreq()];
+        int[] tfs = new int[read.docFreq()];
+        read.decode(docs, tfs);
+        assertThat(docs).containsExactly(3, 900, 901);
+        assertThat(tfs).containsExactly(1, 2, 5);
+        assertThatThrownBy(() -> read.add(901, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
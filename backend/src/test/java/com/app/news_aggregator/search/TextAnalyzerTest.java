@@ -0,0 +1,24 @@
+package com.app.news_aggregator.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextAnalyzerTest {
+
+    @Test
+    void detectsWebsearchOperatorsThatTheIndexCannotAnswer() {
+        assertThat(TextAnalyzer.hasQueryOperators("\"harga beras\" naik")).isTrue();
+        assertThat(TextAnalyzer.hasQueryOperators("banjir or longsor")).isTrue();
+        assertThat(TextAnalyzer.hasQueryOperators("banjir OR longsor")).isTrue();
+        assertThat(TextAnalyzer.hasQueryOperators("banjir -jakarta")).isTrue();
+    }
+
+    @Test
+    void plainQueriesStayOnTheIndex() {
+        assertThat(TextAnalyzer.hasQueryOperators("harga beras naik")).isFalse();
+        assertThat(TextAnalyzer.hasQueryOperators("covid-19 jakarta")).isFalse();
+        assertThat(TextAnalyzer.hasQueryOperators("orang - tua")).isFalse();
+        assertThat(TextAnalyzer.hasQueryOperators("")).isFalse();
+    }
+}
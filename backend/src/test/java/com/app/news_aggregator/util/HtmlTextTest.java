@@ -0,0 +1,66 @@
+package com.app.news_aggregator.util;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HtmlText harus menghasilkan teks yang sama dengan Jsoup.parse(html).text(),
+ * yang dipakai sebelumnya untuk deskripsi RSS.
+ */
+class HtmlTextTest {
+
+    static List<String> feedDescriptions() throws IOException {
+        try (InputStream in = HtmlTextTest.class.getResourceAsStream("/html-text/feed-descriptions.txt")) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            String withoutComments = content.lines()
+                    .filter(line -> !line.startsWith("#"))
+                    .collect(Collectors.joining("\n"));
+            List<String> descriptions = new ArrayList<>();
+            for (String description : withoutComments.split("\n---\n")) {
+                descriptions.add(description);
+            }
+            return descriptions;
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("feedDescriptions")
+    void toTextMatchesJsoupText(String html) {
+        assertThat(HtmlText.toText(html, Integer.MAX_VALUE)).isEqualTo(Jsoup.parse(html).text());
+    }
+
+    @ParameterizedTest
+    @MethodSource("feedDescriptions")
+    void toTextStopsAtMaxCharsWithJsoupPrefix(String html) {
+        String expected = Jsoup.parse(html).text();
+        int maxChars = expected.length() / 2;
+        assertThat(HtmlText.toText(html, maxChars)).isEqualTo(expected.substring(0, maxChars));
+    }
+
+    @Test
+    void excerptTruncatesWithEllipsis() {
+        String html = "<p>" + "Berita ".repeat(100) + "</p>";
+
+        String excerpt = HtmlText.excerpt(html, 50);
+
+        assertThat(excerpt).hasSize(50).endsWith("...");
+        assertThat(excerpt).isEqualTo(Jsoup.parse(html).text().substring(0, 47) + "...");
+    }
+
+    @Test
+    void excerptKeepsShortTextIntact() {
+        assertThat(HtmlText.excerpt("<p>Hello &amp; World</p>", 500)).isEqualTo("Hello & World");
+        assertThat(HtmlText.excerpt(null, 500)).isNull();
+    }
+}
@@ -0,0 +1,94 @@
+package com.app.news_aggregator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimHashTest {
+
+    @Test
+    void bandKeysPackBucketBandIndexAndBandBits() {
+        long fingerprint = 0x0123_4567_89AB_CDEFL;
+        long bucket = 20_000; // hari sejak epoch (2024-10-04)
+
+        int[] keys = SimHash.bandKeys(fingerprint, bucket);
+
+        assertThat(keys).hasSize(SimHash.BANDS);
+        for (int band = 0; band < SimHash.BANDS; band++) {
+            int bits = (int) ((fingerprint >>> (band * 8)) & 0xFF);
+            assertThat(keys[band]).isEqualTo((int) (bucket << 11) | (band << 8) | bits);
+            assertThat(keys[band] >>> 11).isEqualTo((int) bucket);
+            assertThat((keys[band] >>> 8) & 0x7).isEqualTo(band);
+            assertThat(keys[band] & 0xFF).isEqualTo(bits);
+        }
+        // Band terendah berisi byte terendah fingerprint
+        assertThat(keys[0] & 0xFF).isEqualTo(0xEF);
+        assertThat(keys[7] & 0xFF).isEqualTo(0x01);
+    }
+
+    @Test
+    void bandKeysDifferPerBandAndPerBucket() {
+        long fingerprint = 0L; // semua band bernilai 0: hanya index band yang membedakan key
+
+        Set<Integer> sameDay = new HashSet<>();
+        for (int key : SimHash.bandKeys(fingerprint, 20_000)) sameDay.add(key);
+        assertThat(sameDay).hasSize(SimHash.BANDS);
+
+        Set<Integer> nextDay = new HashSet<>();
+        for (int key : SimHash.bandKeys(fingerprint, 20_001)) nextDay.add(key);
+        assertThat(nextDay).doesNotContainAnyElementsOf(sameDay);
+    }
+
+    @Test
+    void distanceUpToSevenAlwaysSharesABand() {
+        Random random = new Random(42);
+        for (int round = 0; round < 10_000; round++) {
+            long a = random.nextLong();
+            int flips = 1 + random.nextInt(7);
+            long b = a;
+            while (SimHash.distance(a, b) < flips) {
+                b ^= 1L << random.nextInt(64);
+            }
+
+            assertThat(SimHash.distance(a, b)).isLessThanOrEqualTo(7);
+            assertThat(sharesBand(a, b)).as("distance %d", SimHash.distance(a, b)).isTrue();
+        }
+    }
+
+    @Test
+    void distanceEightCanMissEveryBand() {
+        long a = 0L;
+        long b = 0x0101_0101_0101_0101L; // satu bit berbeda di setiap band
+
+        assertThat(SimHash.distance(a, b)).isEqualTo(8);
+        assertThat(sharesBand(a, b)).isFalse();
+    }
+
+    @Test
+    void fingerprintIsStableAndIgnoresCaseAndStopwords() {
+        String text = "Banjir merendam ratusan rumah warga di Kecamatan Cimanggung Sumedang";
+
+        Long fingerprint = SimHash.fingerprint(text, 6);
+
+        assertThat(fingerprint).isNotNull();
+        assertThat(SimHash.fingerprint(text.toUpperCase(), 6)).isEqualTo(fingerprint);
+        assertThat(SimHash.fingerprint(text + " yang dan di", 6)).isEqualTo(fingerprint);
+    }
+
+    @Test
+    void fingerprintIsNullForShortText() {
+        assertThat(SimHash.fingerprint("Banjir di Sumedang", 6)).isNull();
+        assertThat(SimHash.fingerprint(null, 6)).isNull();
+    }
+
+    private static boolean sharesBand(long a, long b) {
+        int[] keysA = SimHash.bandKeys(a, 1);
+        int[] keysB = SimHash.bandKeys(b, 1);
+        return Arrays.stream(keysA).anyMatch(key -> Arrays.stream(keysB).anyMatch(other -> other == key));
+    }
+}
@@ -0,0 +1,34 @@
+package com.app.news_aggregator.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UrlCanonicalizerTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', textBlock = """
+        https://www.kompas.com/read/2024/06/01/banjir?utm_source=rss&utm_medium=feed | https://www.kompas.com/read/2024/06/01/banjir
+        https://news.detik.com/berita/d-7350011/judul?fbclid=IwAR0abc&page=2           | https://news.detik.com/berita/d-7350011/judul?page=2
+        https://example.com/a?id=5&gclid=xyz&_ga=1.2.3&ref_src=twsrc                   | https://example.com/a?id=5
+        https://example.com/a?UTM_Campaign=x&b=2                                        | https://example.com/a?b=2
+        HTTPS://CNNIndonesia.COM:443/nasional#komentar                                  | https://cnnindonesia.com/nasional
+        http://example.com:80                                                          | http://example.com/
+        http://example.com:8080/a                                                      | http://example.com:8080/a
+        https://example.com/a?ref=homepage&share=1&amp=1&spm=a2o4j                      | https://example.com/a?ref=homepage&share=1&amp=1&spm=a2o4j
+        https://example.com/search?q=a%20b&&sort=new                                   | https://example.com/search?q=a%20b&sort=new
+        '  https://example.com/a  '                                                    | https://example.com/a
+        """)
+    void canonicalize(String url, String expected) {
+        assertThat(UrlCanonicalizer.canonicalize(url)).isEqualTo(expected);
+    }
+
+    @Test
+    void returnsTrimmedInputWhenUrlCannotBeParsed() {
+        assertThat(UrlCanonicalizer.canonicalize(" not a url with spaces ")).isEqualTo("not a url with spaces");
+        assertThat(UrlCanonicalizer.canonicalize("/relative/path")).isEqualTo("/relative/path");
+        assertThat(UrlCanonicalizer.canonicalize(null)).isNull();
+    }
+}
@@ -1,7 +1,7 @@
 import { apiClient } from './client'
 import type { ApiResponse, CrawlResult, CrawlStats } from '../types'
 
-export function crawlAll(): Promise<ApiResponse<string>> {
+export function crawlAll(): Promise<ApiResponse<{ cycleId: number; sourcesTotal: number }>> {
   return apiClient.post('/crawler/crawl-all').then(r => r.data)
 }
 